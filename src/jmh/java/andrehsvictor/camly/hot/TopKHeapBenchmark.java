@@ -0,0 +1,71 @@
+package andrehsvictor.camly.hot;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Updates per second of the hot ranking: likes on ranked posts, and offers
+ * of posts that may or may not make it into the ranking, with the default
+ * gravity scorer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopKHeapBenchmark {
+
+    private static final int POSTS = 100_000;
+    private static final long NOW = 1_800_000_000L;
+    private static final long WEEK_SECONDS = 7 * 24 * 3600L;
+
+    @Param({ "100", "1000", "10000" })
+    private int capacity;
+
+    private TopKHeap heap;
+    private UUID[] posts;
+    private long[] likeCounts;
+    private long[] createdAtSeconds;
+    private UUID[] ranked;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        heap = new TopKHeap(capacity, new GravityHotScorer(new HotRankingProperties()));
+        posts = new UUID[POSTS];
+        likeCounts = new long[POSTS];
+        createdAtSeconds = new long[POSTS];
+        for (int i = 0; i < POSTS; i++) {
+            posts[i] = UUID.randomUUID();
+            likeCounts[i] = i % 500;
+            createdAtSeconds[i] = NOW - (i * 7919L) % WEEK_SECONDS;
+            heap.offer(posts[i], likeCounts[i], 250, createdAtSeconds[i], NOW);
+        }
+        ranked = heap.top(0, capacity).toArray(UUID[]::new);
+    }
+
+    @Benchmark
+    public boolean likeRankedPost() {
+        return heap.addLikes(ranked[next++ % ranked.length], 1, NOW);
+    }
+
+    @Benchmark
+    public boolean offerAnyPost() {
+        int post = next++ % POSTS;
+        return heap.offer(posts[post], ++likeCounts[post], 250, createdAtSeconds[post], NOW);
+    }
+
+}
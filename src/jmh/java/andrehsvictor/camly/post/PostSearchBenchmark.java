@@ -0,0 +1,200 @@
+package andrehsvictor.camly.post;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Latency of one page of post search on a seeded database: the substring
+ * match the search used to run against the full-text match that replaced
+ * it, both the ranked page with its count and the newest-first keyset page.
+ * Captions are made of words built from random syllables, a few of them
+ * common and most of them rare, and each query is a word of a sampled
+ * caption. Needs Docker, unless {@code -Dbenchmark.jdbc-url} (and
+ * {@code -Dbenchmark.username}, {@code -Dbenchmark.password}) points at an
+ * empty Postgres database. Each trial seeds it anew, so an external database
+ * is only wiped between trials with {@code -Dbenchmark.clean=true}. Seeding
+ * {@code posts} rows takes about ten minutes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostSearchBenchmark {
+
+    private static final int AUTHORS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int SAMPLE_SIZE = 1000;
+    private static final List<String> SYLLABLES = List.of("ma", "ri", "a", "na", "jo", "ao", "pe", "dro", "lu",
+            "cas", "ju", "li", "ga", "bri", "el", "be", "tri", "ra", "fa", "ca", "mi", "la", "an", "dre", "sa",
+            "sil", "va", "san", "tos", "o", "vei", "sou", "za", "rei", "cos", "ta", "ro", "dri", "gues", "al",
+            "mei", "da", "nas", "ci", "men", "car", "lho", "fer", "nan", "des", "go", "mes", "bar", "bo", "le",
+            "te", "vi", "tor", "her", "nes");
+
+    private static final String SUBSTRING = """
+            SELECT p.id
+            FROM posts p
+            JOIN users u ON u.id = p.user_id
+            WHERE LOWER(p.caption) LIKE CONCAT('%', LOWER(?), '%')
+            OR LOWER(u.username) LIKE CONCAT('%', LOWER(?), '%')
+            ORDER BY p.created_at DESC
+            LIMIT ?
+            """;
+
+    // Posts whose caption or author's username has every word of the query, as in PostRepository.SEARCH
+    private static final String FULL_TEXT_MATCHES = """
+            FROM posts p
+            JOIN users u ON u.id = p.user_id
+            WHERE p.id IN (
+                SELECT p2.id FROM posts p2
+                WHERE p2.caption_search @@ plainto_tsquery('english', ?)
+                UNION
+                SELECT p2.id FROM posts p2
+                JOIN users u2 ON u2.id = p2.user_id
+                WHERE u2.username_search @@ plainto_tsquery('simple', ?))
+            """;
+
+    private static final String FULL_TEXT = "SELECT p.id " + FULL_TEXT_MATCHES + """
+            ORDER BY ts_rank(p.caption_search, plainto_tsquery('english', ?))
+                + ts_rank(u.username_search, plainto_tsquery('simple', ?)) DESC,
+                p.created_at DESC, p.id DESC
+            LIMIT ?
+            """;
+
+    private static final String FULL_TEXT_COUNT = "SELECT COUNT(*) " + FULL_TEXT_MATCHES;
+
+    private static final String FULL_TEXT_NEWEST = "SELECT p.id " + FULL_TEXT_MATCHES + """
+            ORDER BY p.created_at DESC, p.id DESC
+            LIMIT ?
+            """;
+
+    @Param({ "1000000" })
+    private int posts;
+
+    private PostgreSQLContainer<?> postgres;
+    private JdbcTemplate jdbcTemplate;
+    private List<String> words;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("benchmark.jdbc-url");
+        String username = System.getProperty("benchmark.username", "camly");
+        String password = System.getProperty("benchmark.password", "camly");
+        boolean clean = Boolean.getBoolean("benchmark.clean");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:alpine")
+                    .withDatabaseName("camly")
+                    .withUsername(username)
+                    .withPassword(password);
+            postgres.start();
+            url = postgres.getJdbcUrl();
+        }
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .cleanDisabled(!clean)
+                .load();
+        if (clean) {
+            // Left over by a previous trial
+            flyway.clean();
+        }
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, username, password));
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM posts LIMIT 1) p",
+                Integer.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException(
+                    "Benchmark database already has posts; pass -Dbenchmark.clean=true to wipe it");
+        }
+
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, provider, full_name)
+                SELECT 'author' || n, 'author' || n || '@example.com', 'LOCAL', 'Author'
+                FROM generate_series(1, ?) AS n
+                """, AUTHORS);
+        // Word ranks are spread log-uniformly over 100..50000, so the most common word is in about 1% of posts
+        jdbcTemplate.update("""
+                INSERT INTO posts (image_url, caption, user_id, created_at)
+                SELECT 'https://example.com/image.jpg',
+                    array_to_string(ARRAY(
+                        SELECT syllables.s[1 + w.rank % 60] || syllables.s[1 + (w.rank / 60) % 60]
+                            || CASE WHEN w.rank >= 3600 THEN syllables.s[1 + (w.rank / 3600) % 60] ELSE '' END
+                        FROM generate_series(1, 4) AS i,
+                            LATERAL (
+                                SELECT CAST(floor(100 * power(500, (hashint4(n * 4 + i) & 2147483647) / 2147483648.0))
+                                    AS INT) AS rank
+                            ) w
+                    ), ' ') || ' #' || n,
+                    a.ids[1 + n % array_length(a.ids, 1)],
+                    now() - n * INTERVAL '1 second'
+                FROM generate_series(1, ?) AS n,
+                    (SELECT CAST(? AS TEXT[]) AS s) syllables,
+                    (SELECT array_agg(id) AS ids FROM users) a
+                """, posts, SYLLABLES.toArray(String[]::new));
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE posts");
+
+        words = new ArrayList<>();
+        jdbcTemplate.query("SELECT caption FROM posts TABLESAMPLE SYSTEM (1) LIMIT ?", row -> {
+            String[] captionWords = row.getString("caption").split(" ");
+            // The last word is the hashtag
+            words.add(captionWords[random(captionWords.length - 1)]);
+        }, SAMPLE_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public List<UUID> substring() {
+        String query = word();
+        return jdbcTemplate.queryForList(SUBSTRING, UUID.class, query, query, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UUID> fullText() {
+        String query = word();
+        jdbcTemplate.queryForObject(FULL_TEXT_COUNT, Long.class, query, query);
+        return jdbcTemplate.queryForList(FULL_TEXT, UUID.class, query, query, query, query, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UUID> fullTextNewest() {
+        String query = word();
+        return jdbcTemplate.queryForList(FULL_TEXT_NEWEST, UUID.class, query, query, PAGE_SIZE);
+    }
+
+    private String word() {
+        return words.get(random(words.size()));
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+}
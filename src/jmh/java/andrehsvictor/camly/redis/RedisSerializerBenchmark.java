@@ -0,0 +1,94 @@
+package andrehsvictor.camly.redis;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import andrehsvictor.camly.post.PostSnapshot;
+import andrehsvictor.camly.redis.RedisSerializationProperties.Serializer;
+import andrehsvictor.camly.user.UserSnapshot;
+
+/**
+ * Encode/decode throughput of the Redis value codecs for the values the
+ * caches actually hold. The encoded size of every payload is printed once
+ * per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({ "JDK", "JSON", "SMILE" })
+    private Serializer serializer;
+
+    @Param({ "user", "post", "page" })
+    private String payload;
+
+    private RedisSerializer<Object> codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        codec = RedisValueSerializers.create(serializer);
+        value = switch (payload) {
+            case "user" -> user();
+            case "post" -> post();
+            case "page" -> page(20);
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+        encoded = codec.serialize(value);
+        System.out.printf("%n%s %s payload: %d bytes%n", serializer, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.deserialize(encoded);
+    }
+
+    private static UserSnapshot user() {
+        return new UserSnapshot(UUID.randomUUID(), "andrehsvictor", "https://cdn.example.com/avatars/a.jpg",
+                "André Victor", "Photographer and developer", 1_204, 312, 87, LocalDateTime.now(),
+                LocalDateTime.now());
+    }
+
+    private static PostSnapshot post() {
+        return new PostSnapshot(UUID.randomUUID(), "https://cdn.example.com/images/" + UUID.randomUUID() + ".jpg",
+                "Golden hour at the beach", 342, UUID.randomUUID(), LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static PageImpl<PostSnapshot> page(int size) {
+        List<PostSnapshot> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(post());
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size, Sort.by(Sort.Order.desc("createdAt"))), 1_000);
+    }
+
+}
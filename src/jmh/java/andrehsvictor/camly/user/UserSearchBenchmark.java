@@ -0,0 +1,213 @@
+package andrehsvictor.camly.user;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Latency of one page of user search on a seeded database, as typed in a
+ * search box: a name prefix, a username fragment and a misspelled full name,
+ * each taken from a sample of the seeded users. Names are built from random
+ * syllables, so that they are spread like real ones rather than repeated.
+ * With {@code version=before} the trigram indexes are dropped and the
+ * substring query that ran before them is timed instead; with
+ * {@code version=similarity} the earlier trigram query, which ranked every
+ * match by plain similarity, is timed. Needs Docker, unless
+ * {@code -Dbenchmark.jdbc-url} (and {@code -Dbenchmark.username},
+ * {@code -Dbenchmark.password}) points at an empty Postgres database. Each
+ * trial seeds it anew, so an external database is only wiped between trials
+ * with {@code -Dbenchmark.clean=true}. Seeding {@code users} rows takes a few
+ * minutes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int SAMPLE_SIZE = 1000;
+    private static final List<String> SYLLABLES = List.of("ma", "ri", "a", "na", "jo", "ao", "pe", "dro", "lu",
+            "cas", "ju", "li", "ga", "bri", "el", "be", "tri", "ra", "fa", "ca", "mi", "la", "an", "dre", "sa",
+            "sil", "va", "san", "tos", "o", "vei", "sou", "za", "rei", "cos", "ta", "ro", "dri", "gues", "al",
+            "mei", "da", "nas", "ci", "men", "car", "lho", "fer", "nan", "des", "go", "mes", "bar", "bo", "le",
+            "te", "vi", "tor", "her", "nes");
+
+    // The substring search UserRepository ran before the trigram indexes, unsorted
+    private static final String SEARCH_BEFORE = """
+            SELECT u.id
+            FROM users u
+            WHERE LOWER(u.username) LIKE '%' || LOWER(?) || '%'
+                OR LOWER(u.full_name) LIKE '%' || LOWER(?) || '%'
+            LIMIT ?
+            """;
+
+    // The first trigram search, which ranked every match by similarity; its count query is not timed
+    private static final String SEARCH_SIMILARITY = """
+            SELECT u.id
+            FROM users u
+            WHERE LOWER(u.username) LIKE '%' || LOWER(?) || '%'
+                OR LOWER(u.full_name) LIKE '%' || LOWER(?) || '%'
+                OR LOWER(u.username) % LOWER(?)
+                OR LOWER(u.full_name) % LOWER(?)
+            ORDER BY GREATEST(similarity(LOWER(u.username), LOWER(?)),
+                similarity(LOWER(u.full_name), LOWER(?))) DESC,
+                u.follower_count DESC, u.id
+            LIMIT ?
+            """;
+
+    // Same as UserRepository.searchByName, without the username filter
+    private static final String SEARCH = """
+            WITH matches AS MATERIALIZED (
+                SELECT c.*
+                FROM users c
+                WHERE LOWER(c.username) LIKE '%' || LOWER(?) || '%'
+                    OR LOWER(c.full_name) LIKE '%' || LOWER(?) || '%'
+                    OR LOWER(?) <% LOWER(c.username)
+                    OR LOWER(?) <% LOWER(c.full_name)
+            )
+            SELECT u.id
+            FROM (SELECT * FROM matches LIMIT 1000) u
+            ORDER BY GREATEST(word_similarity(LOWER(?), LOWER(u.username)),
+                word_similarity(LOWER(?), LOWER(u.full_name))) DESC,
+                u.follower_count DESC, u.id
+            LIMIT ?
+            """;
+
+    @Param({ "1000000" })
+    private int users;
+
+    @Param({ "before", "similarity", "after" })
+    private String version;
+
+    private PostgreSQLContainer<?> postgres;
+    private JdbcTemplate jdbcTemplate;
+    private List<String> usernames;
+    private List<String> fullNames;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("benchmark.jdbc-url");
+        String username = System.getProperty("benchmark.username", "camly");
+        String password = System.getProperty("benchmark.password", "camly");
+        boolean clean = Boolean.getBoolean("benchmark.clean");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:alpine")
+                    .withDatabaseName("camly")
+                    .withUsername(username)
+                    .withPassword(password);
+            postgres.start();
+            url = postgres.getJdbcUrl();
+        }
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .cleanDisabled(!clean)
+                .load();
+        if (clean) {
+            // Left over by a previous trial
+            flyway.clean();
+        }
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, username, password));
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM users LIMIT 1) u",
+                Integer.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException(
+                    "Benchmark database already has users; pass -Dbenchmark.clean=true to wipe it");
+        }
+        if (version.equals("before")) {
+            jdbcTemplate.execute("DROP INDEX idx_users_username_trgm");
+            jdbcTemplate.execute("DROP INDEX idx_users_full_name_trgm");
+        }
+
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, provider, full_name, follower_count)
+                SELECT name.first || '_' || name.last || n % 100,
+                    'user' || n || '@example.com',
+                    'LOCAL',
+                    initcap(name.first) || ' ' || initcap(name.last),
+                    n % 5000
+                FROM generate_series(1, ?) AS n,
+                    LATERAL (
+                        SELECT ARRAY(
+                            SELECT syllables.s[1 + (hashint4(n * 8 + i) & 2147483647) % array_length(syllables.s, 1)]
+                            FROM generate_series(1, 6) AS i) AS p
+                        FROM (SELECT CAST(? AS TEXT[]) AS s) syllables
+                    ) pick,
+                    LATERAL (
+                        SELECT pick.p[1] || pick.p[2] || CASE WHEN n % 3 = 0 THEN pick.p[3] ELSE '' END AS first,
+                            pick.p[4] || pick.p[5] || pick.p[6] AS last
+                    ) name
+                ON CONFLICT DO NOTHING
+                """, users, SYLLABLES.toArray(String[]::new));
+        jdbcTemplate.execute("ANALYZE users");
+
+        usernames = new ArrayList<>();
+        fullNames = new ArrayList<>();
+        jdbcTemplate.query("SELECT username, full_name FROM users TABLESAMPLE SYSTEM (1) LIMIT ?", row -> {
+            usernames.add(row.getString("username"));
+            fullNames.add(row.getString("full_name"));
+        }, SAMPLE_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public List<UUID> prefix() {
+        return search(fullNames.get(random(fullNames.size())).substring(0, 3));
+    }
+
+    @Benchmark
+    public List<UUID> fragment() {
+        return search(usernames.get(random(usernames.size())).substring(1));
+    }
+
+    @Benchmark
+    public List<UUID> misspelled() {
+        String name = fullNames.get(random(fullNames.size()));
+        int typo = name.indexOf(' ') + 3;
+        return search(name.substring(0, typo) + name.substring(typo + 1));
+    }
+
+    private List<UUID> search(String query) {
+        return switch (version) {
+            case "before" -> jdbcTemplate.queryForList(SEARCH_BEFORE, UUID.class, query, query, PAGE_SIZE);
+            case "similarity" -> jdbcTemplate.queryForList(SEARCH_SIMILARITY, UUID.class, query, query, query, query,
+                    query, query, PAGE_SIZE);
+            default -> jdbcTemplate.queryForList(SEARCH, UUID.class, query, query, query, query, query, query,
+                    PAGE_SIZE);
+        };
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+}
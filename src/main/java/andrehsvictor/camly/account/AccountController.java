@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import andrehsvictor.camly.account.dto.AccountDto;
 import andrehsvictor.camly.account.dto.CreateAccountDto;
@@ -15,6 +16,7 @@ import andrehsvictor.camly.account.dto.SendActionEmailDto;
 import andrehsvictor.camly.account.dto.UpdateAccountDto;
 import andrehsvictor.camly.account.dto.UpdatePasswordDto;
 import andrehsvictor.camly.account.dto.VerifyEmailDto;
+import andrehsvictor.camly.util.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -114,11 +116,16 @@ public class AccountController {
     @Operation(summary = "Get account information", description = "Retrieves the authenticated user's account details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountDto.class))),
+            @ApiResponse(responseCode = "304", description = "Account not modified since the version held by the client", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
     })
     @GetMapping("/api/v1/account")
-    public ResponseEntity<AccountDto> get() {
+    public ResponseEntity<AccountDto> get(WebRequest request) {
         AccountDto accountDto = accountService.get();
-        return ResponseEntity.ok(accountDto);
+        ResourceVersion version = accountService.getVersion(accountDto);
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        return version.ok(accountDto);
     }
 }
\ No newline at end of file
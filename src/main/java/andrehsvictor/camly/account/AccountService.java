@@ -22,6 +22,7 @@ import andrehsvictor.camly.jwt.JwtService;
 import andrehsvictor.camly.user.User;
 import andrehsvictor.camly.user.UserProvider;
 import andrehsvictor.camly.user.UserService;
+import andrehsvictor.camly.util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -41,6 +42,13 @@ public class AccountService {
         return accountMapper.userToAccountDto(getCurrentUser());
     }
 
+    public ResourceVersion getVersion(AccountDto account) {
+        LocalDateTime updatedAt = account.getUpdatedAt() != null
+                ? LocalDateTime.parse(account.getUpdatedAt())
+                : null;
+        return ResourceVersion.of(updatedAt, account);
+    }
+
     @Caching(evict = {
             @CacheEvict(key = "'get_' + #result.id"),
             @CacheEvict(key = "'userById_' + #result.id", cacheNames = "users")
@@ -127,7 +135,6 @@ public class AccountService {
                 passwordResetDto.getPassword());
     }
 
-    @Cacheable(cacheNames = "users", key = "'userById_' + @jwtService.getCurrentUserId()")
     private User getCurrentUser() {
         return userService.getById(jwtService.getCurrentUserId());
     }
@@ -1,9 +1,13 @@
 package andrehsvictor.camly.account.dto;
 
+import java.io.Serializable;
+
 import lombok.Data;
 
 @Data
-public class AccountDto {
+public class AccountDto implements Serializable {
+
+    private static final long serialVersionUID = 2871437361062587094L;
 
     private String id;
     private String fullName;
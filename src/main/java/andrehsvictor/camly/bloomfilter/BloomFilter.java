@@ -0,0 +1,156 @@
+package andrehsvictor.camly.bloomfilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import lombok.Getter;
+
+/**
+ * Set membership test that may answer "maybe" for a value it never saw but
+ * never answers "no" for a value it did see.
+ * <p>
+ * Until the filter is {@link #isReady() ready} every check falls through to
+ * the authoritative lookup.
+ */
+public abstract class BloomFilter {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final long numBits;
+
+    @Getter
+    private final int numHashes;
+
+    private final LongAdder absentChecks = new LongAdder();
+    private final LongAdder maybeChecks = new LongAdder();
+    private final LongAdder unavailableChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    protected BloomFilter(String name, long expectedInsertions, double falsePositiveRate) {
+        this.name = name;
+        this.numBits = optimalNumBits(expectedInsertions, falsePositiveRate);
+        this.numHashes = optimalNumHashes(expectedInsertions, numBits);
+    }
+
+    /**
+     * Answers whether the value exists, consulting the authoritative lookup
+     * only when the filter cannot rule the value out.
+     */
+    public boolean contains(String value, Predicate<String> lookup) {
+        Boolean maybe = mightContain(positions(value));
+        if (maybe == null) {
+            unavailableChecks.increment();
+            return lookup.test(value);
+        }
+        if (!maybe) {
+            absentChecks.increment();
+            return false;
+        }
+
+        maybeChecks.increment();
+        boolean present = lookup.test(value);
+        if (!present) {
+            falsePositives.increment();
+        }
+        return present;
+    }
+
+    public void put(String value) {
+        set(positions(value));
+    }
+
+    public long getAbsentCount() {
+        return absentChecks.sum();
+    }
+
+    public long getMaybeCount() {
+        return maybeChecks.sum();
+    }
+
+    public long getUnavailableCount() {
+        return unavailableChecks.sum();
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    public long getSizeInBytes() {
+        return (numBits + 7) / 8;
+    }
+
+    /**
+     * False positive probability implied by the share of bits currently set.
+     */
+    public double getExpectedFalsePositiveRate() {
+        long bitCount = bitCount();
+        return bitCount < 0 ? Double.NaN : Math.pow((double) bitCount / numBits, numHashes);
+    }
+
+    /**
+     * Share of the values reported absent by the authoritative lookup that
+     * the filter could not rule out.
+     */
+    public double getObservedFalsePositiveRate() {
+        long negatives = absentChecks.sum() + falsePositives.sum();
+        return negatives == 0 ? 0.0 : (double) falsePositives.sum() / negatives;
+    }
+
+    public abstract boolean isReady();
+
+    /**
+     * Starts filling the filter from scratch, or returns {@code null} when
+     * another node is already doing it or has done it.
+     */
+    public abstract Build startBuild();
+
+    /**
+     * @return whether all positions are set, or {@code null} if the filter
+     *         cannot be consulted
+     */
+    protected abstract Boolean mightContain(long[] positions);
+
+    protected abstract void set(long[] positions);
+
+    /**
+     * @return the number of bits set, or a negative number if unknown
+     */
+    protected abstract long bitCount();
+
+    protected long[] positions(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long hash1 = Hashing.hash64(bytes, 0x9747b28cL);
+        long hash2 = Hashing.hash64(bytes, hash1);
+
+        long[] positions = new long[numHashes];
+        long combined = hash1;
+        for (int i = 0; i < numHashes; i++) {
+            positions[i] = (combined & Long.MAX_VALUE) % numBits;
+            combined += hash2;
+        }
+        return positions;
+    }
+
+    static long optimalNumBits(long expectedInsertions, double falsePositiveRate) {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        return Math.max(64, (long) Math.ceil(bits));
+    }
+
+    static int optimalNumHashes(long expectedInsertions, long numBits) {
+        return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    public interface Build {
+
+        void put(String value);
+
+        void complete();
+
+        void abort();
+
+    }
+
+}
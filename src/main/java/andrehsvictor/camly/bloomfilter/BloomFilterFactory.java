@@ -0,0 +1,131 @@
+package andrehsvictor.camly.bloomfilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.bloomfilter.BloomFilterProperties.Mode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the Bloom filters for the configured mode, keeps the local
+ * filters of all nodes in sync and publishes their metrics.
+ * <p>
+ * Additions broadcast while this node was not subscribed are lost, so the
+ * local filters stop answering whenever the subscription is (re)established
+ * until they are built again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BloomFilterFactory implements MessageListener, SubscriptionListener {
+
+    private static final String SEPARATOR = "\n";
+
+    private final BloomFilterProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, LocalBloomFilter> localFilters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        if (properties.getMode() == Mode.LOCAL) {
+            listenerContainer.addMessageListener(this, ChannelTopic.of(properties.getChannel()));
+        }
+    }
+
+    public BloomFilter create(String name) {
+        BloomFilter filter = switch (properties.getMode()) {
+            case LOCAL -> localFilters.computeIfAbsent(name, this::createLocal);
+            case REDIS -> new RedisBloomFilter(name, properties, stringRedisTemplate);
+        };
+        registerMetrics(filter);
+        return filter;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        LocalBloomFilter filter = localFilters.get(parts[1]);
+        if (filter != null) {
+            filter.putLocally(parts[2]);
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        localFilters.values().forEach(LocalBloomFilter::invalidate);
+    }
+
+    private LocalBloomFilter createLocal(String name) {
+        return new LocalBloomFilter(name, properties.getExpectedInsertions(), properties.getFalsePositiveRate(),
+                value -> broadcast(name, value));
+    }
+
+    private void broadcast(String name, String value) {
+        try {
+            stringRedisTemplate.convertAndSend(properties.getChannel(),
+                    String.join(SEPARATOR, nodeId, name, value));
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast Bloom filter addition to '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private void registerMetrics(BloomFilter filter) {
+        Gauge.builder("bloom.filter.size", filter, BloomFilter::getSizeInBytes)
+                .description("Memory taken by the bits of the filter")
+                .baseUnit("bytes")
+                .tag("filter", filter.getName())
+                .register(meterRegistry);
+        registerFalsePositiveRate(filter, "expected", BloomFilter::getExpectedFalsePositiveRate,
+                "False positive probability implied by the share of bits set");
+        registerFalsePositiveRate(filter, "observed", BloomFilter::getObservedFalsePositiveRate,
+                "Share of absent values the filter could not rule out");
+        registerChecks(filter, "absent", BloomFilter::getAbsentCount);
+        registerChecks(filter, "maybe", BloomFilter::getMaybeCount);
+        registerChecks(filter, "unavailable", BloomFilter::getUnavailableCount);
+        FunctionCounter.builder("bloom.filter.false.positives", filter, BloomFilter::getFalsePositiveCount)
+                .description("Values the filter could not rule out that turned out to be absent")
+                .tag("filter", filter.getName())
+                .register(meterRegistry);
+    }
+
+    private void registerFalsePositiveRate(BloomFilter filter, String estimate, ToDoubleFunction<BloomFilter> rate,
+            String description) {
+        Gauge.builder("bloom.filter.false.positive.rate", filter, rate)
+                .description(description)
+                .tag("filter", filter.getName())
+                .tag("estimate", estimate)
+                .register(meterRegistry);
+    }
+
+    private void registerChecks(BloomFilter filter, String result, ToDoubleFunction<BloomFilter> count) {
+        FunctionCounter.builder("bloom.filter.checks", filter, count)
+                .description("Membership checks by the answer of the filter")
+                .tag("filter", filter.getName())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,39 @@
+package andrehsvictor.camly.bloomfilter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.bloom-filter")
+public class BloomFilterProperties {
+
+    private boolean enabled = true;
+    private Mode mode = Mode.REDIS;
+    private long expectedInsertions = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private String keyPrefix = "camly:bloom:";
+    private String channel = "camly:bloom:additions";
+    private int buildBatchSize = 1_000;
+    private Duration buildLockTtl = Duration.ofMinutes(10);
+    private double rebuildStaleRatio = 0.2;
+    private Duration verifyInterval = Duration.ofMinutes(1);
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+    public enum Mode {
+        /**
+         * One filter per node; additions are broadcast to the other nodes and
+         * the filter is rebuilt every rebuild interval in case one was missed.
+         */
+        LOCAL,
+        /** A single bitmap in Redis shared by every node. */
+        REDIS
+    }
+
+}
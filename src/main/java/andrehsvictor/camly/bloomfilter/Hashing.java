@@ -0,0 +1,57 @@
+package andrehsvictor.camly.bloomfilter;
+
+/**
+ * 64-bit variant of MurmurHash with the finalizer of MurmurHash3. Only used to
+ * spread values over the filter, so it has to be fast and well mixed, not
+ * stable across releases.
+ */
+final class Hashing {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Hashing() {
+    }
+
+    static long hash64(byte[] bytes, long seed) {
+        long hash = seed ^ (bytes.length * C1);
+        int blocks = bytes.length / 8;
+
+        for (int i = 0; i < blocks; i++) {
+            hash ^= mixK(readLong(bytes, i * 8));
+            hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+        }
+
+        long tail = 0;
+        for (int i = bytes.length - 1; i >= blocks * 8; i--) {
+            tail = (tail << 8) | (bytes[i] & 0xff);
+        }
+        hash ^= mixK(tail);
+
+        return fmix64(hash ^ bytes.length);
+    }
+
+    private static long mixK(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+}
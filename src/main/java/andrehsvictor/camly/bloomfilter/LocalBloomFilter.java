@@ -0,0 +1,147 @@
+package andrehsvictor.camly.bloomfilter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bloom filter held in the heap of this node. Values put here are handed to
+ * the broadcaster so that the filters of the other nodes learn them too.
+ * <p>
+ * Values put before the filter is built, or after it was
+ * {@link #invalidate() invalidated}, are kept for the next build.
+ */
+class LocalBloomFilter extends BloomFilter {
+
+    private final Consumer<String> broadcaster;
+
+    private volatile AtomicLongArray words;
+    private volatile AtomicLongArray staging;
+    private boolean building;
+    private long generation;
+
+    LocalBloomFilter(String name, long expectedInsertions, double falsePositiveRate, Consumer<String> broadcaster) {
+        super(name, expectedInsertions, falsePositiveRate);
+        this.broadcaster = broadcaster;
+        this.staging = newWords();
+    }
+
+    @Override
+    public void put(String value) {
+        super.put(value);
+        broadcaster.accept(value);
+    }
+
+    void putLocally(String value) {
+        super.put(value);
+    }
+
+    /**
+     * Stops answering from the filter until it is built again, for when it
+     * may have missed values put on other nodes.
+     */
+    synchronized void invalidate() {
+        generation++;
+        if (staging == null) {
+            staging = newWords();
+        }
+        words = null;
+    }
+
+    @Override
+    public boolean isReady() {
+        return words != null;
+    }
+
+    @Override
+    public synchronized Build startBuild() {
+        if (building) {
+            return null;
+        }
+        building = true;
+        AtomicLongArray target = words == null ? staging : newWords();
+        staging = target;
+        long startedAt = generation;
+
+        return new Build() {
+            @Override
+            public void put(String value) {
+                setBits(target, positions(value));
+            }
+
+            @Override
+            public void complete() {
+                synchronized (LocalBloomFilter.this) {
+                    building = false;
+                    // An invalidation while building may have dropped values the build did not read
+                    if (generation == startedAt) {
+                        // Values put while the build was running reached the target too
+                        words = target;
+                        staging = null;
+                    }
+                }
+            }
+
+            @Override
+            public void abort() {
+                synchronized (LocalBloomFilter.this) {
+                    building = false;
+                    if (words != null) {
+                        staging = null;
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    protected Boolean mightContain(long[] positions) {
+        AtomicLongArray current = words;
+        if (current == null) {
+            return null;
+        }
+        for (long position : positions) {
+            if ((current.get((int) (position >>> 6)) & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected synchronized void set(long[] positions) {
+        if (words != null) {
+            setBits(words, positions);
+        }
+        if (staging != null) {
+            setBits(staging, positions);
+        }
+    }
+
+    @Override
+    protected long bitCount() {
+        AtomicLongArray current = words;
+        if (current == null) {
+            return 0;
+        }
+        long count = 0;
+        for (int i = 0; i < current.length(); i++) {
+            count += Long.bitCount(current.get(i));
+        }
+        return count;
+    }
+
+    private AtomicLongArray newWords() {
+        return new AtomicLongArray((int) ((getNumBits() + 63) >>> 6));
+    }
+
+    private static void setBits(AtomicLongArray target, long[] positions) {
+        for (long position : positions) {
+            long mask = 1L << position;
+            int index = (int) (position >>> 6);
+            if ((target.get(index) & mask) == 0) {
+                target.getAndAccumulate(index, mask, (word, bit) -> word | bit);
+            }
+        }
+    }
+
+}
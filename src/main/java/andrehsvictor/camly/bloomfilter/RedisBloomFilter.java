@@ -0,0 +1,202 @@
+package andrehsvictor.camly.bloomfilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter stored as a Redis bitmap shared by every node. One extra bit
+ * past the filter's own marks the bitmap as complete; until it is set every
+ * check falls through to the authoritative lookup. Keeping the marker in
+ * the bitmap means a bitmap evicted or flushed, even if recreated by later
+ * additions, is never trusted. The marker is only set by the build that
+ * still holds the build lock, so a bitmap emptied while building is not
+ * trusted either.
+ */
+@Slf4j
+class RedisBloomFilter extends BloomFilter {
+
+    // ARGV[1] is the position of the ready bit
+    private static final RedisScript<Long> MIGHT_CONTAIN_SCRIPT = RedisScript.of("""
+            if redis.call('getbit', KEYS[1], ARGV[1]) == 0 then
+                return -1
+            end
+            for i = 2, #ARGV do
+                if redis.call('getbit', KEYS[1], ARGV[i]) == 0 then
+                    return 0
+                end
+            end
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> SET_SCRIPT = RedisScript.of("""
+            for i = 1, #ARGV do
+                redis.call('setbit', KEYS[1], ARGV[i], 1)
+            end
+            return #ARGV
+            """, Long.class);
+
+    private static final RedisScript<Long> COMPLETE_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[2]) ~= ARGV[1] then
+                return 0
+            end
+            redis.call('setbit', KEYS[1], ARGV[2], 1)
+            redis.call('del', KEYS[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String bitsKey;
+    private final long readyBit;
+    private final String lockKey;
+    private final int batchSize;
+    private final Duration lockTtl;
+
+    RedisBloomFilter(String name, BloomFilterProperties properties, StringRedisTemplate stringRedisTemplate) {
+        super(name, properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.bitsKey = properties.getKeyPrefix() + name;
+        this.readyBit = getNumBits();
+        this.lockKey = bitsKey + ":building";
+        this.batchSize = properties.getBuildBatchSize();
+        this.lockTtl = properties.getBuildLockTtl();
+    }
+
+    @Override
+    public boolean isReady() {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().getBit(bitsKey, readyBit));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Build startBuild() {
+        String token = UUID.randomUUID().toString();
+        try {
+            if (isReady() || !Boolean.TRUE.equals(
+                    stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl))) {
+                return null;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to start building Bloom filter '{}': {}", getName(), e.getMessage());
+            return null;
+        }
+
+        return new Build() {
+            private final List<String> batch = new ArrayList<>();
+
+            @Override
+            public void put(String value) {
+                for (long position : positions(value)) {
+                    batch.add(Long.toString(position));
+                }
+                if (batch.size() >= batchSize * getNumHashes()) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void complete() {
+                // Values put by other nodes meanwhile went straight into the bitmap
+                flush();
+                // A lost lock means Redis was flushed or the build outlived it; the bitmap may have gaps
+                Long completed = stringRedisTemplate.execute(COMPLETE_SCRIPT, List.of(bitsKey, lockKey), token,
+                        Long.toString(readyBit));
+                if (completed == null || completed == 0) {
+                    log.warn("Lost the build lock of Bloom filter '{}', leaving it unavailable", getName());
+                }
+            }
+
+            @Override
+            public void abort() {
+                stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+            }
+
+            private void flush() {
+                if (!batch.isEmpty()) {
+                    stringRedisTemplate.execute(SET_SCRIPT, List.of(bitsKey), batch.toArray());
+                    batch.clear();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected Boolean mightContain(long[] positions) {
+        try {
+            Object[] args = new Object[positions.length + 1];
+            args[0] = Long.toString(readyBit);
+            System.arraycopy(toArgs(positions), 0, args, 1, positions.length);
+            Long result = stringRedisTemplate.execute(MIGHT_CONTAIN_SCRIPT, List.of(bitsKey), args);
+            return result == null || result < 0 ? null : result != 0;
+        } catch (RuntimeException e) {
+            log.warn("Failed to query Bloom filter '{}': {}", getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    protected void set(long[] positions) {
+        try {
+            stringRedisTemplate.execute(SET_SCRIPT, List.of(bitsKey), toArgs(positions));
+        } catch (RuntimeException e) {
+            // The filter now misses a value; the build must not be trusted any more
+            log.warn("Failed to update Bloom filter '{}', discarding it: {}", getName(), e.getMessage());
+            discard();
+        }
+    }
+
+    @Override
+    protected long bitCount() {
+        try {
+            Long count = stringRedisTemplate.execute((RedisCallback<Long>) connection -> bitCount(connection));
+            return count != null ? count : -1;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private Long bitCount(RedisConnection connection) {
+        byte[] key = bitsKey.getBytes(StandardCharsets.UTF_8);
+        Long count = connection.stringCommands().bitCount(key);
+        // Not one of the filter's bits
+        return count != null && Boolean.TRUE.equals(connection.stringCommands().getBit(key, readyBit))
+                ? count - 1
+                : count;
+    }
+
+    private void discard() {
+        try {
+            stringRedisTemplate.opsForValue().setBit(bitsKey, readyBit, false);
+        } catch (RuntimeException e) {
+            log.error("Failed to discard Bloom filter '{}': {}", getName(), e.getMessage());
+        }
+    }
+
+    private static Object[] toArgs(long[] positions) {
+        Object[] args = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            args[i] = Long.toString(positions[i]);
+        }
+        return args;
+    }
+
+}
@@ -0,0 +1,80 @@
+package andrehsvictor.camly.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter.TtlFunction;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@EnableCaching
+@RequiredArgsConstructor
+public class CacheConfig implements CachingConfigurer {
+
+    private final CacheProperties cacheProperties;
+
+    @Bean
+    TieredCacheManager cacheManager(
+            RedisConnectionFactory redisConnectionFactory,
+            RedisSerializer<Object> redisValueSerializer,
+            CacheInvalidationPublisher invalidationPublisher,
+            CacheLoadLease loadLease,
+            CacheKeyMetrics keyMetrics) {
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        cacheProperties.getCaches().keySet()
+                .forEach(cacheName -> configurations.put(cacheName,
+                        cacheConfiguration(cacheName, redisValueSerializer)));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(cacheConfiguration(null, redisValueSerializer))
+                .withInitialCacheConfigurations(configurations)
+                .enableStatistics()
+                .build();
+
+        return new TieredCacheManager(redisCacheManager, cacheProperties, invalidationPublisher, loadLease,
+                redisConnectionFactory, keyMetrics);
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        // A Redis outage or an unserializable value must degrade to a cache miss, not a failed request
+        return new LoggingCacheErrorHandler();
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(String cacheName, RedisSerializer<Object> valueSerializer) {
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeKeysWith(SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(SerializationPair.fromSerializer(valueSerializer))
+                .computePrefixWith(cacheProperties::getKeyPrefixFor)
+                .entryTtl(cacheProperties.getTtlFor(cacheName));
+
+        boolean cacheNullValues = cacheProperties.getSpec(cacheName).isCacheNullValues();
+        if (!cacheNullValues) {
+            return configuration.disableCachingNullValues();
+        }
+        return configuration.entryTtl(ttlFunction(cacheName));
+    }
+
+    private TtlFunction ttlFunction(String cacheName) {
+        Duration ttl = cacheProperties.getTtlFor(cacheName);
+        Duration nullTtl = cacheProperties.getNullTtlFor(cacheName);
+        // Absent markers must expire quickly: a row inserted behind the cache's back stays invisible until then
+        return (key, value) -> value == null || value instanceof NullValue ? nullTtl : ttl;
+    }
+
+}
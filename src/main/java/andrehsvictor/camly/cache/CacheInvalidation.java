@@ -0,0 +1,15 @@
+package andrehsvictor.camly.cache;
+
+import java.io.Serializable;
+
+public record CacheInvalidation(
+        String origin,
+        String cacheName,
+        Object key,
+        long sentAt) implements Serializable {
+
+    public boolean isClear() {
+        return key == null;
+    }
+
+}
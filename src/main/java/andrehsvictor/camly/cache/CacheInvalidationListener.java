@@ -0,0 +1,51 @@
+package andrehsvictor.camly.cache;
+
+import java.time.Duration;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TieredCacheManager cacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisTemplate<String, CacheInvalidation> redisTemplate;
+    private final CacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, ChannelTopic.of(cacheProperties.getInvalidationChannel()));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof CacheInvalidation invalidation)
+                || invalidationPublisher.getNodeId().equals(invalidation.origin())) {
+            return;
+        }
+
+        cacheManager.onInvalidation(invalidation);
+
+        long lag = Math.max(0, System.currentTimeMillis() - invalidation.sentAt());
+        Timer.builder("cache.invalidation.lag")
+                .description("Delay between a remote cache write and the local near-cache eviction")
+                .tag("cache", invalidation.cacheName())
+                .register(meterRegistry)
+                .record(Duration.ofMillis(lag));
+    }
+
+}
@@ -0,0 +1,40 @@
+package andrehsvictor.camly.cache;
+
+import java.util.UUID;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    private final RedisTemplate<String, CacheInvalidation> redisTemplate;
+    private final CacheProperties cacheProperties;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(new CacheInvalidation(nodeId, cacheName, key, System.currentTimeMillis()));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidation(nodeId, cacheName, null, System.currentTimeMillis()));
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        try {
+            redisTemplate.convertAndSend(cacheProperties.getInvalidationChannel(), invalidation);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish cache invalidation for cache '{}': {}", invalidation.cacheName(),
+                    e.getMessage());
+        }
+    }
+
+}
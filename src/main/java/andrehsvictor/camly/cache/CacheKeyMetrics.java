@@ -0,0 +1,150 @@
+package andrehsvictor.camly.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per key family counters for every operation of a {@link TieredCache}.
+ * <p>
+ * The family is the leading word of a key, so {@code post_<id>},
+ * {@code filterIds_3_...} and {@code user-posts:<id>} are reported as
+ * {@code post}, {@code filterIds} and {@code user-posts}. Keys without such
+ * a prefix, and families beyond the configured limit of a cache, are
+ * reported as {@code other} to keep the number of series bounded.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheKeyMetrics {
+
+    static final String OTHER = "other";
+
+    private static final int MAX_FAMILY_LENGTH = 40;
+    private static final double[] VALUE_SIZE_SLOS = { 256, 1024, 4096, 16384, 65536, 262144 };
+
+    private final MeterRegistry meterRegistry;
+    private final CacheProperties cacheProperties;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Meters>> metersByCache = new ConcurrentHashMap<>();
+
+    public void recordGet(String cacheName, Object key, boolean hit) {
+        Meters meters = meters(cacheName, key);
+        if (meters != null) {
+            (hit ? meters.hits() : meters.misses()).increment();
+        }
+    }
+
+    public void recordPut(String cacheName, Object key, int valueSize) {
+        Meters meters = meters(cacheName, key);
+        if (meters != null) {
+            meters.puts().increment();
+            meters.valueSize().record(valueSize);
+        }
+    }
+
+    public void recordEviction(String cacheName, Object key) {
+        Meters meters = meters(cacheName, key);
+        if (meters != null) {
+            meters.evictions().increment();
+        }
+    }
+
+    public void recordLoad(String cacheName, Object key, long durationNanos) {
+        Meters meters = meters(cacheName, key);
+        if (meters != null) {
+            meters.loads().record(Duration.ofNanos(durationNanos));
+        }
+    }
+
+    static String family(Object key) {
+        if (!(key instanceof String string)) {
+            return OTHER;
+        }
+        int end = 0;
+        while (end < string.length()) {
+            char c = string.charAt(end);
+            if (c == '_' || c == ':') {
+                break;
+            }
+            if (!Character.isLetter(c) && c != '-') {
+                return OTHER;
+            }
+            end++;
+        }
+        return end == 0 || end > MAX_FAMILY_LENGTH ? OTHER : string.substring(0, end);
+    }
+
+    private Meters meters(String cacheName, Object key) {
+        CacheProperties.Metrics properties = cacheProperties.getMetrics();
+        if (!properties.isEnabled()) {
+            return null;
+        }
+
+        ConcurrentMap<String, Meters> families = metersByCache.computeIfAbsent(cacheName,
+                name -> new ConcurrentHashMap<>());
+        String family = family(key);
+        Meters meters = families.get(family);
+        if (meters != null) {
+            return meters;
+        }
+        if (families.size() >= properties.getMaxKeyFamilies()) {
+            family = OTHER;
+        }
+        return families.computeIfAbsent(family, name -> register(cacheName, name));
+    }
+
+    private Meters register(String cacheName, String family) {
+        Tags tags = Tags.of("cache", cacheName, "family", family);
+        return new Meters(
+                Counter.builder("cache.key.gets")
+                        .description("Cache lookups by key family")
+                        .tags(tags)
+                        .tag("result", "hit")
+                        .register(meterRegistry),
+                Counter.builder("cache.key.gets")
+                        .description("Cache lookups by key family")
+                        .tags(tags)
+                        .tag("result", "miss")
+                        .register(meterRegistry),
+                Counter.builder("cache.key.puts")
+                        .description("Cache writes by key family")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Counter.builder("cache.key.evictions")
+                        .description("Cache evictions by key family")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Timer.builder("cache.key.loads")
+                        .description("Time spent loading cache misses from the underlying method")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(5))
+                        .register(meterRegistry),
+                DistributionSummary.builder("cache.key.value.size")
+                        .description("Serialized size of the values written to the cache")
+                        .baseUnit("bytes")
+                        .tags(tags)
+                        .serviceLevelObjectives(VALUE_SIZE_SLOS)
+                        .register(meterRegistry));
+    }
+
+    private record Meters(
+            Counter hits,
+            Counter misses,
+            Counter puts,
+            Counter evictions,
+            Timer loads,
+            DistributionSummary valueSize) {
+    }
+
+}
@@ -0,0 +1,60 @@
+package andrehsvictor.camly.cache;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Short-lived Redis lock that lets a single node reload a missing cache
+ * entry while the others wait for the result.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheLoadLease {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheProperties cacheProperties;
+
+    /**
+     * @return the lease token, or {@code null} if another node holds the lease
+     */
+    public String tryAcquire(String cacheName, Object key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(leaseKey(cacheName, key), token, cacheProperties.getLease().getTtl());
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (RuntimeException e) {
+            // Without Redis there is nobody to coordinate with; load locally
+            log.warn("Failed to acquire cache load lease for '{}': {}", cacheName, e.getMessage());
+            return token;
+        }
+    }
+
+    public void release(String cacheName, Object key, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(cacheName, key)), token);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release cache load lease for '{}': {}", cacheName, e.getMessage());
+        }
+    }
+
+    private String leaseKey(String cacheName, Object key) {
+        return cacheProperties.getKeyPrefix() + "lease:" + cacheName + "::" + key;
+    }
+
+}
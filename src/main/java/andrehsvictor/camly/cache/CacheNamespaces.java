@@ -0,0 +1,102 @@
+package andrehsvictor.camly.cache;
+
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generation counters for groups of cache entries that cannot be evicted
+ * one by one, such as paginated listings.
+ * <p>
+ * Keys embed the current version of their namespace, e.g.
+ * {@code 'filters_' + @cacheNamespaces.version('post-filters') + '_' + ...},
+ * so bumping the counter makes every entry of the previous generation
+ * unreachable without scanning Redis. Orphaned entries expire through the
+ * TTL of their cache.
+ * <p>
+ * Counters expire {@code namespace-ttl} after their last bump, so that
+ * per-user namespaces do not pile up. A counter bumped again after
+ * expiring restarts from the current time in milliseconds rather than
+ * from 1, so it never returns to a version whose entries may still live.
+ */
+@Slf4j
+@Component("cacheNamespaces")
+@RequiredArgsConstructor
+public class CacheNamespaces {
+
+    public static final String CACHE_NAME = "namespaces";
+
+    private static final long UNAVAILABLE = -1L;
+
+    // Increments the counter, or moves it to the time in ARGV[1] if behind it, and re-arms its TTL
+    private static final RedisScript<Long> BUMP_SCRIPT = RedisScript.of("""
+            local version = tonumber(redis.call('get', KEYS[1]) or '0') + 1
+            if version < tonumber(ARGV[1]) then
+                version = tonumber(ARGV[1])
+            end
+            redis.call('set', KEYS[1], version, 'px', ARGV[2])
+            return version
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TieredCacheManager cacheManager;
+    private final CacheProperties cacheProperties;
+
+    public long version(String namespace) {
+        try {
+            // Self-describing codecs hand small counters back as Integer
+            Number version = cache().get(namespace, () -> readCounter(namespace));
+            return version != null ? version.longValue() : 0L;
+        } catch (RuntimeException e) {
+            log.warn("Failed to resolve cache namespace '{}': {}", namespace, e.getMessage());
+            return UNAVAILABLE;
+        }
+    }
+
+    public void bump(String namespace) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Bumping before commit would let a concurrent reader cache the old rows under the new version
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(namespace);
+                }
+            });
+        } else {
+            increment(namespace);
+        }
+    }
+
+    private void increment(String namespace) {
+        try {
+            Long version = stringRedisTemplate.execute(BUMP_SCRIPT, List.of(counterKey(namespace)),
+                    Long.toString(System.currentTimeMillis()),
+                    Long.toString(cacheProperties.getNamespaceTtl().toMillis()));
+            cache().put(namespace, version);
+        } catch (RuntimeException e) {
+            log.warn("Failed to bump cache namespace '{}': {}", namespace, e.getMessage());
+        }
+    }
+
+    private Long readCounter(String namespace) {
+        String value = stringRedisTemplate.opsForValue().get(counterKey(namespace));
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    private String counterKey(String namespace) {
+        return cacheProperties.getKeyPrefix() + "ns:" + namespace;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+}
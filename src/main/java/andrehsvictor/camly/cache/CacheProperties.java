@@ -0,0 +1,107 @@
+package andrehsvictor.camly.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.cache")
+public class CacheProperties {
+
+    private String keyPrefix = "camly:";
+    private Duration defaultTtl = Duration.ofMinutes(10);
+    private String invalidationChannel = "camly:cache:invalidation";
+    // How long a namespace counter outlives its last bump; longer than the TTL of any entry keyed by it
+    private Duration namespaceTtl = Duration.ofDays(1);
+    // Upper bound on the TTL of entries batch-filled from database reads, which may race with writes
+    private Duration fillTtl = Duration.ofMinutes(1);
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+    private Lease lease = new Lease();
+    private Metrics metrics = new Metrics();
+    private HotKeys hotKeys = new HotKeys();
+
+    public Spec getSpec(String cacheName) {
+        return caches.getOrDefault(cacheName, new Spec());
+    }
+
+    public String getKeyPrefixFor(String cacheName) {
+        Spec spec = getSpec(cacheName);
+        return spec.getKeyPrefix() != null ? spec.getKeyPrefix() : keyPrefix + cacheName + "::";
+    }
+
+    public Duration getTtlFor(String cacheName) {
+        Spec spec = getSpec(cacheName);
+        return spec.getTtl() != null ? spec.getTtl() : defaultTtl;
+    }
+
+    public Duration getNullTtlFor(String cacheName) {
+        Spec spec = getSpec(cacheName);
+        return spec.getNullTtl() != null ? spec.getNullTtl() : getTtlFor(cacheName);
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private Duration ttl;
+        private String keyPrefix;
+        private boolean cacheNullValues = false;
+        private Duration nullTtl;
+        private Near near = new Near();
+
+    }
+
+    @Getter
+    @Setter
+    public static class Near {
+
+        private boolean enabled = false;
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Lease {
+
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofSeconds(5);
+        private Duration wait = Duration.ofMillis(500);
+        private Duration pollInterval = Duration.ofMillis(25);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+
+        private boolean enabled = true;
+        private int maxKeyFamilies = 32;
+
+    }
+
+    @Getter
+    @Setter
+    public static class HotKeys {
+
+        private boolean enabled = true;
+        private int sampleRate = 10;
+        private long threshold = 1_000;
+        private Duration window = Duration.ofSeconds(10);
+        private Duration pinTtl = Duration.ofSeconds(2);
+        private long maxPinned = 1_000;
+        private int sketchWidth = 4_096;
+        private int sketchDepth = 4;
+
+    }
+
+}
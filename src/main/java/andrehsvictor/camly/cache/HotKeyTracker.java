@@ -0,0 +1,126 @@
+package andrehsvictor.camly.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Finds the keys of one cache that take a disproportionate share of the
+ * reads and pins their serialized values in the JVM for a short time.
+ * <p>
+ * A sample of the lookups feeds a {@link CountMinSketch} whose counters are
+ * halved every window. A key whose estimated accesses in the window reach
+ * the threshold is hot; while it stays hot, its reads are answered from the
+ * pin instead of Redis. Pins expire quickly and are dropped together with
+ * the near tier on every write, eviction or remote invalidation, so they
+ * are never staler than a near-cache entry.
+ */
+public class HotKeyTracker {
+
+    private final CacheProperties.HotKeys properties;
+    private final CountMinSketch sketch;
+    private final Cache<Object, byte[]> pins;
+    private final ConcurrentMap<Object, Long> hotKeys = new ConcurrentHashMap<>();
+    private final AtomicLong nextDecayAt;
+    private final LongAdder pinnedHits = new LongAdder();
+
+    public HotKeyTracker(CacheProperties.HotKeys properties) {
+        this.properties = properties;
+        this.sketch = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+        this.pins = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPinned())
+                .expireAfterWrite(properties.getPinTtl())
+                .build();
+        this.nextDecayAt = new AtomicLong(System.nanoTime() + properties.getWindow().toNanos());
+    }
+
+    /**
+     * Counts a lookup of the key, if it is sampled, and tells whether the key
+     * is currently hot.
+     */
+    public boolean recordAccess(Object key) {
+        int sampleRate = properties.getSampleRate();
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return hotKeys.containsKey(key);
+        }
+
+        decayIfDue();
+        long estimate = sketch.increment(key) * sampleRate;
+        if (estimate < properties.getThreshold()) {
+            return hotKeys.containsKey(key);
+        }
+        if (hotKeys.size() < properties.getMaxPinned() || hotKeys.containsKey(key)) {
+            hotKeys.put(key, estimate);
+            return true;
+        }
+        return false;
+    }
+
+    public byte[] getPinned(Object key) {
+        byte[] bytes = pins.getIfPresent(key);
+        if (bytes != null) {
+            pinnedHits.increment();
+        }
+        return bytes;
+    }
+
+    public void pin(Object key, byte[] bytes) {
+        pins.put(key, bytes);
+    }
+
+    public void unpin(Object key) {
+        pins.invalidate(key);
+    }
+
+    public void unpinAll() {
+        pins.invalidateAll();
+    }
+
+    /**
+     * Current hot keys, most accessed first.
+     */
+    public List<HotKey> getHotKeys() {
+        return hotKeys.entrySet().stream()
+                .map(entry -> new HotKey(String.valueOf(entry.getKey()), entry.getValue(),
+                        pins.getIfPresent(entry.getKey()) != null))
+                .sorted(Comparator.comparingLong(HotKey::estimatedAccesses).reversed())
+                .toList();
+    }
+
+    public int getHotKeyCount() {
+        return hotKeys.size();
+    }
+
+    public long getPinnedCount() {
+        return pins.estimatedSize();
+    }
+
+    public long getPinnedHitCount() {
+        return pinnedHits.sum();
+    }
+
+    private void decayIfDue() {
+        long now = System.nanoTime();
+        long decayAt = nextDecayAt.get();
+        if (now - decayAt < 0 || !nextDecayAt.compareAndSet(decayAt, now + properties.getWindow().toNanos())) {
+            return;
+        }
+
+        sketch.halve();
+        // A key that was hot stays listed for at least one more window after its traffic stops
+        long floor = properties.getThreshold() / 2;
+        hotKeys.replaceAll((key, estimate) -> sketch.estimate(key) * properties.getSampleRate());
+        hotKeys.values().removeIf(estimate -> estimate < floor);
+    }
+
+    public record HotKey(String key, long estimatedAccesses, boolean pinned) {
+    }
+
+}
@@ -0,0 +1,49 @@
+package andrehsvictor.camly.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.cache.HotKeyTracker.HotKey;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lists the keys each cache currently considers hot, with their estimated
+ * reads in the current window and whether they are pinned in this JVM.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final TieredCacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, List<HotKey>> hotKeys() {
+        Map<String, List<HotKey>> hotKeys = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            List<HotKey> keys = hotKeys(cacheName);
+            if (keys != null) {
+                hotKeys.put(cacheName, keys);
+            }
+        }
+        return hotKeys;
+    }
+
+    @ReadOperation
+    public List<HotKey> hotKeys(@Selector String cacheName) {
+        // Looking up an unknown name would create the cache
+        if (!cacheManager.getCacheNames().contains(cacheName)
+                || !(cacheManager.getCache(cacheName) instanceof TieredCache cache)
+                || !cache.isHotKeyTrackingEnabled()) {
+            return null;
+        }
+        return cache.getHotKeyTracker().getHotKeys();
+    }
+
+}
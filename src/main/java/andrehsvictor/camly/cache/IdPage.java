@@ -0,0 +1,31 @@
+package andrehsvictor.camly.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Cached form of one page of a listing: the IDs of its elements in order
+ * and the total count. The elements themselves are cached once, under
+ * their own keys, so changing one does not leave stale copies in every
+ * page that lists it.
+ */
+public record IdPage(List<UUID> ids, long totalElements) implements Serializable {
+
+    public static <T> IdPage of(Page<T> page, Function<T, UUID> idExtractor) {
+        List<UUID> ids = new ArrayList<>(page.getNumberOfElements());
+        page.forEach(element -> ids.add(idExtractor.apply(element)));
+        return new IdPage(ids, page.getTotalElements());
+    }
+
+    public <T> Page<T> toPage(List<T> content, Pageable pageable) {
+        return new PageImpl<>(content, pageable, totalElements);
+    }
+
+}
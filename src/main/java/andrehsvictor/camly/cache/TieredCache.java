@@ -0,0 +1,519 @@
+package andrehsvictor.camly.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.util.ByteUtils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis cache fronted by an optional bounded in-process tier.
+ * <p>
+ * The near tier keeps the serialized form of each value so that every read
+ * hands out its own copy, exactly as a Redis read would. Writes and evictions
+ * are broadcast so that other nodes drop their near copies.
+ * <p>
+ * Synchronized loads ({@code @Cacheable(sync = true)}) are coalesced: callers
+ * missing the same key on this node share one in-flight load, and a Redis
+ * lease lets one node reload the entry while the others wait for it.
+ * <p>
+ * {@link #getAll(Collection)} and {@link #putAll(Map)} move a batch of
+ * entries in one round trip, for listings that cache only the IDs of their
+ * elements.
+ * <p>
+ * Every lookup, write, eviction and load is also reported to
+ * {@link CacheKeyMetrics}, tagged with the family of its key. Keys that a
+ * {@link HotKeyTracker} finds hot are pinned in the JVM for a short time,
+ * whether or not the near tier is enabled.
+ */
+@Slf4j
+public class TieredCache implements Cache {
+
+    @Getter
+    private final RedisCache redisCache;
+
+    @Getter
+    private final com.github.benmanes.caffeine.cache.Cache<Object, byte[]> nearCache;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final CacheLoadLease loadLease;
+    private final CacheProperties.Lease leaseProperties;
+    private final Duration fillTtl;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheKeyMetrics keyMetrics;
+
+    @Getter
+    private final HotKeyTracker hotKeyTracker;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    // Loads finished on this node, counted per stripe of keys, bumped before their in-flight slot is freed
+    private final AtomicLongArray finishedLoads = new AtomicLongArray(64);
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder localCoalescedLoads = new LongAdder();
+    private final LongAdder remoteCoalescedLoads = new LongAdder();
+    private final LongAdder multiGetHits = new LongAdder();
+    private final LongAdder multiGetMisses = new LongAdder();
+
+    public TieredCache(
+            RedisCache redisCache,
+            com.github.benmanes.caffeine.cache.Cache<Object, byte[]> nearCache,
+            CacheInvalidationPublisher invalidationPublisher,
+            CacheLoadLease loadLease,
+            CacheProperties.Lease leaseProperties,
+            Duration fillTtl,
+            RedisConnectionFactory connectionFactory,
+            CacheKeyMetrics keyMetrics,
+            HotKeyTracker hotKeyTracker) {
+        this.redisCache = redisCache;
+        this.nearCache = nearCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.loadLease = leaseProperties.isEnabled() ? loadLease : null;
+        this.leaseProperties = leaseProperties;
+        this.fillTtl = fillTtl;
+        this.connectionFactory = connectionFactory;
+        this.keyMetrics = keyMetrics;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    public boolean isNearCacheEnabled() {
+        return nearCache != null;
+    }
+
+    public boolean isHotKeyTrackingEnabled() {
+        return hotKeyTracker != null;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = lookup(key);
+        keyMetrics.recordGet(getName(), key, wrapper != null);
+        return wrapper;
+    }
+
+    private ValueWrapper lookup(Object key) {
+        boolean hot = isHot(key);
+        byte[] bytes = localBytes(key, hot);
+        if (bytes != null) {
+            return toValueWrapper(deserialize(bytes));
+        }
+
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper != null) {
+            putLocal(key, wrapper.get(), hot);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        int stripe = Math.floorMod(key.hashCode(), finishedLoads.length());
+        long finishedBefore = finishedLoads.get(stripe);
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            localCoalescedLoads.increment();
+            return (T) await(inFlight);
+        }
+
+        try {
+            // A load that finished between the miss above and claiming the slot has already stored its value.
+            // The near tier and the hot key sketch were seen by that miss, so only Redis is read again.
+            ValueWrapper loaded = finishedLoads.get(stripe) != finishedBefore ? redisCache.get(key) : null;
+            Object value;
+            if (loaded != null) {
+                value = loaded.get();
+                putLocal(key, value, false);
+            } else {
+                value = loadWithLease(key, valueLoader);
+            }
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            finishedLoads.incrementAndGet(stripe);
+            inFlightLoads.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null && !redisCache.isAllowNullValues()) {
+            throw new IllegalArgumentException("Cache '%s' does not allow null values".formatted(getName()));
+        }
+        // Encoded once for Redis, the near tier and the size metric alike
+        byte[] bytes = serialize(value);
+        Duration ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        redisCache.getNativeCache().put(getName(), redisKey(key), bytes, ttl);
+        if (isNearCacheEnabled()) {
+            nearCache.put(key, bytes);
+        }
+        unpin(key);
+        keyMetrics.recordPut(getName(), key, bytes.length);
+        invalidationPublisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        evictLocal(key);
+        if (existing == null) {
+            keyMetrics.recordPut(getName(), key, serialize(value).length);
+        }
+        invalidationPublisher.publishEvict(getName(), key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        evictLocal(key);
+        keyMetrics.recordEviction(getName(), key);
+        invalidationPublisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        clearLocal();
+        invalidationPublisher.publishClear(getName());
+    }
+
+    /**
+     * Looks up several entries at once: the near tier first, then a single
+     * MGET for the rest. Keys without an entry are left out of the result.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> values = new HashMap<>(keys.size());
+        List<Object> remoteKeys = new ArrayList<>();
+        List<Object> hotKeys = new ArrayList<>();
+        for (Object key : keys) {
+            boolean hot = isHot(key);
+            byte[] bytes = localBytes(key, hot);
+            if (hot) {
+                hotKeys.add(key);
+            }
+            if (bytes != null) {
+                keyMetrics.recordGet(getName(), key, true);
+                putValue(values, key, deserialize(bytes));
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return values;
+        }
+
+        List<byte[]> results;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            results = connection.stringCommands().mGet(remoteKeys.stream().map(this::redisKey).toArray(byte[][]::new));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read {} entries of cache '{}': {}", remoteKeys.size(), getName(), e.getMessage());
+            multiGetMisses.add(remoteKeys.size());
+            remoteKeys.forEach(key -> keyMetrics.recordGet(getName(), key, false));
+            return values;
+        }
+
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            Object key = remoteKeys.get(i);
+            byte[] bytes = results != null ? results.get(i) : null;
+            keyMetrics.recordGet(getName(), key, bytes != null);
+            if (bytes == null) {
+                multiGetMisses.increment();
+                continue;
+            }
+            multiGetHits.increment();
+            putValue(values, key, deserialize(bytes));
+            if (isNearCacheEnabled()) {
+                nearCache.put(key, bytes);
+            }
+            if (hotKeys.contains(key)) {
+                hotKeyTracker.pin(key, bytes);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes several entries in one pipeline, each only if the key is absent.
+     * Meant for values just loaded from the database: a fill never replaces
+     * an entry that a concurrent write put back in the meantime, and the keys
+     * it did write are broadcast so that other nodes drop any near copy.
+     * <p>
+     * A fill can still store a value read just before a write evicted the
+     * key. Such entries live at most {@code camly.cache.fill-ttl}, which
+     * bounds how long a lost race stays visible.
+     */
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        List<Object> keys = new ArrayList<>(entries.size());
+        List<byte[]> values = new ArrayList<>(entries.size());
+        List<Object> results;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            entries.forEach((key, value) -> {
+                byte[] bytes = serialize(value);
+                Duration ttl = fillTtl(configuration.getTtlFunction().getTimeToLive(key, value));
+                connection.stringCommands().set(redisKey(key), bytes, expiration(ttl), SetOption.ifAbsent());
+                keys.add(key);
+                values.add(bytes);
+            });
+            results = connection.closePipeline();
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} entries to cache '{}': {}", entries.size(), getName(), e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            Object key = keys.get(i);
+            if (results == null || i >= results.size() || !Boolean.TRUE.equals(results.get(i))) {
+                // Another writer got there first; whatever this node holds may predate it
+                evictLocal(key);
+                continue;
+            }
+            if (isNearCacheEnabled()) {
+                nearCache.put(key, values.get(i));
+            }
+            unpin(key);
+            keyMetrics.recordPut(getName(), key, values.get(i).length);
+            invalidationPublisher.publishEvict(getName(), key);
+        }
+    }
+
+    public long getMultiGetHitCount() {
+        return multiGetHits.sum();
+    }
+
+    public long getMultiGetMissCount() {
+        return multiGetMisses.sum();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getLocalCoalescedLoadCount() {
+        return localCoalescedLoads.sum();
+    }
+
+    public long getRemoteCoalescedLoadCount() {
+        return remoteCoalescedLoads.sum();
+    }
+
+    public void evictLocal(Object key) {
+        if (isNearCacheEnabled()) {
+            nearCache.invalidate(key);
+        }
+        unpin(key);
+    }
+
+    public void clearLocal() {
+        if (isNearCacheEnabled()) {
+            nearCache.invalidateAll();
+        }
+        if (isHotKeyTrackingEnabled()) {
+            hotKeyTracker.unpinAll();
+        }
+    }
+
+    private Object loadWithLease(Object key, Callable<?> valueLoader) {
+        if (loadLease == null) {
+            return load(key, valueLoader);
+        }
+
+        String token = loadLease.tryAcquire(getName(), key);
+        if (token != null) {
+            try {
+                return load(key, valueLoader);
+            } finally {
+                loadLease.release(getName(), key, token);
+            }
+        }
+
+        ValueWrapper loadedElsewhere = awaitRemoteLoad(key);
+        if (loadedElsewhere != null) {
+            remoteCoalescedLoads.increment();
+            putLocal(key, loadedElsewhere.get(), false);
+            return loadedElsewhere.get();
+        }
+        // The lease holder is slow or gone; loading twice beats failing the request
+        return load(key, valueLoader);
+    }
+
+    private ValueWrapper awaitRemoteLoad(Object key) {
+        long deadline = System.nanoTime() + leaseProperties.getWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(leaseProperties.getPollInterval());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper wrapper = redisCache.get(key);
+            if (wrapper != null) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        Object value;
+        long startedAt = System.nanoTime();
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        keyMetrics.recordLoad(getName(), key, System.nanoTime() - startedAt);
+        loads.increment();
+        put(key, value);
+        return value;
+    }
+
+    private Object await(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isHot(Object key) {
+        return isHotKeyTrackingEnabled() && hotKeyTracker.recordAccess(key);
+    }
+
+    private byte[] localBytes(Object key, boolean hot) {
+        byte[] bytes = hot ? hotKeyTracker.getPinned(key) : null;
+        if (bytes == null && isNearCacheEnabled()) {
+            bytes = nearCache.getIfPresent(key);
+            if (bytes != null && hot) {
+                hotKeyTracker.pin(key, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    private void putLocal(Object key, Object value, boolean hot) {
+        if (!isNearCacheEnabled() && !hot) {
+            return;
+        }
+        byte[] bytes = serialize(value);
+        if (isNearCacheEnabled()) {
+            nearCache.put(key, bytes);
+        }
+        if (hot) {
+            hotKeyTracker.pin(key, bytes);
+        }
+    }
+
+    private void unpin(Object key) {
+        if (isHotKeyTrackingEnabled()) {
+            hotKeyTracker.unpin(key);
+        }
+    }
+
+    private byte[] redisKey(Object key) {
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        String cacheKey = key instanceof String string
+                ? string
+                : configuration.getConversionService().convert(key, String.class);
+        if (configuration.usePrefix()) {
+            cacheKey = configuration.getKeyPrefixFor(getName()) + cacheKey;
+        }
+        return ByteUtils.getBytes(configuration.getKeySerializationPair().write(cacheKey));
+    }
+
+    private Duration fillTtl(Duration ttl) {
+        if (fillTtl == null || fillTtl.isZero() || fillTtl.isNegative()) {
+            return ttl;
+        }
+        return ttl == null || ttl.isZero() || ttl.isNegative() || ttl.compareTo(fillTtl) > 0 ? fillTtl : ttl;
+    }
+
+    private static Expiration expiration(Duration ttl) {
+        return ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+    }
+
+    private static void putValue(Map<Object, Object> values, Object key, Object value) {
+        if (!(value instanceof NullValue)) {
+            values.put(key, value);
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        return ByteUtils.getBytes(serializationPair().write(value != null ? value : NullValue.INSTANCE));
+    }
+
+    private Object deserialize(byte[] bytes) {
+        return serializationPair().read(ByteBuffer.wrap(bytes));
+    }
+
+    private SerializationPair<Object> serializationPair() {
+        return redisCache.getCacheConfiguration().getValueSerializationPair();
+    }
+
+    private ValueWrapper toValueWrapper(Object value) {
+        return new SimpleValueWrapper(value instanceof NullValue ? null : value);
+    }
+
+}
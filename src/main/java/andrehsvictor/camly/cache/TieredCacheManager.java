@@ -0,0 +1,69 @@
+package andrehsvictor.camly.cache;
+
+import java.util.Collection;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class TieredCacheManager extends AbstractCacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheProperties cacheProperties;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final CacheLoadLease loadLease;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheKeyMetrics keyMetrics;
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        redisCacheManager.initializeCaches();
+        return redisCacheManager.getCacheNames().stream()
+                .map(redisCacheManager::getCache)
+                .map(cache -> decorate((RedisCache) cache))
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache cache = redisCacheManager.getCache(name);
+        return cache != null ? decorate((RedisCache) cache) : null;
+    }
+
+    public void onInvalidation(CacheInvalidation invalidation) {
+        if (!(lookupCache(invalidation.cacheName()) instanceof TieredCache cache)) {
+            return;
+        }
+
+        if (invalidation.isClear()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+
+    private TieredCache decorate(RedisCache redisCache) {
+        CacheProperties.Near near = cacheProperties.getSpec(redisCache.getName()).getNear();
+        com.github.benmanes.caffeine.cache.Cache<Object, byte[]> nearCache = near.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(near.getMaxSize())
+                        .expireAfterWrite(near.getTtl())
+                        .recordStats()
+                        .build()
+                : null;
+        HotKeyTracker hotKeyTracker = cacheProperties.getHotKeys().isEnabled()
+                ? new HotKeyTracker(cacheProperties.getHotKeys())
+                : null;
+
+        return new TieredCache(redisCache, nearCache, invalidationPublisher, loadLease, cacheProperties.getLease(),
+                cacheProperties.getFillTtl(), connectionFactory, keyMetrics, hotKeyTracker);
+    }
+
+}
@@ -0,0 +1,88 @@
+package andrehsvictor.camly.cache;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+public class TieredCacheMeterBinderProvider implements CacheMeterBinderProvider<TieredCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TieredCache cache, Iterable<Tag> tags) {
+        return registry -> {
+            Tags redisTags = Tags.of(tags).and("tier", "l2");
+            new RedisCacheMetrics(cache.getRedisCache(), redisTags).bindTo(registry);
+            registerHitRatio(registry, cache, redisTags, () -> redisHitRatio(cache));
+
+            registerCounter(registry, cache, tags, "cache.loads", TieredCache::getLoadCount,
+                    "Cache misses loaded from the underlying method");
+            registerCounter(registry, cache, Tags.of(tags).and("scope", "local"), "cache.loads.coalesced",
+                    TieredCache::getLocalCoalescedLoadCount, "Cache misses that joined a load in flight on this node");
+            registerCounter(registry, cache, Tags.of(tags).and("scope", "remote"), "cache.loads.coalesced",
+                    TieredCache::getRemoteCoalescedLoadCount, "Cache misses served by a load on another node");
+            registerCounter(registry, cache, Tags.of(tags).and("result", "hit"), "cache.multi.gets",
+                    TieredCache::getMultiGetHitCount, "Entries found by batched Redis lookups");
+            registerCounter(registry, cache, Tags.of(tags).and("result", "miss"), "cache.multi.gets",
+                    TieredCache::getMultiGetMissCount, "Entries missing from batched Redis lookups");
+
+            if (cache.isNearCacheEnabled()) {
+                Tags nearTags = Tags.of(tags).and("tier", "l1");
+                new CaffeineCacheMetrics<>(cache.getNearCache(), cache.getName(), nearTags).bindTo(registry);
+                registerHitRatio(registry, cache, nearTags, () -> cache.getNearCache().stats().hitRate());
+            }
+
+            if (cache.isHotKeyTrackingEnabled()) {
+                HotKeyTracker tracker = cache.getHotKeyTracker();
+                Gauge.builder("cache.hot.keys", tracker, HotKeyTracker::getHotKeyCount)
+                        .description("Keys whose estimated reads reached the hot-key threshold")
+                        .tags(tags)
+                        .tag("cache", cache.getName())
+                        .register(registry);
+                Gauge.builder("cache.pinned.entries", tracker, HotKeyTracker::getPinnedCount)
+                        .description("Hot entries currently pinned in the JVM")
+                        .tags(tags)
+                        .tag("cache", cache.getName())
+                        .register(registry);
+                registerCounter(registry, cache, tags, "cache.pinned.hits",
+                        c -> c.getHotKeyTracker().getPinnedHitCount(), "Reads served from a hot-key pin");
+            }
+        };
+    }
+
+    private void registerHitRatio(MeterRegistry registry, TieredCache cache, Tags tags,
+            DoubleSupplier ratio) {
+        Gauge.builder("cache.hit.ratio", ratio, DoubleSupplier::getAsDouble)
+                .description("Ratio of cache lookups served by this tier")
+                .tags(tags)
+                .tag("cache", cache.getName())
+                .register(registry);
+    }
+
+    private void registerCounter(MeterRegistry registry, TieredCache cache, Iterable<Tag> tags, String name,
+            ToDoubleFunction<TieredCache> count, String description) {
+        FunctionCounter.builder(name, cache, count)
+                .description(description)
+                .tags(tags)
+                .tag("cache", cache.getName())
+                .register(registry);
+    }
+
+    private double redisHitRatio(TieredCache cache) {
+        CacheStatistics statistics = cache.getRedisCache().getStatistics();
+        long lookups = statistics.getHits() + statistics.getMisses();
+        return lookups == 0 ? 0.0 : (double) statistics.getHits() / lookups;
+    }
+
+}
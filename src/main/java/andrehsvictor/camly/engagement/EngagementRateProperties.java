@@ -0,0 +1,21 @@
+package andrehsvictor.camly.engagement;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.engagement-rate")
+public class EngagementRateProperties {
+
+    private boolean enabled = true;
+    private Duration interval = Duration.ofSeconds(5);
+    private int batchSize = 100;
+
+}
@@ -0,0 +1,101 @@
+package andrehsvictor.camly.engagement;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.user.FollowerCountChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the engagement rate of posts in step with their authors' follower
+ * counts.
+ * <p>
+ * A follow only marks the followed author; a scheduled run recomputes the
+ * posts of all marked authors in chunked, set-based updates. An author
+ * followed many times between two runs is recomputed once. Like count
+ * changes need no help from here: {@link andrehsvictor.camly.post.LikeCounter}
+ * already rewrites the rate in the statement that moves the count.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EngagementRateUpdater {
+
+    private final EngagementRateProperties properties;
+    private final PostRepository postRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<UUID> pendingAuthors = ConcurrentHashMap.newKeySet();
+
+    private Counter authorsRecomputed;
+    private Counter postsUpdated;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void registerMeters() {
+        authorsRecomputed = Counter.builder("engagement.rate.authors")
+                .description("Authors whose posts had their engagement rate recomputed")
+                .register(meterRegistry);
+        postsUpdated = Counter.builder("engagement.rate.posts")
+                .description("Posts whose engagement rate changed on recomputation")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("engagement.rate.batch")
+                .description("Time to recompute the engagement rates of one batch of authors")
+                .register(meterRegistry);
+        Gauge.builder("engagement.rate.pending", pendingAuthors, Set::size)
+                .description("Authors waiting for their engagement rates to be recomputed")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onFollowerCountChanged(FollowerCountChangedEvent event) {
+        if (properties.isEnabled()) {
+            pendingAuthors.add(event.userId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${camly.engagement-rate.interval:5s}", fixedDelayString = "${camly.engagement-rate.interval:5s}")
+    public synchronized void recompute() {
+        List<UUID> authors = new ArrayList<>(pendingAuthors.size());
+        // An author marked again after removal is picked up by the next run
+        for (Iterator<UUID> iterator = pendingAuthors.iterator(); iterator.hasNext();) {
+            authors.add(iterator.next());
+            iterator.remove();
+        }
+        authors.sort(null);
+
+        for (int from = 0; from < authors.size(); from += properties.getBatchSize()) {
+            List<UUID> batch = authors.subList(from, Math.min(from + properties.getBatchSize(), authors.size()));
+            try {
+                int updated = batchTimer.recordCallable(
+                        () -> postRepository.recomputeEngagementRates(batch.toArray(UUID[]::new)));
+                authorsRecomputed.increment(batch.size());
+                postsUpdated.increment(updated);
+            } catch (Exception e) {
+                log.warn("Failed to recompute the engagement rates of {} authors, retrying later: {}",
+                        batch.size(), e.getMessage());
+                pendingAuthors.addAll(batch);
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingAuthors.size();
+    }
+
+}
@@ -3,6 +3,7 @@ package andrehsvictor.camly.google;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,7 +16,6 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 
 import andrehsvictor.camly.exception.BadRequestException;
 import andrehsvictor.camly.exception.ResourceConflictException;
-import andrehsvictor.camly.exception.ResourceNotFoundException;
 import andrehsvictor.camly.security.UserDetailsImpl;
 import andrehsvictor.camly.user.Role;
 import andrehsvictor.camly.user.User;
@@ -65,8 +65,9 @@ public class GoogleAuthenticationService {
     }
 
     private User findExistingUser(String email, String providerId) {
-        try {
-            User user = userService.getByProviderId(providerId);
+        Optional<User> byProviderId = userService.findByProviderId(providerId);
+        if (byProviderId.isPresent()) {
+            User user = byProviderId.get();
 
             if (!email.equals(user.getEmail())) {
                 throw new ResourceConflictException(
@@ -74,20 +75,21 @@ public class GoogleAuthenticationService {
             }
 
             return user;
-        } catch (ResourceNotFoundException e) {
-            try {
-                User user = userService.getByEmail(email);
-
-                if (user.getProvider() != UserProvider.GOOGLE) {
-                    throw new ResourceConflictException(
-                            "User with email '" + email + "' is already registered with a different provider");
-                }
-
-                return user;
-            } catch (ResourceNotFoundException ex) {
-                return null;
+        }
+
+        Optional<User> byEmail = userService.findByEmail(email);
+        if (byEmail.isPresent()) {
+            User user = byEmail.get();
+
+            if (user.getProvider() != UserProvider.GOOGLE) {
+                throw new ResourceConflictException(
+                        "User with email '" + email + "' is already registered with a different provider");
             }
+
+            return user;
         }
+
+        return null;
     }
 
     private User updateUserIfNeeded(User user, boolean emailVerified, String pictureUrl, String providerId) {
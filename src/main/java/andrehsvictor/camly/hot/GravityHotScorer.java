@@ -0,0 +1,25 @@
+package andrehsvictor.camly.hot;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Divides the engagement of a post by a power of its age, so a post needs
+ * ever more likes to stay ahead of newer ones:
+ * {@code (likes + engagementWeight * engagementRate) / (ageHours + ageOffset) ^ gravity}.
+ */
+@Component("gravity")
+@RequiredArgsConstructor
+public class GravityHotScorer implements HotScorer {
+
+    private final HotRankingProperties properties;
+
+    @Override
+    public double score(long likeCount, double engagementRate, double ageHours) {
+        double points = likeCount + properties.getEngagementWeight() * engagementRate;
+        double offset = properties.getAgeOffset().toSeconds() / 3600.0;
+        return points / Math.pow(Math.max(ageHours, 0) + offset, properties.getGravity());
+    }
+
+}
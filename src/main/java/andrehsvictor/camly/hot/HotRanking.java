@@ -0,0 +1,211 @@
+package andrehsvictor.camly.hot;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import andrehsvictor.camly.cache.IdPage;
+import andrehsvictor.camly.post.LikeCounter;
+import andrehsvictor.camly.post.PostEngagement;
+import andrehsvictor.camly.post.PostLikeChangedEvent;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.post.PostSnapshot;
+import andrehsvictor.camly.post.PostSnapshotCache;
+import andrehsvictor.camly.user.UserSnapshot;
+import andrehsvictor.camly.user.UserSnapshotCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The hottest recent posts, ranked by the configured {@link HotScorer}.
+ * <p>
+ * The ranking is rebuilt from the posts table on startup and then every
+ * {@code rebuild-interval}. In between, each like moves its post at once,
+ * reading a post not ranked yet from the caches, and the ranking is
+ * rescored every {@code rescore-interval} as its posts age. The rebuild
+ * also catches posts that overtook a ranked one only by aging more slowly.
+ * <p>
+ * Every node keeps its own ranking, but likes are published on a Redis
+ * channel and applied by all of them, so the rankings agree within the
+ * delivery delay. A like missed while a node was not subscribed, or not
+ * yet flushed by the node that took it when another node rebuilds, is left
+ * out there until its next rebuild.
+ */
+@Slf4j
+@Component
+public class HotRanking implements MessageListener {
+
+    private static final String SEPARATOR = "\n";
+
+    private final HotRankingProperties properties;
+    private final HotScorer scorer;
+    private final PostRepository postRepository;
+    private final PostSnapshotCache postSnapshotCache;
+    private final UserSnapshotCache userSnapshotCache;
+    private final LikeCounter likeCounter;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object rebuildLock = new Object();
+    private TopKHeap heap;
+
+    public HotRanking(HotRankingProperties properties, Map<String, HotScorer> scorers, PostRepository postRepository,
+            PostSnapshotCache postSnapshotCache, UserSnapshotCache userSnapshotCache, LikeCounter likeCounter,
+            StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.properties = properties;
+        this.scorer = scorers.get(properties.getScorer());
+        if (scorer == null) {
+            throw new IllegalStateException("Unknown hot scorer: " + properties.getScorer()
+                    + ". Available scorers: " + scorers.keySet());
+        }
+        this.postRepository = postRepository;
+        this.postSnapshotCache = postSnapshotCache;
+        this.userSnapshotCache = userSnapshotCache;
+        this.likeCounter = likeCounter;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.heap = new TopKHeap(properties.getCapacity(), scorer);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (properties.isEnabled()) {
+            listenerContainer.addMessageListener(this, ChannelTopic.of(properties.getChannel()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onPostLikeChanged(PostLikeChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        addLikes(event.postId(), event.delta());
+        try {
+            stringRedisTemplate.convertAndSend(properties.getChannel(),
+                    String.join(SEPARATOR, nodeId, event.postId().toString(), Integer.toString(event.delta())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish a like to the other hot rankings: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            addLikes(UUID.fromString(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring a malformed hot ranking message: {}", e.getMessage());
+        }
+    }
+
+    private void addLikes(UUID postId, int delta) {
+        long now = Instant.now().getEpochSecond();
+        synchronized (this) {
+            if (heap.addLikes(postId, delta, now)) {
+                return;
+            }
+        }
+
+        List<PostSnapshot> posts = postSnapshotCache.getAll(List.of(postId));
+        if (posts.isEmpty()) {
+            return;
+        }
+        PostSnapshot post = posts.get(0).plusLikes(likeCounter.getPending(postId));
+        long createdAt = post.createdAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+        if (createdAt < now - properties.getMaxAge().toSeconds()) {
+            return;
+        }
+        List<UserSnapshot> authors = userSnapshotCache.getAll(List.of(post.userId()));
+        int followerCount = authors.isEmpty() ? 0 : authors.get(0).followerCount();
+        synchronized (this) {
+            heap.offer(post.id(), post.likeCount(), followerCount, createdAt, now);
+        }
+    }
+
+    /**
+     * Returns one page of the IDs of the hottest posts, hottest first.
+     */
+    public synchronized IdPage getTop(Pageable pageable) {
+        return new IdPage(heap.top(pageable.getOffset(), pageable.getPageSize()), heap.size());
+    }
+
+    @Scheduled(initialDelayString = "${camly.hot-ranking.rescore-interval:1m}", fixedDelayString = "${camly.hot-ranking.rescore-interval:1m}")
+    public synchronized void rescore() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        heap.rescore(now, now - properties.getMaxAge().toSeconds());
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    void rebuildOnStartup() {
+        if (properties.isEnabled()) {
+            Thread.ofVirtual().name("hot-ranking-rebuild").start(this::rebuild);
+        }
+    }
+
+    /**
+     * Scores every post younger than {@code max-age} and replaces the
+     * ranking with the best of them. Likes on posts that were not ranked,
+     * recorded while this runs, may be left out until the next rebuild.
+     */
+    @Scheduled(initialDelayString = "${camly.hot-ranking.rebuild-interval:15m}", fixedDelayString = "${camly.hot-ranking.rebuild-interval:15m}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            try {
+                Instant now = Instant.now();
+                TopKHeap rebuilt = new TopKHeap(properties.getCapacity(), scorer);
+                long position = ChronoUnit.MICROS.between(Instant.EPOCH, now.minus(properties.getMaxAge()));
+                UUID after = new UUID(0, 0);
+                int batchSize = properties.getRebuildBatchSize();
+                int scanned = 0;
+                List<PostEngagement> posts;
+                do {
+                    posts = postRepository.findEngagementAfter(position, after, batchSize);
+                    for (PostEngagement post : posts) {
+                        rebuilt.offer(post.getId(), post.getLikeCount() + likeCounter.getPending(post.getId()),
+                                post.getFollowerCount(), post.getCreatedAtMicros() / 1_000_000, now.getEpochSecond());
+                    }
+                    if (!posts.isEmpty()) {
+                        PostEngagement last = posts.get(posts.size() - 1);
+                        position = last.getCreatedAtMicros();
+                        after = last.getId();
+                    }
+                    scanned += posts.size();
+                } while (posts.size() == batchSize);
+
+                synchronized (this) {
+                    heap = rebuilt;
+                }
+                log.info("Ranked {} hot posts out of {}", rebuilt.size(), scanned);
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild the hot ranking, keeping the current one: {}", e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package andrehsvictor.camly.hot;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.hot-ranking")
+public class HotRankingProperties {
+
+    private boolean enabled = true;
+    private String scorer = "gravity";
+    private int capacity = 1000;
+    // Posts older than this are never ranked
+    private Duration maxAge = Duration.ofDays(7);
+    private double gravity = 1.8;
+    private double engagementWeight = 10;
+    private Duration ageOffset = Duration.ofHours(2);
+    private Duration rescoreInterval = Duration.ofMinutes(1);
+    private Duration rebuildInterval = Duration.ofMinutes(15);
+    private int rebuildBatchSize = 1000;
+    // Likes are shared with the rankings of the other nodes here
+    private String channel = "camly:hot-ranking:likes";
+
+}
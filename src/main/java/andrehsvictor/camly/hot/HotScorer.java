@@ -0,0 +1,14 @@
+package andrehsvictor.camly.hot;
+
+/**
+ * Scores how "hot" a post is from its engagement and age. Implementations
+ * are beans named after the value of {@code camly.hot-ranking.scorer}.
+ * <p>
+ * Scores are only compared with scores computed at about the same time, so
+ * they may decay with age on any scale.
+ */
+public interface HotScorer {
+
+    double score(long likeCount, double engagementRate, double ageHours);
+
+}
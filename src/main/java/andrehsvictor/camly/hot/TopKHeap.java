@@ -0,0 +1,198 @@
+package andrehsvictor.camly.hot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code capacity} highest scored posts, kept in a binary min-heap laid
+ * out over parallel primitive arrays: the lowest ranked post is at the root
+ * and is the one replaced when a better post arrives.
+ * <p>
+ * The inputs of every score are kept next to it so that a like only moves
+ * the one post it changes, and the whole heap can be rescored as it ages.
+ * Not thread-safe.
+ */
+final class TopKHeap {
+
+    private static final double SECONDS_PER_HOUR = 3600.0;
+
+    private final int capacity;
+    private final HotScorer scorer;
+
+    private final double[] scores;
+    private final UUID[] ids;
+    private final long[] likeCounts;
+    private final int[] followerCounts;
+    private final long[] createdAtSeconds;
+    private final Map<UUID, Integer> slots;
+    private int size;
+
+    TopKHeap(int capacity, HotScorer scorer) {
+        this.capacity = capacity;
+        this.scorer = scorer;
+        this.scores = new double[capacity];
+        this.ids = new UUID[capacity];
+        this.likeCounts = new long[capacity];
+        this.followerCounts = new int[capacity];
+        this.createdAtSeconds = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(UUID id) {
+        return slots.containsKey(id);
+    }
+
+    /**
+     * Ranks the post, or updates it if it is already ranked. Returns whether
+     * the post is ranked afterwards.
+     */
+    boolean offer(UUID id, long likeCount, int followerCount, long createdAtSecond, long nowSecond) {
+        double score = score(likeCount, followerCount, createdAtSecond, nowSecond);
+        Integer slot = slots.get(id);
+        if (slot != null) {
+            set(slot, id, score, likeCount, followerCount, createdAtSecond);
+            restore(slot);
+            return true;
+        }
+
+        if (size < capacity) {
+            set(size, id, score, likeCount, followerCount, createdAtSecond);
+            slots.put(id, size);
+            siftUp(size++);
+            return true;
+        }
+        if (capacity == 0 || score <= scores[0]) {
+            return false;
+        }
+        slots.remove(ids[0]);
+        set(0, id, score, likeCount, followerCount, createdAtSecond);
+        slots.put(id, 0);
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Adds likes to a ranked post and moves it to its new place. Returns
+     * {@code false}, changing nothing, if the post is not ranked.
+     */
+    boolean addLikes(UUID id, long delta, long nowSecond) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            return false;
+        }
+        likeCounts[slot] = Math.max(likeCounts[slot] + delta, 0);
+        scores[slot] = score(likeCounts[slot], followerCounts[slot], createdAtSeconds[slot], nowSecond);
+        restore(slot);
+        return true;
+    }
+
+    /**
+     * Recomputes every score as of now, dropping the posts created before
+     * the cutoff.
+     */
+    void rescore(long nowSecond, long cutoffSecond) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (createdAtSeconds[i] < cutoffSecond) {
+                slots.remove(ids[i]);
+                continue;
+            }
+            set(kept, ids[i], score(likeCounts[i], followerCounts[i], createdAtSeconds[i], nowSecond),
+                    likeCounts[i], followerCounts[i], createdAtSeconds[i]);
+            slots.put(ids[kept], kept);
+            kept++;
+        }
+        Arrays.fill(ids, kept, size, null);
+        size = kept;
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Returns a slice of the ranked posts, highest score first.
+     */
+    List<UUID> top(long offset, int limit) {
+        return IntStream.range(0, size)
+                .boxed()
+                .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+                .skip(offset)
+                .limit(limit)
+                .map(slot -> ids[slot])
+                .toList();
+    }
+
+    private double score(long likeCount, int followerCount, long createdAtSecond, long nowSecond) {
+        return scorer.score(likeCount, engagementRate(likeCount, followerCount),
+                (nowSecond - createdAtSecond) / SECONDS_PER_HOUR);
+    }
+
+    // Same as posts.engagement_rate
+    private static double engagementRate(long likeCount, int followerCount) {
+        return followerCount > 0 ? (double) likeCount / followerCount : likeCount;
+    }
+
+    private void set(int slot, UUID id, double score, long likeCount, int followerCount, long createdAtSecond) {
+        ids[slot] = id;
+        scores[slot] = score;
+        likeCounts[slot] = likeCount;
+        followerCounts[slot] = followerCount;
+        createdAtSeconds[slot] = createdAtSecond;
+    }
+
+    private void restore(int slot) {
+        if (siftUp(slot) == slot) {
+            siftDown(slot);
+        }
+    }
+
+    private int siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (scores[parent] <= scores[slot]) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (scores[slot] <= scores[child]) {
+                return;
+            }
+            swap(slot, child);
+            slot = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        UUID id = ids[a];
+        double score = scores[a];
+        long likeCount = likeCounts[a];
+        int followerCount = followerCounts[a];
+        long createdAtSecond = createdAtSeconds[a];
+        set(a, ids[b], scores[b], likeCounts[b], followerCounts[b], createdAtSeconds[b]);
+        set(b, id, score, likeCount, followerCount, createdAtSecond);
+        slots.put(ids[a], a);
+        slots.put(ids[b], b);
+    }
+
+}
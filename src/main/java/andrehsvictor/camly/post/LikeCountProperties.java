@@ -0,0 +1,30 @@
+package andrehsvictor.camly.post;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.like-count")
+public class LikeCountProperties {
+
+    private boolean writeBehind = true;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private int flushBatchSize = 500;
+    private Duration reconcileDelay = Duration.ofMinutes(1);
+    private Duration reconcileInterval = Duration.ofMinutes(1);
+    private Duration reconcileSettleTime = Duration.ofMinutes(1);
+    // Longest a post liked without pause waits to be recounted
+    private Duration reconcileMaxWait = Duration.ofMinutes(10);
+    private int reconcileBatchSize = 1_000;
+    private Duration reconcileLockTtl = Duration.ofMinutes(5);
+    // The hash tag keeps the keys one script touches in one cluster slot
+    private String keyPrefix = "camly:{like-count}:";
+
+}
@@ -0,0 +1,291 @@
+package andrehsvictor.camly.post;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import andrehsvictor.camly.cache.TieredCacheManager;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind counter for post likes.
+ * <p>
+ * A like or unlike writes its likes row right away, but the change to the
+ * post's like count is added to an in-JVM {@link LongAdder} once the
+ * transaction commits. A scheduled flush applies the pending deltas of
+ * many posts in one {@code UPDATE}, so concurrent likes on a popular post
+ * no longer queue on its row lock. Reads add the pending delta of this
+ * node to the persisted count.
+ * <p>
+ * The likes table stays the source of truth. Every post whose count
+ * changes is marked in a Redis sorted set, scored by the time of the
+ * change. The periodic reconciliation recounts, from their likes rows, only
+ * the posts left untouched for the settle time, by when every node has
+ * flushed their deltas. This corrects deltas lost with a crashed node. A
+ * post changed while it was being recounted is marked again and recounted
+ * once it settles, so a delta flushed after the recount is not left
+ * counted twice.
+ * <p>
+ * A post liked without pause never settles, so a second sorted set
+ * records since when each post has waited, and a post waiting longer than
+ * {@code reconcile-max-wait} is recounted anyway. Deltas still pending on
+ * other nodes then count twice until its next recount.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeCounter {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    // Unmarks the posts not changed again since the cutoff in ARGV[1]; the
+    // others wait again from the time in ARGV[2]
+    private static final RedisScript<Long> UNMARK_SCRIPT = RedisScript.of("""
+            local removed = 0
+            for i = 3, #ARGV do
+                local changedAt = redis.call('zscore', KEYS[1], ARGV[i])
+                if not changedAt or tonumber(changedAt) <= tonumber(ARGV[1]) then
+                    removed = removed + redis.call('zrem', KEYS[1], ARGV[i])
+                    redis.call('zrem', KEYS[2], ARGV[i])
+                else
+                    redis.call('zadd', KEYS[2], ARGV[2], ARGV[i])
+                end
+            end
+            return removed
+            """, Long.class);
+
+    private final LikeCountProperties properties;
+    private final PostRepository postRepository;
+    private final TieredCacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public boolean isWriteBehind() {
+        return properties.isWriteBehind();
+    }
+
+    /**
+     * Records a change of the post's like count. Must run inside the
+     * transaction that wrote the likes row.
+     */
+    public void add(UUID postId, int delta) {
+        if (!properties.isWriteBehind()) {
+            postRepository.addToLikeCount(postId, delta, LocalDateTime.now());
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addPending(postId, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                addPending(postId, delta);
+            }
+
+        });
+    }
+
+    /**
+     * Likes of the post recorded on this node and not yet flushed.
+     */
+    public long getPending(UUID postId) {
+        LongAdder delta = pending.get(postId);
+        return delta != null ? delta.sum() : 0;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    @Scheduled(initialDelayString = "${camly.like-count.flush-interval:1s}", fixedDelayString = "${camly.like-count.flush-interval:1s}")
+    public synchronized void flush() {
+        List<UUID> postIds = new ArrayList<>(pending.keySet());
+        // Rows are locked in the same order by every node
+        postIds.sort(null);
+        for (int from = 0; from < postIds.size(); from += properties.getFlushBatchSize()) {
+            flush(postIds.subList(from, Math.min(from + properties.getFlushBatchSize(), postIds.size())));
+        }
+    }
+
+    /**
+     * Recounts the posts whose like count changed more than the settle time
+     * ago, then those waiting longer than the max wait, one batch after
+     * another. One node at a time does it, under a Redis lock.
+     */
+    @Scheduled(initialDelayString = "${camly.like-count.reconcile-delay:1m}", fixedDelayString = "${camly.like-count.reconcile-interval:1m}")
+    public void reconcile() {
+        String lockKey = properties.getKeyPrefix() + "reconcile";
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, properties.getReconcileLockTtl()))) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to acquire the like count reconciliation lock: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            int reconciled = 0;
+            int batchSize = properties.getReconcileBatchSize();
+            long now = System.currentTimeMillis();
+            long settledAt = now - properties.getReconcileSettleTime().toMillis();
+            long overdueAt = now - properties.getReconcileMaxWait().toMillis();
+            List<UUID> batch;
+            do {
+                batch = postsMarkedBefore(changedKey(), settledAt, batchSize);
+                if (!batch.isEmpty()) {
+                    reconciled += reconcile(batch, settledAt, now);
+                }
+            } while (batch.size() == batchSize);
+            // Left marked by the recount, so they wait again from now on
+            do {
+                batch = postsMarkedBefore(waitingKey(), overdueAt, batchSize);
+                if (!batch.isEmpty()) {
+                    reconciled += reconcile(batch, settledAt, now);
+                }
+            } while (batch.size() == batchSize);
+            if (reconciled > 0) {
+                log.warn("Reconciled the like count of {} posts with their likes", reconciled);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile like counts, retrying later: {}", e.getMessage());
+        } finally {
+            release(lockKey, token);
+        }
+    }
+
+    private void flush(List<UUID> postIds) {
+        List<UUID> ids = new ArrayList<>(postIds.size());
+        List<Integer> deltas = new ArrayList<>(postIds.size());
+        for (UUID postId : postIds) {
+            LongAdder delta = pending.get(postId);
+            long sum = delta != null ? delta.sum() : 0;
+            if (sum != 0) {
+                ids.add(postId);
+                deltas.add((int) sum);
+            } else {
+                // Checked again under the entry's lock, which addPending also takes
+                pending.computeIfPresent(postId, (id, adder) -> adder.sum() == 0 ? null : adder);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            postRepository.addToLikeCounts(ids.toArray(UUID[]::new),
+                    deltas.stream().mapToInt(Integer::intValue).toArray(), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush the like counts of {} posts, retrying later: {}", ids.size(), e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            pending.get(ids.get(i)).add(-deltas.get(i));
+            evict(ids.get(i));
+        }
+        // A reconciliation may have counted these likes before they were flushed
+        markChanged(ids);
+    }
+
+    private void addPending(UUID postId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        pending.compute(postId, (id, adder) -> {
+            LongAdder target = adder != null ? adder : new LongAdder();
+            target.add(delta);
+            return target;
+        });
+        markChanged(List.of(postId));
+    }
+
+    private List<UUID> postsMarkedBefore(String key, long markedAt, int limit) {
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .rangeByScore(key, Double.NEGATIVE_INFINITY, markedAt, 0, limit);
+        return members == null ? List.of() : members.stream().map(UUID::fromString).toList();
+    }
+
+    private int reconcile(List<UUID> postIds, long settledAt, long now) {
+        List<UUID> reconciled = postRepository.reconcileLikeCounts(postIds.toArray(UUID[]::new),
+                LocalDateTime.now());
+        reconciled.forEach(this::evict);
+
+        Object[] args = new Object[postIds.size() + 2];
+        args[0] = Long.toString(settledAt);
+        args[1] = Long.toString(now);
+        for (int i = 0; i < postIds.size(); i++) {
+            args[i + 2] = postIds.get(i).toString();
+        }
+        stringRedisTemplate.execute(UNMARK_SCRIPT, List.of(changedKey(), waitingKey()), args);
+        return reconciled.size();
+    }
+
+    private void markChanged(Collection<UUID> postIds) {
+        double now = System.currentTimeMillis();
+        Set<TypedTuple<String>> members = postIds.stream()
+                .map(id -> TypedTuple.of(id.toString(), now))
+                .collect(Collectors.toSet());
+        try {
+            stringRedisTemplate.opsForZSet().add(changedKey(), members);
+            // Only the first change since the last recount starts the wait
+            stringRedisTemplate.opsForZSet().addIfAbsent(waitingKey(), members);
+        } catch (RuntimeException e) {
+            log.warn("Failed to mark {} posts for like count reconciliation: {}", postIds.size(), e.getMessage());
+        }
+    }
+
+    private void release(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release the like count reconciliation lock: {}", e.getMessage());
+        }
+    }
+
+    private String changedKey() {
+        return properties.getKeyPrefix() + "changed";
+    }
+
+    private String waitingKey() {
+        return properties.getKeyPrefix() + "waiting";
+    }
+
+    private void evict(UUID postId) {
+        Cache cache = cacheManager.getCache("posts");
+        if (cache != null) {
+            cache.evict("post_" + postId);
+        }
+    }
+
+}
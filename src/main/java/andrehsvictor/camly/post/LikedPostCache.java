@@ -0,0 +1,68 @@
+package andrehsvictor.camly.post;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.cache.TieredCache;
+import andrehsvictor.camly.cache.TieredCacheManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Batched access to the liked states cached by
+ * {@link PostService#isLiked(UUID)}, used to render a page of posts with
+ * one cache round trip and at most one query.
+ */
+@Component
+@RequiredArgsConstructor
+public class LikedPostCache {
+
+    private final TieredCacheManager cacheManager;
+    private final PostRepository postRepository;
+
+    /**
+     * Returns which of the posts the user has liked. States missing from the
+     * cache are read with a single {@code IN} query and cached, liked or not.
+     */
+    public Set<UUID> getLiked(UUID userId, List<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<Object, Object> cached = cache().getAll(postIds.stream().map(postId -> key(postId, userId)).toList());
+        Set<UUID> liked = new HashSet<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID postId : postIds) {
+            Object state = cached.get(key(postId, userId));
+            if (state == null) {
+                missing.add(postId);
+            } else if (Boolean.TRUE.equals(state)) {
+                liked.add(postId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Set<UUID> loaded = new HashSet<>(postRepository.findLikedPostIds(userId, missing));
+            Map<Object, Object> entries = new LinkedHashMap<>(missing.size());
+            missing.forEach(postId -> entries.put(key(postId, userId), loaded.contains(postId)));
+            cache().putAll(entries);
+            liked.addAll(loaded);
+        }
+        return liked;
+    }
+
+    private TieredCache cache() {
+        return (TieredCache) cacheManager.getCache("posts");
+    }
+
+    private static String key(UUID postId, UUID userId) {
+        return "liked_" + postId + "_" + userId;
+    }
+
+}
@@ -13,10 +13,15 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.LikeDto;
 import andrehsvictor.camly.post.dto.PostDto;
 import andrehsvictor.camly.post.dto.UpdatePostDto;
+import andrehsvictor.camly.trending.TrendingWindow;
+import andrehsvictor.camly.util.CursorPage;
+import andrehsvictor.camly.util.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -50,19 +55,61 @@ public class PostController {
         return ResponseEntity.status(201).body(postDto);
     }
 
-    @Operation(summary = "Toggle like status on a post", description = "Like or unlike a post by its ID. If the post is already liked, it will be unliked.")
+    @Operation(summary = "Get the likes of a post", description = "Returns the users who liked a post, most recent first. Pass the nextCursor of a page as after to get the next one; it is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Likes retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Post not found", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @GetMapping("/api/v1/posts/{id}/likes")
+    public ResponseEntity<CursorPage<LikeDto>> getLikes(
+            @Parameter(description = "Post ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Number of likes per page, at most 100") @RequestParam(defaultValue = "20") int limit) {
+        CursorPage<LikeDto> likes = postService.getLikes(id, after, limit);
+        return ResponseEntity.ok(likes);
+    }
+
+    @Operation(summary = "Toggle like status on a post", description = "Like or unlike a post by its ID. If the post is already liked, it will be unliked. Prefer POST and DELETE, which can be retried safely.", deprecated = true)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Like status toggled successfully"),
             @ApiResponse(responseCode = "404", description = "Post not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
     })
     @PutMapping("/api/v1/posts/{id}/likes")
+    public ResponseEntity<Void> toggleLike(
+            @Parameter(description = "Post ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id) {
+        postService.toggleLike(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Like a post", description = "Likes a post by its ID. Liking a post that is already liked has no effect.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Post liked"),
+            @ApiResponse(responseCode = "404", description = "Post not found", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @PostMapping("/api/v1/posts/{id}/likes")
     public ResponseEntity<Void> like(
             @Parameter(description = "Post ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id) {
         postService.like(id);
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Unlike a post", description = "Removes the like from a post by its ID. Unliking a post that is not liked has no effect.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Post unliked"),
+            @ApiResponse(responseCode = "404", description = "Post not found", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @DeleteMapping("/api/v1/posts/{id}/likes")
+    public ResponseEntity<Void> unlike(
+            @Parameter(description = "Post ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id) {
+        postService.unlike(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "Delete a post", description = "Deletes a post by its ID. Only the owner of the post can delete it.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Post deleted successfully"),
@@ -94,33 +141,98 @@ public class PostController {
         return ResponseEntity.ok(postDto);
     }
 
-    @Operation(summary = "Get all posts with filtering", description = "Returns a paginated list of posts that can be filtered by caption or username")
+    @Operation(summary = "Get all posts with filtering", description = "Returns a paginated list of posts that can be filtered by username. With a search query, matching posts are ranked by relevance.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Posts retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
     })
     @GetMapping("/api/v1/posts")
     public ResponseEntity<Page<PostDto>> getAll(
-            @Parameter(description = "Search query for post caption") @RequestParam(required = false, name = "q") String query,
+            @Parameter(description = "Words to search for in post captions and author usernames") @RequestParam(required = false, name = "q") String query,
             @Parameter(description = "Filter by username") @RequestParam(required = false, name = "user.username") String username,
             @Parameter(description = "Pagination parameters (page, size, sort)") Pageable pageable) {
-        Page<Post> posts = postService.getAllWithFilters(query, username, pageable);
-        Page<PostDto> postDtos = posts.map(postService::toDto);
+        Page<PostSnapshot> posts = postService.getAllWithFilters(query, username, pageable);
+        Page<PostDto> postDtos = postService.toDtos(posts);
+        return ResponseEntity.ok(postDtos);
+    }
+
+    @Operation(summary = "Get all posts with filtering by cursor", description = "Returns the posts that match the filters, newest first, without counting them. Sending limit selects this listing; pass the nextCursor of a page as after to get the next one. It is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Posts retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @GetMapping(value = "/api/v1/posts", params = "limit")
+    public ResponseEntity<CursorPage<PostDto>> getAllByCursor(
+            @Parameter(description = "Words to search for in post captions and author usernames") @RequestParam(required = false, name = "q") String query,
+            @Parameter(description = "Filter by username") @RequestParam(required = false, name = "user.username") String username,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Number of posts per page, at most 100", required = true) @RequestParam int limit) {
+        CursorPage<PostSnapshot> posts = postService.getAllWithFilters(query, username, after, limit);
+        CursorPage<PostDto> postDtos = postService.toDtos(posts);
+        return ResponseEntity.ok(postDtos);
+    }
+
+    @Operation(summary = "Get trending posts", description = "Returns the posts with the most likes received in the last hour, day or week, most liked first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Trending posts retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid window", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @GetMapping("/api/v1/posts/trending")
+    public ResponseEntity<Page<PostDto>> getTrending(
+            @Parameter(description = "Window over which likes are counted: 1h, 24h or 7d") @RequestParam(defaultValue = "24h") String window,
+            @Parameter(description = "Pagination parameters (page, size)") Pageable pageable) {
+        Page<PostSnapshot> posts = postService.getTrending(TrendingWindow.of(window), pageable);
+        Page<PostDto> postDtos = postService.toDtos(posts);
+        return ResponseEntity.ok(postDtos);
+    }
+
+    @Operation(summary = "Get hot posts", description = "Returns the most engaging recent posts, newer posts needing fewer likes to rank high")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hot posts retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @GetMapping("/api/v1/posts/hot")
+    public ResponseEntity<Page<PostDto>> getHot(
+            @Parameter(description = "Pagination parameters (page, size)") Pageable pageable) {
+        Page<PostSnapshot> posts = postService.getHot(pageable);
+        Page<PostDto> postDtos = postService.toDtos(posts);
+        return ResponseEntity.ok(postDtos);
+    }
+
+    @Operation(summary = "Search posts", description = "Searches post captions, hashtags and author usernames, most relevant first. Every word must match; use \"quotes\" for a phrase, a trailing * for a prefix, | for either word and a leading - to exclude one. Recent changes may take a second to be found.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Posts retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @GetMapping("/api/v1/posts/search")
+    public ResponseEntity<Page<PostDto>> search(
+            @Parameter(description = "Search query", required = true) @RequestParam(name = "q") String query,
+            @Parameter(description = "Pagination parameters (page, size)") Pageable pageable) {
+        Page<PostSnapshot> posts = postService.search(query, pageable);
+        Page<PostDto> postDtos = postService.toDtos(posts);
         return ResponseEntity.ok(postDtos);
     }
 
     @Operation(summary = "Get post by ID", description = "Retrieves a specific post by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PostDto.class))),
+            @ApiResponse(responseCode = "304", description = "Post not modified since the version held by the client", content = @Content),
             @ApiResponse(responseCode = "404", description = "Post not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
     })
     @GetMapping("/api/v1/posts/{id}")
     public ResponseEntity<PostDto> getById(
-            @Parameter(description = "Post ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id) {
-        Post post = postService.getById(id);
+            @Parameter(description = "Post ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id,
+            WebRequest request) {
+        PostSnapshot post = postService.getSnapshotById(id);
+        ResourceVersion version = postService.getVersion(post);
+        if (version.isNotModified(request)) {
+            return null;
+        }
         PostDto postDto = postService.toDto(post);
-        return ResponseEntity.ok(postDto);
+        return version.ok(postDto);
     }
 
     @Operation(summary = "Get post statistics", description = "Retrieves statistics about posts for the current user")
@@ -144,8 +256,24 @@ public class PostController {
     public ResponseEntity<Page<PostDto>> getAllByUserId(
             @Parameter(description = "User ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID userId,
             @Parameter(description = "Pagination parameters (page, size, sort)") Pageable pageable) {
-        Page<Post> posts = postService.getAllByUserId(userId, pageable);
-        Page<PostDto> postDtos = posts.map(postService::toDto);
+        Page<PostSnapshot> posts = postService.getAllByUserId(userId, pageable);
+        Page<PostDto> postDtos = postService.toDtos(posts);
+        return ResponseEntity.ok(postDtos);
+    }
+
+    @Operation(summary = "Get posts by user ID by cursor", description = "Retrieves the posts of a specific user, newest first, without counting them. Sending limit selects this listing; pass the nextCursor of a page as after to get the next one. It is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Posts retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
+    })
+    @GetMapping(value = "/api/v1/users/{userId}/posts", params = "limit")
+    public ResponseEntity<CursorPage<PostDto>> getAllByUserIdByCursor(
+            @Parameter(description = "User ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID userId,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Number of posts per page, at most 100", required = true) @RequestParam int limit) {
+        CursorPage<PostSnapshot> posts = postService.getAllByUserId(userId, after, limit);
+        CursorPage<PostDto> postDtos = postService.toDtos(posts);
         return ResponseEntity.ok(postDtos);
     }
 }
\ No newline at end of file
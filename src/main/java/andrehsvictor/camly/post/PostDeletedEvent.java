@@ -0,0 +1,10 @@
+package andrehsvictor.camly.post;
+
+import java.util.UUID;
+
+/**
+ * Published when a post is deleted.
+ */
+public record PostDeletedEvent(UUID postId) {
+
+}
@@ -0,0 +1,19 @@
+package andrehsvictor.camly.post;
+
+import java.util.UUID;
+
+/**
+ * Engagement of a post as read to rank it, with its creation time in
+ * microseconds since the epoch so it can be used as a keyset position.
+ */
+public interface PostEngagement {
+
+    UUID getId();
+
+    int getLikeCount();
+
+    int getFollowerCount();
+
+    long getCreatedAtMicros();
+
+}
@@ -0,0 +1,16 @@
+package andrehsvictor.camly.post;
+
+import java.util.UUID;
+
+/**
+ * A row of the likes table as read for the likers listing, with its
+ * timestamp in microseconds since the epoch so it can be compared exactly
+ * against a cursor.
+ */
+public interface PostLike {
+
+    UUID getUserId();
+
+    long getCreatedAtMicros();
+
+}
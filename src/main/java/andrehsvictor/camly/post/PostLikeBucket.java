@@ -0,0 +1,16 @@
+package andrehsvictor.camly.post;
+
+import java.util.UUID;
+
+/**
+ * Number of likes a post received in one time bucket.
+ */
+public interface PostLikeBucket {
+
+    UUID getPostId();
+
+    long getBucket();
+
+    long getLikes();
+
+}
@@ -0,0 +1,11 @@
+package andrehsvictor.camly.post;
+
+import java.util.UUID;
+
+/**
+ * Published when a like or unlike changes the like count of a post by
+ * {@code delta}.
+ */
+public record PostLikeChangedEvent(UUID postId, int delta) {
+
+}
@@ -10,6 +10,8 @@ import andrehsvictor.camly.post.dto.CreatePostDto;
 import andrehsvictor.camly.post.dto.PostDto;
 import andrehsvictor.camly.post.dto.UpdatePostDto;
 import andrehsvictor.camly.user.UserMapper;
+import andrehsvictor.camly.user.UserService;
+import andrehsvictor.camly.user.UserSnapshot;
 
 @Mapper(componentModel = "spring", uses = { UserMapper.class })
 public abstract class PostMapper {
@@ -18,8 +20,28 @@ public abstract class PostMapper {
     @Autowired
     protected PostService postService;
 
-    @Mapping(target = "liked", expression = "java(postService.isLiked(post.getId()))")
-    public abstract PostDto postToPostDto(Post post);
+    @Lazy
+    @Autowired
+    protected UserService userService;
+
+    @Mapping(target = "liked", expression = "java(postService.isLiked(post.id()))")
+    @Mapping(target = "user", expression = "java(userService.toDto(userService.getSnapshotById(post.userId())))")
+    public abstract PostDto postSnapshotToPostDto(PostSnapshot post);
+
+    @Mapping(target = "liked", source = "liked")
+    @Mapping(target = "user", expression = "java(userService.toDto(userService.getSnapshotById(post.userId())))")
+    public abstract PostDto postSnapshotToPostDto(PostSnapshot post, boolean liked);
+
+    @Mapping(target = "id", source = "post.id")
+    @Mapping(target = "createdAt", source = "post.createdAt")
+    @Mapping(target = "updatedAt", source = "post.updatedAt")
+    @Mapping(target = "liked", source = "liked")
+    @Mapping(target = "user", expression = "java(userService.toDto(author))")
+    public abstract PostDto postSnapshotToPostDto(PostSnapshot post, UserSnapshot author, boolean liked);
+
+    public PostDto postRowToPostDto(PostRow row, boolean liked) {
+        return postSnapshotToPostDto(row.post(), row.author(), liked);
+    }
 
     public abstract Post createPostDtoToPost(CreatePostDto createPostDto);
 
@@ -1,41 +1,270 @@
 package andrehsvictor.camly.post;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PostRepository extends JpaRepository<Post, UUID> {
 
-    Page<Post> findAllByCreatedAtBetweenOrderByEngagementRateDesc(
+    // Selects each post with its author as a PostRow, in one statement
+    String POST_ROW = """
+            SELECT new andrehsvictor.camly.post.PostRow(
+                p.id, p.imageUrl, p.caption, p.likeCount, p.createdAt, p.updatedAt,
+                u.id, u.username, u.pictureUrl, u.fullName, u.bio,
+                u.followerCount, u.followingCount, u.postCount, u.createdAt, u.updatedAt)
+            FROM Post p
+            JOIN p.user u
+            """;
+
+    // Exact username filter of the listings, off when null
+    String FILTERS = "(:username IS NULL OR u.username = :username) ";
+
+    // Posts whose caption or author's username has every word of the query,
+    // each side matched through its own GIN index
+    String SEARCH = """
+            FROM posts p
+            JOIN users u ON u.id = p.user_id
+            WHERE p.id IN (
+                SELECT p2.id FROM posts p2
+                WHERE p2.caption_search @@ plainto_tsquery('english', :query)
+                UNION
+                SELECT p2.id FROM posts p2
+                JOIN users u2 ON u2.id = p2.user_id
+                WHERE u2.username_search @@ plainto_tsquery('simple', :query))
+            AND (CAST(:username AS TEXT) IS NULL OR u.username = :username)
+            """;
+
+    @Query(value = POST_ROW + """
+            WHERE p.createdAt BETWEEN :startDate AND :endDate
+            ORDER BY p.engagementRate DESC
+            """, countQuery = "SELECT COUNT(p) FROM Post p WHERE p.createdAt BETWEEN :startDate AND :endDate")
+    Page<PostRow> findAllByCreatedAtBetweenOrderByEngagementRateDesc(
             LocalDateTime startDate,
             LocalDateTime endDate,
             Pageable pageable);
 
-    @Query("""
-            SELECT p
-            FROM Post p
-            WHERE (
-                (LOWER(:query) IS NULL
-                OR LOWER(p.caption) LIKE CONCAT('%', LOWER(:query), '%')
-                OR LOWER(p.user.username) LIKE CONCAT('%', LOWER(:query), '%')))
-                AND (:username IS NULL OR p.user.username = :username)
-            """)
-    Page<Post> findAllWithFilters(
-            String query,
+    // The same ranking without a count query, for callers that read fixed pages
+    @Query(POST_ROW + """
+            WHERE p.createdAt BETWEEN :startDate AND :endDate
+            ORDER BY p.engagementRate DESC
+            """)
+    List<PostRow> findMostEngagedBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    @Query(value = POST_ROW + "WHERE " + FILTERS,
+            countQuery = "SELECT COUNT(p) FROM Post p JOIN p.user u WHERE " + FILTERS)
+    Page<PostRow> findAllWithFilters(
             String username,
             Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.user.id = :userId")
-    Page<Post> findAllByUserId(UUID userId, Pageable pageable);
+    /**
+     * Searches posts by caption and author username, most relevant first.
+     * The pageable must not be sorted.
+     */
+    @NativeQuery(value = "SELECT p.id " + SEARCH + """
+            ORDER BY ts_rank(p.caption_search, plainto_tsquery('english', :query))
+                + ts_rank(u.username_search, plainto_tsquery('simple', :query)) DESC,
+                p.created_at DESC, p.id DESC
+            """, countQuery = "SELECT COUNT(*) " + SEARCH)
+    Page<UUID> searchIds(String query, String username, Pageable pageable);
+
+    @Query(value = POST_ROW + "WHERE u.id = :userId", countQuery = "SELECT COUNT(p) FROM Post p WHERE p.user.id = :userId")
+    Page<PostRow> findAllByUserId(UUID userId, Pageable pageable);
+
+    @Query(POST_ROW + "WHERE " + FILTERS + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRow> findNewestWithFilters(String username, Limit limit);
+
+    @Query(POST_ROW + "WHERE " + FILTERS + """
+            AND (p.createdAt, p.id) < (:createdAt, :id)
+            ORDER BY p.createdAt DESC, p.id DESC
+            """)
+    List<PostRow> findNewestWithFiltersBefore(String username, LocalDateTime createdAt, UUID id, Limit limit);
+
+    @NativeQuery("SELECT p.id " + SEARCH + """
+            ORDER BY p.created_at DESC, p.id DESC
+            LIMIT :limit
+            """)
+    List<UUID> searchNewestIds(String query, String username, int limit);
+
+    @NativeQuery("SELECT p.id " + SEARCH + """
+            AND (p.created_at, p.id) < (CAST('epoch' AS TIMESTAMPTZ) + :createdAtMicros * INTERVAL '1 microsecond', :id)
+            ORDER BY p.created_at DESC, p.id DESC
+            LIMIT :limit
+            """)
+    List<UUID> searchNewestIdsBefore(String query, String username, long createdAtMicros, UUID id, int limit);
+
+    @Query(POST_ROW + "WHERE p.user.id = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRow> findNewestByUserId(UUID userId, Limit limit);
+
+    @Query(POST_ROW + """
+            WHERE p.user.id = :userId
+            AND (p.createdAt, p.id) < (:createdAt, :id)
+            ORDER BY p.createdAt DESC, p.id DESC
+            """)
+    List<PostRow> findNewestByUserIdBefore(UUID userId, LocalDateTime createdAt, UUID id, Limit limit);
+
+    @Query(POST_ROW + "WHERE p.id IN (:ids)")
+    List<PostRow> findRowsByIdIn(Collection<UUID> ids);
 
     @NativeQuery("SELECT EXISTS (SELECT 1 FROM likes l WHERE l.user_id = :userId AND l.post_id = :postId)")
     boolean existsLikeByUserIdAndPostId(UUID userId, UUID postId);
 
+    @NativeQuery("SELECT l.post_id FROM likes l WHERE l.user_id = :userId AND l.post_id IN (:postIds)")
+    List<UUID> findLikedPostIds(UUID userId, Collection<UUID> postIds);
+
+    @NativeQuery("""
+            SELECT l.user_id AS "userId", CAST(EXTRACT(EPOCH FROM l.created_at) * 1000000 AS BIGINT) AS "createdAtMicros"
+            FROM likes l
+            WHERE l.post_id = :postId
+            ORDER BY l.created_at DESC, l.user_id DESC
+            LIMIT :limit
+            """)
+    List<PostLike> findLikes(UUID postId, int limit);
+
+    @NativeQuery("""
+            SELECT l.user_id AS "userId", CAST(EXTRACT(EPOCH FROM l.created_at) * 1000000 AS BIGINT) AS "createdAtMicros"
+            FROM likes l
+            WHERE l.post_id = :postId
+            AND (l.created_at, l.user_id) < (CAST('epoch' AS TIMESTAMPTZ) + :createdAtMicros * INTERVAL '1 microsecond', :userId)
+            ORDER BY l.created_at DESC, l.user_id DESC
+            LIMIT :limit
+            """)
+    List<PostLike> findLikesBefore(UUID postId, long createdAtMicros, UUID userId, int limit);
+
+    /**
+     * Counts the likes created since the given time per post and per bucket
+     * of {@code bucketSeconds}, buckets numbered from the epoch.
+     */
+    @NativeQuery("""
+            SELECT l.post_id AS "postId",
+                CAST(FLOOR(EXTRACT(EPOCH FROM l.created_at) / :bucketSeconds) AS BIGINT) AS "bucket",
+                COUNT(*) AS "likes"
+            FROM likes l
+            WHERE l.created_at >= :since
+            GROUP BY 1, 2
+            """)
+    List<PostLikeBucket> countLikesPerBucket(LocalDateTime since, long bucketSeconds);
+
+    /**
+     * Lists the posts created after the given position, oldest first, with
+     * what is needed to score them.
+     */
+    @NativeQuery("""
+            SELECT p.id AS "id", p.like_count AS "likeCount", u.follower_count AS "followerCount",
+                CAST(EXTRACT(EPOCH FROM p.created_at) * 1000000 AS BIGINT) AS "createdAtMicros"
+            FROM posts p
+            JOIN users u ON u.id = p.user_id
+            WHERE (p.created_at, p.id) > (CAST('epoch' AS TIMESTAMPTZ) + :createdAtMicros * INTERVAL '1 microsecond', :id)
+            ORDER BY p.created_at, p.id
+            LIMIT :limit
+            """)
+    List<PostEngagement> findEngagementAfter(long createdAtMicros, UUID id, int limit);
+
+    @Query(POST_ROW + "ORDER BY p.createdAt, p.id")
+    List<PostRow> findOldestRows(Limit limit);
+
+    @Query(POST_ROW + """
+            WHERE (p.createdAt, p.id) > (:createdAt, :id)
+            ORDER BY p.createdAt, p.id
+            """)
+    List<PostRow> findOldestRowsAfter(LocalDateTime createdAt, UUID id, Limit limit);
+
+    @Modifying
+    @NativeQuery("INSERT INTO likes (user_id, post_id) VALUES (:userId, :postId) ON CONFLICT DO NOTHING")
+    int insertLike(UUID userId, UUID postId);
+
+    @Modifying
+    @NativeQuery("DELETE FROM likes WHERE user_id = :userId AND post_id = :postId")
+    int deleteLike(UUID userId, UUID postId);
+
+    @Modifying
+    @NativeQuery("""
+            UPDATE posts p
+            SET like_count = GREATEST(p.like_count + :delta, 0),
+                engagement_rate = CASE
+                    WHEN u.follower_count > 0
+                    THEN CAST(GREATEST(p.like_count + :delta, 0) AS FLOAT) / u.follower_count
+                    ELSE GREATEST(p.like_count + :delta, 0)
+                END,
+                updated_at = :updatedAt
+            FROM users u
+            WHERE u.id = p.user_id AND p.id = :postId
+            """)
+    int addToLikeCount(UUID postId, int delta, LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @NativeQuery("""
+            UPDATE posts p
+            SET like_count = GREATEST(p.like_count + d.delta, 0),
+                engagement_rate = CASE
+                    WHEN u.follower_count > 0
+                    THEN CAST(GREATEST(p.like_count + d.delta, 0) AS FLOAT) / u.follower_count
+                    ELSE GREATEST(p.like_count + d.delta, 0)
+                END,
+                updated_at = :updatedAt
+            FROM users u, unnest(CAST(:postIds AS UUID[]), CAST(:deltas AS INT[])) AS d(post_id, delta)
+            WHERE u.id = p.user_id AND p.id = d.post_id
+            """)
+    int addToLikeCounts(UUID[] postIds, int[] deltas, LocalDateTime updatedAt);
+
+    /**
+     * Recomputes the engagement rate of every post of the given authors from
+     * their current follower counts, writing only the rows that change.
+     */
+    @Transactional
+    @Modifying
+    @NativeQuery("""
+            UPDATE posts p
+            SET engagement_rate = r.rate
+            FROM (
+                SELECT p2.id, CASE
+                    WHEN u.follower_count > 0 THEN CAST(p2.like_count AS FLOAT) / u.follower_count
+                    ELSE p2.like_count
+                END AS rate
+                FROM posts p2
+                JOIN users u ON u.id = p2.user_id
+                WHERE p2.user_id = ANY(CAST(:userIds AS UUID[]))
+            ) r
+            WHERE p.id = r.id AND p.engagement_rate IS DISTINCT FROM r.rate
+            """)
+    int recomputeEngagementRates(UUID[] userIds);
+
+    /**
+     * Sets the like count of each given post that disagrees with its likes
+     * rows and returns the IDs of the posts changed.
+     */
+    @Transactional
+    @NativeQuery("""
+            UPDATE posts p
+            SET like_count = c.likes,
+                engagement_rate = CASE
+                    WHEN u.follower_count > 0 THEN CAST(c.likes AS FLOAT) / u.follower_count
+                    ELSE c.likes
+                END,
+                updated_at = :updatedAt
+            FROM users u, (
+                SELECT p2.id, COUNT(l.post_id) AS likes
+                FROM posts p2
+                LEFT JOIN likes l ON l.post_id = p2.id
+                WHERE p2.id = ANY(CAST(:postIds AS UUID[]))
+                GROUP BY p2.id
+            ) c
+            WHERE u.id = p.user_id AND c.id = p.id
+            AND p.like_count <> c.likes
+            RETURNING p.id
+            """)
+    List<UUID> reconcileLikeCounts(UUID[] postIds, LocalDateTime updatedAt);
+
     @Query("""
             SELECT
             COUNT(p.id) AS totalPosts,
@@ -0,0 +1,39 @@
+package andrehsvictor.camly.post;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import andrehsvictor.camly.user.UserSnapshot;
+
+/**
+ * A post read together with its author in one statement, so listing a
+ * page never resolves authors post by post.
+ * <p>
+ * Listing queries build rows through the flat constructor; the snapshots
+ * it splits them into are cached like any other.
+ */
+public record PostRow(PostSnapshot post, UserSnapshot author) {
+
+    public PostRow(
+            UUID id,
+            String imageUrl,
+            String caption,
+            Integer likeCount,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            UUID userId,
+            String username,
+            String pictureUrl,
+            String fullName,
+            String bio,
+            Integer followerCount,
+            Integer followingCount,
+            Integer postCount,
+            LocalDateTime userCreatedAt,
+            LocalDateTime userUpdatedAt) {
+        this(new PostSnapshot(id, imageUrl, caption, likeCount, userId, createdAt, updatedAt),
+                new UserSnapshot(userId, username, pictureUrl, fullName, bio, followerCount, followingCount,
+                        postCount, userCreatedAt, userUpdatedAt));
+    }
+
+}
@@ -0,0 +1,9 @@
+package andrehsvictor.camly.post;
+
+/**
+ * Published when a post is created or its caption is updated, with the post
+ * as saved and its author.
+ */
+public record PostSavedEvent(PostRow row) {
+
+}
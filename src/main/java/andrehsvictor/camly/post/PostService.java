@@ -1,24 +1,50 @@
 package andrehsvictor.camly.post;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import andrehsvictor.camly.cache.CacheNamespaces;
+import andrehsvictor.camly.cache.IdPage;
 import andrehsvictor.camly.exception.ForbiddenOperationException;
 import andrehsvictor.camly.exception.ResourceNotFoundException;
+import andrehsvictor.camly.hot.HotRanking;
 import andrehsvictor.camly.jwt.JwtService;
 import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.LikeDto;
 import andrehsvictor.camly.post.dto.PostDto;
 import andrehsvictor.camly.post.dto.UpdatePostDto;
+import andrehsvictor.camly.search.PostSearchIndex;
+import andrehsvictor.camly.trending.TrendingPosts;
+import andrehsvictor.camly.trending.TrendingWindow;
 import andrehsvictor.camly.user.UserService;
+import andrehsvictor.camly.user.UserSnapshot;
+import andrehsvictor.camly.user.UserSnapshotCache;
+import andrehsvictor.camly.util.CursorPage;
+import andrehsvictor.camly.util.KeysetCursor;
+import andrehsvictor.camly.util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -27,35 +53,137 @@ import lombok.RequiredArgsConstructor;
 @Transactional(readOnly = true)
 public class PostService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final PostRepository postRepository;
     private final PostMapper postMapper;
     private final JwtService jwtService;
     private final UserService userService;
+    private final CacheNamespaces cacheNamespaces;
+    private final PostSnapshotCache postSnapshotCache;
+    private final LikedPostCache likedPostCache;
+    private final UserSnapshotCache userSnapshotCache;
+    private final LikeCounter likeCounter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrendingPosts trendingPosts;
+    private final HotRanking hotRanking;
+    private final PostSearchIndex postSearchIndex;
+
+    // Listing IDs are cached through the proxy
+    @Lazy
+    @Autowired
+    private PostService self;
 
-    @Cacheable(key = "'post_' + #id")
     public Post getById(UUID id) {
         return postRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "ID", id));
     }
 
-    @Cacheable(key = "'filters_' + #query + '_' + #username + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public Page<Post> getAllWithFilters(String query, String username, Pageable pageable) {
-        return postRepository.findAllWithFilters(query, username, pageable);
+    @Cacheable(key = "'post_' + #id", sync = true)
+    public PostSnapshot getSnapshotById(UUID id) {
+        return PostSnapshot.of(getById(id));
+    }
+
+    public Page<PostSnapshot> getAllWithFilters(String query, String username, Pageable pageable) {
+        return hydrate(self.getIdsWithFilters(query, username, pageable), pageable);
+    }
+
+    public Page<PostSnapshot> getAllByEngagementRate(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        return hydrate(self.getIdsByEngagementRate(startDate, endDate, pageable), pageable);
+    }
+
+    public Page<PostSnapshot> getAllByUserId(UUID userId, Pageable pageable) {
+        return hydrate(self.getIdsByUserId(userId, pageable), pageable);
+    }
+
+    /**
+     * Lists the posts matching the filters, newest first, one keyset page
+     * at a time. No page is counted or skipped over, so every page costs
+     * the same however deep it is.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or
+     *               {@code null} for the first page
+     */
+    public CursorPage<PostSnapshot> getAllWithFilters(String query, String username, String cursor, int size) {
+        int limit = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        if (StringUtils.hasText(query)) {
+            List<UUID> ids = after == null
+                    ? postRepository.searchNewestIds(query, username, limit + 1)
+                    : postRepository.searchNewestIdsBefore(query, username, after.position(), after.id(), limit + 1);
+            boolean hasNext = ids.size() > limit;
+            return toCursorPage(postSnapshotCache.getAll(hasNext ? ids.subList(0, limit) : ids), hasNext);
+        }
+
+        List<PostRow> rows = after == null
+                ? postRepository.findNewestWithFilters(username, Limit.of(limit + 1))
+                : postRepository.findNewestWithFiltersBefore(username, toLocalDateTime(after.position()), after.id(),
+                        Limit.of(limit + 1));
+        return toCursorPage(rows, limit);
+    }
+
+    /**
+     * Lists the posts of the user, newest first, one keyset page at a time.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or
+     *               {@code null} for the first page
+     */
+    public CursorPage<PostSnapshot> getAllByUserId(UUID userId, String cursor, int size) {
+        int limit = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+        List<PostRow> rows;
+        if (cursor == null) {
+            rows = postRepository.findNewestByUserId(userId, Limit.of(limit + 1));
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = postRepository.findNewestByUserIdBefore(userId, toLocalDateTime(after.position()), after.id(),
+                    Limit.of(limit + 1));
+        }
+        return toCursorPage(rows, limit);
+    }
+
+    public Page<PostSnapshot> getTrending(TrendingWindow window, Pageable pageable) {
+        return hydrate(trendingPosts.getTop(window, pageable), pageable);
+    }
+
+    public Page<PostSnapshot> getHot(Pageable pageable) {
+        return hydrate(hotRanking.getTop(pageable), pageable);
+    }
+
+    /**
+     * Searches posts through the in-process {@link PostSearchIndex}, most
+     * relevant first, or through the database while the index is disabled
+     * or not built yet.
+     */
+    public Page<PostSnapshot> search(String query, Pageable pageable) {
+        if (!postSearchIndex.isReady()) {
+            return getAllWithFilters(query, null, pageable);
+        }
+        return hydrate(postSearchIndex.search(query, pageable), pageable);
+    }
+
+    @Cacheable(key = "'filterIds_' + @cacheNamespaces.version('post-filters') + '_' + #query + '_' + #username + '_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
+    public IdPage getIdsWithFilters(String query, String username, Pageable pageable) {
+        if (StringUtils.hasText(query)) {
+            // Search results are ranked by relevance, whatever the requested sort
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            return IdPage.of(postRepository.searchIds(query, username, unsorted), id -> id);
+        }
+        return toIdPage(postRepository.findAllWithFilters(username, pageable));
     }
 
-    @Cacheable(key = "'engagement_' + #startDate + '_' + #endDate + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public Page<Post> getAllByEngagementRate(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        return postRepository.findAllByCreatedAtBetweenOrderByEngagementRateDesc(startDate, endDate, pageable);
+    @Cacheable(key = "'engagementIds_' + @cacheNamespaces.version('post-engagement') + '_' + #startDate + '_' + #endDate + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    public IdPage getIdsByEngagementRate(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        return toIdPage(postRepository.findAllByCreatedAtBetweenOrderByEngagementRateDesc(startDate, endDate, pageable));
     }
 
-    @Cacheable(key = "'userPosts_' + #userId + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public Page<Post> getAllByUserId(UUID userId, Pageable pageable) {
-        return postRepository.findAllByUserId(userId, pageable);
+    @Cacheable(key = "'userPostIds_' + #userId + '_' + @cacheNamespaces.version('user-posts:' + #userId) + '_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
+    public IdPage getIdsByUserId(UUID userId, Pageable pageable) {
+        return toIdPage(postRepository.findAllByUserId(userId, pageable));
     }
 
     @Cacheable(key = "'stats_' + @jwtService.getCurrentUserId()")
     public PostStats getPostStatsByCurrentUser() {
-        return postRepository.getPostStatsByUserId(jwtService.getCurrentUserId());
+        return PostStats.copyOf(postRepository.getPostStatsByUserId(jwtService.getCurrentUserId()));
     }
 
     @Cacheable(key = "'liked_' + #postId + '_' + @jwtService.getCurrentUserId()")
@@ -63,85 +191,232 @@ public class PostService {
         return postRepository.existsLikeByUserIdAndPostId(jwtService.getCurrentUserId(), postId);
     }
 
+    /**
+     * Lists the users who liked the post, most recent first, reading only
+     * the likes index and the user snapshot cache.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or
+     *               {@code null} for the first page
+     */
+    public CursorPage<LikeDto> getLikes(UUID postId, String cursor, int size) {
+        self.getSnapshotById(postId);
+        int limit = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+        List<PostLike> likes;
+        if (cursor == null) {
+            likes = postRepository.findLikes(postId, limit + 1);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            likes = postRepository.findLikesBefore(postId, after.position(), after.id(), limit + 1);
+        }
+
+        boolean hasNext = likes.size() > limit;
+        if (hasNext) {
+            likes = likes.subList(0, limit);
+        }
+
+        Map<UUID, UserSnapshot> users = new HashMap<>(likes.size());
+        userSnapshotCache.getAll(likes.stream().map(PostLike::getUserId).toList())
+                .forEach(user -> users.put(user.id(), user));
+        List<LikeDto> content = likes.stream()
+                .filter(like -> users.containsKey(like.getUserId()))
+                .map(like -> LikeDto.builder()
+                        .user(userService.toDto(users.get(like.getUserId())))
+                        .likedAt(toLocalDateTime(like.getCreatedAtMicros()).toString())
+                        .build())
+                .toList();
+
+        PostLike last = likes.isEmpty() ? null : likes.get(likes.size() - 1);
+        String nextCursor = hasNext ? new KeysetCursor(last.getCreatedAtMicros(), last.getUserId()).encode() : null;
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    /**
+     * Likes the post for the current user. Liking it again changes nothing.
+     * <p>
+     * Neither the post nor its likers are loaded: the like row is inserted
+     * directly and the count only moves when the insert did, through the
+     * {@link LikeCounter}.
+     */
     @Transactional
     @Caching(evict = {
             @CacheEvict(key = "'liked_' + #postId + '_' + @jwtService.getCurrentUserId()"),
-            @CacheEvict(key = "'post_' + #postId"),
+            @CacheEvict(key = "'post_' + #postId", condition = "!@likeCounter.writeBehind"),
             @CacheEvict(key = "'stats_' + @jwtService.getCurrentUserId()")
     })
     public void like(UUID postId) {
         UUID userId = jwtService.getCurrentUserId();
-        Post post = getById(postId);
-        boolean isLiked = postRepository.existsLikeByUserIdAndPostId(userId, postId);
-
-        if (isLiked) {
-            post.getLikes().removeIf(like -> like.getId().equals(userId));
-            post.decrementLikeCount();
-        } else {
-            post.getLikes().add(userService.getById(userId));
-            post.incrementLikeCount();
+        self.getSnapshotById(postId);
+        if (postRepository.insertLike(userId, postId) > 0) {
+            onLikeChanged(postId, 1);
         }
+    }
 
-        calculateEngagementRate(post);
-        postRepository.save(post);
+    /**
+     * Removes the current user's like from the post, if there is one.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(key = "'liked_' + #postId + '_' + @jwtService.getCurrentUserId()"),
+            @CacheEvict(key = "'post_' + #postId", condition = "!@likeCounter.writeBehind"),
+            @CacheEvict(key = "'stats_' + @jwtService.getCurrentUserId()")
+    })
+    public void unlike(UUID postId) {
+        UUID userId = jwtService.getCurrentUserId();
+        self.getSnapshotById(postId);
+        if (postRepository.deleteLike(userId, postId) > 0) {
+            onLikeChanged(postId, -1);
+        }
     }
 
     @Transactional
     @Caching(evict = {
-            @CacheEvict(key = "'userPosts_*'", allEntries = true),
-            @CacheEvict(key = "'stats_' + @jwtService.getCurrentUserId()"),
-            @CacheEvict(key = "'filters_*'", allEntries = true),
-            @CacheEvict(key = "'engagement_*'", allEntries = true)
+            @CacheEvict(key = "'liked_' + #postId + '_' + @jwtService.getCurrentUserId()"),
+            @CacheEvict(key = "'post_' + #postId", condition = "!@likeCounter.writeBehind"),
+            @CacheEvict(key = "'stats_' + @jwtService.getCurrentUserId()")
     })
+    public void toggleLike(UUID postId) {
+        UUID userId = jwtService.getCurrentUserId();
+        self.getSnapshotById(postId);
+        int delta = postRepository.deleteLike(userId, postId) > 0 ? -1 : postRepository.insertLike(userId, postId);
+        if (delta != 0) {
+            onLikeChanged(postId, delta);
+        }
+    }
+
+    @Transactional
+    @CacheEvict(key = "'stats_' + @jwtService.getCurrentUserId()")
     public Post create(CreatePostDto createPostDto) {
         Post post = postMapper.createPostDtoToPost(createPostDto);
         post.setUser(userService.getById(jwtService.getCurrentUserId()));
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        bumpListings(savedPost.getUserId());
+        publishSaved(savedPost);
+        return savedPost;
     }
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(key = "'post_' + #id"),
-            @CacheEvict(key = "'userPosts_*'", allEntries = true),
-            @CacheEvict(key = "'filters_*'", allEntries = true),
-            @CacheEvict(key = "'engagement_*'", allEntries = true)
-    })
+    @CacheEvict(key = "'post_' + #id")
     public Post update(UUID id, UpdatePostDto updatePostDto) {
         Post post = getById(id);
         validateOwnership(post);
 
         postMapper.updatePostFromUpdatePostDto(updatePostDto, post);
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        // Listings hold IDs only; the caption can still move the post in or out of a search
+        cacheNamespaces.bump("post-filters");
+        publishSaved(savedPost);
+        return savedPost;
     }
 
     @Transactional
     @Caching(evict = {
             @CacheEvict(key = "'post_' + #id"),
-            @CacheEvict(key = "'userPosts_*'", allEntries = true),
-            @CacheEvict(key = "'stats_*'", allEntries = true),
-            @CacheEvict(key = "'filters_*'", allEntries = true),
-            @CacheEvict(key = "'engagement_*'", allEntries = true),
-            @CacheEvict(key = "'liked_*'", allEntries = true)
+            @CacheEvict(key = "'stats_' + @jwtService.getCurrentUserId()")
     })
     public void delete(UUID id) {
         Post post = getById(id);
         validateOwnership(post);
 
         postRepository.delete(post);
+        bumpListings(post.getUserId());
+        eventPublisher.publishEvent(new PostDeletedEvent(id));
+    }
+
+    public ResourceVersion getVersion(PostSnapshot post) {
+        UserSnapshot author = userService.getSnapshotById(post.userId());
+        return ResourceVersion.of(ResourceVersion.latest(post.updatedAt(), author.updatedAt()),
+                post, author, self.isLiked(post.id()), likeCounter.getPending(post.id()));
     }
 
     public PostDto toDto(Post post) {
-        return postMapper.postToPostDto(post);
+        return toDto(PostSnapshot.of(post));
+    }
+
+    public PostDto toDto(PostSnapshot post) {
+        return postMapper.postSnapshotToPostDto(withPendingLikes(post));
+    }
+
+    /**
+     * Maps a page of posts, resolving the liked state and the authors of the
+     * whole page at once instead of post by post.
+     */
+    public Page<PostDto> toDtos(Page<PostSnapshot> posts) {
+        return new PageImpl<>(toDtos(posts.getContent()), posts.getPageable(), posts.getTotalElements());
+    }
+
+    public CursorPage<PostDto> toDtos(CursorPage<PostSnapshot> posts) {
+        return new CursorPage<>(toDtos(posts.content()), posts.nextCursor());
     }
 
-    private void calculateEngagementRate(Post post) {
-        int followerCount = post.getUser().getFollowerCount();
-        float engagementRate = followerCount > 0
-                ? (float) post.getLikeCount() / followerCount
-                : post.getLikeCount();
+    private List<PostDto> toDtos(List<PostSnapshot> posts) {
+        Set<UUID> liked = likedPostCache.getLiked(jwtService.getCurrentUserId(),
+                posts.stream().map(PostSnapshot::id).toList());
+        Map<UUID, UserSnapshot> authors = new HashMap<>();
+        userSnapshotCache.getAll(posts.stream().map(PostSnapshot::userId).distinct().toList())
+                .forEach(author -> authors.put(author.id(), author));
+        return posts.stream()
+                .map(post -> {
+                    UserSnapshot author = authors.get(post.userId());
+                    return author != null
+                            ? postMapper.postRowToPostDto(new PostRow(withPendingLikes(post), author), liked.contains(post.id()))
+                            : postMapper.postSnapshotToPostDto(withPendingLikes(post), liked.contains(post.id()));
+                })
+                .toList();
+    }
+
+    private PostSnapshot withPendingLikes(PostSnapshot post) {
+        return post.plusLikes(likeCounter.getPending(post.id()));
+    }
+
+    private void onLikeChanged(UUID postId, int delta) {
+        likeCounter.add(postId, delta);
+        eventPublisher.publishEvent(new PostLikeChangedEvent(postId, delta));
+    }
+
+    private void publishSaved(Post post) {
+        eventPublisher.publishEvent(new PostSavedEvent(new PostRow(PostSnapshot.of(post), UserSnapshot.of(post.getUser()))));
+    }
+
+    private IdPage toIdPage(Page<PostRow> rows) {
+        postSnapshotCache.putAllRows(rows.getContent());
+        return IdPage.of(rows, row -> row.post().id());
+    }
+
+    private CursorPage<PostSnapshot> toCursorPage(List<PostRow> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) {
+            rows = rows.subList(0, limit);
+        }
+        postSnapshotCache.putAllRows(rows);
+        return toCursorPage(rows.stream().map(PostRow::post).toList(), hasNext);
+    }
+
+    private CursorPage<PostSnapshot> toCursorPage(List<PostSnapshot> posts, boolean hasNext) {
+        PostSnapshot last = posts.isEmpty() ? null : posts.get(posts.size() - 1);
+        String nextCursor = hasNext && last != null
+                ? new KeysetCursor(toEpochMicros(last.createdAt()), last.id()).encode()
+                : null;
+        return new CursorPage<>(posts, nextCursor);
+    }
+
+    private Page<PostSnapshot> hydrate(IdPage ids, Pageable pageable) {
+        return ids.toPage(postSnapshotCache.getAll(ids.ids()), pageable);
+    }
+
+    private void bumpListings(UUID userId) {
+        cacheNamespaces.bump("post-filters");
+        cacheNamespaces.bump("post-engagement");
+        cacheNamespaces.bump("user-posts:" + userId);
+    }
+
+    // Entity timestamps are in the JVM's zone, which Hibernate converts to UTC
+    private static LocalDateTime toLocalDateTime(long epochMicros) {
+        return LocalDateTime.ofInstant(Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS), ZoneId.systemDefault());
+    }
 
-        post.setEngagementRate(engagementRate);
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, dateTime.atZone(ZoneId.systemDefault()).toInstant());
     }
 
     private void validateOwnership(Post post) {
@@ -0,0 +1,46 @@
+package andrehsvictor.camly.post;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat, immutable cache representation of a {@link Post}.
+ * <p>
+ * Holds only what {@link andrehsvictor.camly.post.dto.PostDto} needs. The
+ * author is referenced by id and hydrated through the users cache, so a
+ * cached post never carries the liker or follower graphs of the entity.
+ */
+public record PostSnapshot(
+        UUID id,
+        String imageUrl,
+        String caption,
+        Integer likeCount,
+        UUID userId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) implements Serializable {
+
+    public static PostSnapshot of(Post post) {
+        return new PostSnapshot(
+                post.getId(),
+                post.getImageUrl(),
+                post.getCaption(),
+                post.getLikeCount(),
+                post.getUserId(),
+                post.getCreatedAt(),
+                post.getUpdatedAt());
+    }
+
+    /**
+     * Returns this snapshot with likes not yet written to the post added to
+     * its count.
+     */
+    public PostSnapshot plusLikes(long delta) {
+        if (delta == 0) {
+            return this;
+        }
+        int count = (int) Math.max(likeCount + delta, 0);
+        return new PostSnapshot(id, imageUrl, caption, count, userId, createdAt, updatedAt);
+    }
+
+}
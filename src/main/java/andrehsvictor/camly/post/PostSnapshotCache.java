@@ -0,0 +1,89 @@
+package andrehsvictor.camly.post;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.cache.TieredCache;
+import andrehsvictor.camly.cache.TieredCacheManager;
+import andrehsvictor.camly.user.UserSnapshotCache;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Batched access to the post snapshots cached by
+ * {@link PostService#getSnapshotById(UUID)}, used to hydrate listings that
+ * are cached as ID pages. Posts are read with their authors, whose
+ * snapshots are cached alongside.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostSnapshotCache {
+
+    private final TieredCacheManager cacheManager;
+    private final PostRepository postRepository;
+    private final UserSnapshotCache userSnapshotCache;
+
+    /**
+     * Returns the snapshots in the order of the IDs, reading the cached ones
+     * in one round trip and the rest in one query. Posts deleted since the
+     * IDs were cached are left out.
+     */
+    public List<PostSnapshot> getAll(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Object, Object> cached = cache().getAll(ids.stream().map(PostSnapshotCache::key).toList());
+        Map<UUID, PostSnapshot> snapshots = new HashMap<>(ids.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            if (cached.get(key(id)) instanceof PostSnapshot snapshot) {
+                snapshots.put(id, snapshot);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<PostRow> loaded = postRepository.findRowsByIdIn(missing);
+            putAllRows(loaded);
+            loaded.forEach(row -> snapshots.put(row.post().id(), row.post()));
+        }
+
+        return ids.stream()
+                .map(snapshots::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void putAll(Collection<PostSnapshot> snapshots) {
+        Map<Object, Object> entries = new LinkedHashMap<>(snapshots.size());
+        snapshots.forEach(snapshot -> entries.put(key(snapshot.id()), snapshot));
+        cache().putAll(entries);
+    }
+
+    /**
+     * Caches the posts of the rows and their authors, so hydrating them
+     * later reads neither from the database.
+     */
+    public void putAllRows(Collection<PostRow> rows) {
+        putAll(rows.stream().map(PostRow::post).toList());
+        userSnapshotCache.putAll(rows.stream().map(PostRow::author).distinct().toList());
+    }
+
+    private TieredCache cache() {
+        return (TieredCache) cacheManager.getCache("posts");
+    }
+
+    private static String key(UUID id) {
+        return "post_" + id;
+    }
+
+}
@@ -1,7 +1,10 @@
 package andrehsvictor.camly.post;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import lombok.Value;
+
 public interface PostStats {
     Long getTotalPosts();
 
@@ -16,4 +19,30 @@ public interface PostStats {
     Double getEngagementRate();
 
     LocalDateTime getLastPostDate();
-}
\ No newline at end of file
+
+    static PostStats copyOf(PostStats stats) {
+        return new Snapshot(
+                stats.getTotalPosts(),
+                stats.getTotalLikes(),
+                stats.getAverageLikes(),
+                stats.getMaxLikes(),
+                stats.getMinLikes(),
+                stats.getEngagementRate(),
+                stats.getLastPostDate());
+    }
+
+    @Value
+    class Snapshot implements PostStats, Serializable {
+
+        private static final long serialVersionUID = 4127631083937352467L;
+
+        Long totalPosts;
+        Long totalLikes;
+        Double averageLikes;
+        Long maxLikes;
+        Long minLikes;
+        Double engagementRate;
+        LocalDateTime lastPostDate;
+
+    }
+}
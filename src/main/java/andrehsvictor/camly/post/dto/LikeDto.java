@@ -0,0 +1,14 @@
+package andrehsvictor.camly.post.dto;
+
+import andrehsvictor.camly.user.dto.UserDto;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LikeDto {
+
+    private UserDto user;
+    private String likedAt;
+
+}
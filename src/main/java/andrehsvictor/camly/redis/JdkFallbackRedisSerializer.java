@@ -0,0 +1,43 @@
+package andrehsvictor.camly.redis;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes with the configured serializer but still reads values that were
+ * written with Java serialization, so switching codecs does not require
+ * flushing Redis. Java serialization streams always start with
+ * {@code 0xACED}, which is neither valid JSON nor a Smile header.
+ */
+@RequiredArgsConstructor
+public class JdkFallbackRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte STREAM_MAGIC_HIGH = (byte) 0xAC;
+    private static final byte STREAM_MAGIC_LOW = (byte) 0xED;
+
+    private final RedisSerializer<Object> delegate;
+    private final JdkSerializationRedisSerializer fallback = new JdkSerializationRedisSerializer();
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return delegate.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (isJdkSerialized(bytes)) {
+            return fallback.deserialize(bytes);
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    private boolean isJdkSerialized(byte[] bytes) {
+        return bytes != null && bytes.length > 1
+                && bytes[0] == STREAM_MAGIC_HIGH
+                && bytes[1] == STREAM_MAGIC_LOW;
+    }
+
+}
@@ -0,0 +1,141 @@
+package andrehsvictor.camly.redis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Jackson support for cached {@link PageImpl} values.
+ * <p>
+ * {@code PageImpl} has no creator Jackson can use and its bean view exposes
+ * a dozen derived properties, so pages are written as their content, the
+ * page request and the total only. Sort orders keep property and direction;
+ * null handling and case-insensitivity are not preserved.
+ */
+public class PageJacksonModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public PageJacksonModule() {
+        super("PageJacksonModule");
+        addSerializer(PageImpl.class, new PageSerializer());
+        addDeserializer(PageImpl.class, new PageDeserializer());
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class PageSerializer extends StdSerializer<PageImpl> {
+
+        private static final long serialVersionUID = 1L;
+
+        PageSerializer() {
+            super(PageImpl.class);
+        }
+
+        @Override
+        public void serialize(PageImpl page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeFields(page, gen, provider);
+            gen.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(PageImpl page, JsonGenerator gen, SerializerProvider provider,
+                TypeSerializer typeSerializer) throws IOException {
+            WritableTypeId typeId = typeSerializer.writeTypePrefix(gen,
+                    typeSerializer.typeId(page, JsonToken.START_OBJECT));
+            writeFields(page, gen, provider);
+            typeSerializer.writeTypeSuffix(gen, typeId);
+        }
+
+        private void writeFields(Page<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            // getContent() is an unmodifiable view whose class cannot be recreated from a type hint
+            provider.defaultSerializeField("content", new ArrayList<>(page.getContent()), gen);
+            gen.writeNumberField("totalElements", page.getTotalElements());
+
+            Pageable pageable = page.getPageable();
+            if (pageable.isPaged()) {
+                gen.writeNumberField("number", pageable.getPageNumber());
+                gen.writeNumberField("size", pageable.getPageSize());
+                gen.writeArrayFieldStart("sort");
+                for (Sort.Order order : pageable.getSort()) {
+                    gen.writeString(order.getProperty() + "," + order.getDirection().name());
+                }
+                gen.writeEndArray();
+            }
+        }
+
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class PageDeserializer extends StdDeserializer<PageImpl> {
+
+        private static final long serialVersionUID = 1L;
+
+        PageDeserializer() {
+            super(PageImpl.class);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public PageImpl deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            List<Object> content = List.of();
+            List<Sort.Order> orders = new ArrayList<>();
+            long totalElements = 0;
+            int number = -1;
+            int size = 0;
+
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = parser.nextToken();
+            }
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "content" -> content = context.readValue(parser, List.class);
+                    case "totalElements" -> totalElements = parser.getLongValue();
+                    case "number" -> number = parser.getIntValue();
+                    case "size" -> size = parser.getIntValue();
+                    case "sort" -> {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            String[] parts = parser.getText().split(",", 2);
+                            orders.add(new Sort.Order(Sort.Direction.valueOf(parts[1]), parts[0]));
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (number < 0) {
+                return new PageImpl<>(content);
+            }
+            return new PageImpl<>(content, PageRequest.of(number, size, Sort.by(orders)), totalElements);
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser parser, DeserializationContext context,
+                TypeDeserializer typeDeserializer) throws IOException {
+            return typeDeserializer.deserializeTypedFromObject(parser, context);
+        }
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package andrehsvictor.camly.redis;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.redis")
+public class RedisSerializationProperties {
+
+    private Serializer serializer = Serializer.SMILE;
+
+    public enum Serializer {
+        /** Jackson JSON with class hints; readable with redis-cli. */
+        JSON,
+        /** Jackson Smile, the binary encoding of the JSON data model. */
+        SMILE,
+        /** Java serialization, kept for migrating existing entries. */
+        JDK
+    }
+
+}
@@ -0,0 +1,36 @@
+package andrehsvictor.camly.redis;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import andrehsvictor.camly.redis.RedisSerializationProperties.Serializer;
+
+public final class RedisValueSerializers {
+
+    private RedisValueSerializers() {
+    }
+
+    public static RedisSerializer<Object> create(Serializer serializer) {
+        return switch (serializer) {
+            case JSON -> new JdkFallbackRedisSerializer(jackson(Jackson2ObjectMapperBuilder.json()));
+            case SMILE -> new JdkFallbackRedisSerializer(jackson(Jackson2ObjectMapperBuilder.smile()));
+            case JDK -> new JdkSerializationRedisSerializer();
+        };
+    }
+
+    private static RedisSerializer<Object> jackson(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper objectMapper = builder
+                .modulesToInstall(new PageJacksonModule())
+                .build();
+
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(objectMapper)
+                .defaultTyping(true)
+                .build();
+    }
+
+}
@@ -0,0 +1,45 @@
+package andrehsvictor.camly.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reports the state of the post search index of this node and rebuilds it
+ * from the posts table on request.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "postsearch")
+public class PostSearchEndpoint {
+
+    private final PostSearchIndex index;
+
+    @ReadOperation
+    public Status status() {
+        return new Status(index.isEnabled(), index.isReady(), index.size(), index.isRebuilding(), index.isStale());
+    }
+
+    /**
+     * Starts a rebuild in the background.
+     *
+     * @return whether one was started; {@code false} if the index is
+     *         disabled or a rebuild is already running
+     */
+    @WriteOperation
+    public boolean reindex() {
+        if (!index.isEnabled() || index.isRebuilding()) {
+            return false;
+        }
+        Thread.ofVirtual().name("post-search-rebuild").start(index::rebuild);
+        return true;
+    }
+
+    public record Status(boolean enabled, boolean ready, int documents, boolean rebuilding, boolean stale) {
+
+    }
+
+}
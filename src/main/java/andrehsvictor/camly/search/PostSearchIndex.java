@@ -0,0 +1,463 @@
+package andrehsvictor.camly.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import andrehsvictor.camly.cache.IdPage;
+import andrehsvictor.camly.post.PostDeletedEvent;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.post.PostRow;
+import andrehsvictor.camly.post.PostSavedEvent;
+import andrehsvictor.camly.post.PostSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inverted index of post captions, hashtags and author usernames, kept in
+ * this JVM so that richer searches never reach Postgres. It only returns
+ * post IDs; the posts are hydrated through the caches like any listing.
+ * <p>
+ * Each post created, updated or deleted is applied once its transaction
+ * commits and becomes searchable within {@code refresh-interval}. Every
+ * node keeps its own index, so the IDs of changed posts are also published
+ * on a Redis channel and the other nodes read those posts again from the
+ * table. Usernames are indexed as they were when the post was, so a
+ * renamed author is only found under the new name after a rebuild.
+ * <p>
+ * Changes published while this node was not subscribed are lost, and a
+ * persistent index misses every change made while the node was down, so
+ * the index is rebuilt from the posts table on startup and whenever the
+ * subscription is (re)established, within {@code stale-check-interval}, as
+ * well as on demand through the {@code postsearch} endpoint. Each rebuild
+ * reads the whole posts table, on every node.
+ * <p>
+ * Until the index has been fully built once it is not {@link #isReady()
+ * ready}, and searches go to the database instead. A persistent index
+ * remembers that it was built, so a restarted node serves searches from it
+ * while its first rebuild catches up, rather than from the database.
+ * <p>
+ * Queries use the simple query syntax: words must all match, {@code "a b"}
+ * matches a phrase, {@code sun*} a prefix, {@code a | b} either word and
+ * {@code -a} excludes it. A word matching a hashtag or the author's
+ * username scores higher than one matching the caption only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostSearchIndex implements MessageListener, SubscriptionListener {
+
+    static final String ID = "id";
+    static final String CAPTION = "caption";
+    static final String HASHTAGS = "hashtags";
+    static final String USERNAME = "username";
+    static final String CREATED_AT = "createdAt";
+    static final String GENERATION = "generation";
+    // Commit data of an index rebuilt in full at least once
+    static final String BUILT = "built";
+
+    private static final String SEPARATOR = "\n";
+
+    private static final Pattern HASHTAG = Pattern.compile("#(\\w+)", Pattern.UNICODE_CHARACTER_CLASS);
+    // Indexed text loses its '#' to the analyzer, but prefix terms are not analyzed
+    private static final Pattern HASHTAG_MARK = Pattern.compile("#(?=\\w)", Pattern.UNICODE_CHARACTER_CLASS);
+    // Ties broken newest first
+    private static final Sort RELEVANCE = new Sort(SortField.FIELD_SCORE,
+            new SortField(CREATED_AT, SortField.Type.LONG, true));
+
+    private final PostSearchProperties properties;
+    private final PostRepository postRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Whether changes may have been missed since the last rebuild started
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    // Posts changed while a rebuild runs, which may overwrite them with the rows it read earlier
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean built;
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    // Each document records the generation it was written in; a rebuild
+    // drops the documents of earlier generations it did not write again
+    private volatile long generation;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        directory = StringUtils.hasText(properties.getDirectory())
+                ? FSDirectory.open(Path.of(properties.getDirectory()))
+                : new ByteBuffersDirectory();
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(writer, null);
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                built |= entry.getKey().equals(BUILT);
+            }
+        }
+        listenerContainer.addMessageListener(this, ChannelTopic.of(properties.getChannel()));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (writer != null) {
+            IOUtils.close(searcherManager, writer, directory, analyzer);
+        }
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Returns whether the index is enabled and holds every post, give or
+     * take the changes a running rebuild catches up on.
+     */
+    public boolean isReady() {
+        return writer != null && built;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * Returns whether changes may have been missed since the last rebuild
+     * started, in which case the index is rebuilt within
+     * {@code stale-check-interval}.
+     */
+    public boolean isStale() {
+        return stale.get();
+    }
+
+    /**
+     * Returns the number of posts indexed, including changes not yet
+     * searchable.
+     */
+    public int size() {
+        return writer != null ? writer.getDocStats().numDocs : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onPostSaved(PostSavedEvent event) {
+        if (writer == null) {
+            return;
+        }
+        UUID postId = event.row().post().id();
+        markChanged(postId);
+        try {
+            writer.updateDocument(new Term(ID, postId.toString()), toDocument(event.row(), generation));
+        } catch (IOException e) {
+            log.warn("Failed to index post {}: {}", postId, e.getMessage());
+        }
+        publish(postId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onPostDeleted(PostDeletedEvent event) {
+        if (writer == null) {
+            return;
+        }
+        markChanged(event.postId());
+        try {
+            writer.deleteDocuments(new Term(ID, event.postId().toString()));
+        } catch (IOException e) {
+            log.warn("Failed to remove post {} from the search index: {}", event.postId(), e.getMessage());
+        }
+        publish(event.postId());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        UUID postId;
+        try {
+            postId = UUID.fromString(parts[1]);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring a malformed post search message: {}", e.getMessage());
+            return;
+        }
+        markChanged(postId);
+        try {
+            reload(List.of(postId));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to index post {} changed on another node: {}", postId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        stale.set(true);
+    }
+
+    private void publish(UUID postId) {
+        try {
+            stringRedisTemplate.convertAndSend(properties.getChannel(), String.join(SEPARATOR, nodeId, postId.toString()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish a change of post {} to the other search indexes: {}", postId, e.getMessage());
+        }
+    }
+
+    private void markChanged(UUID postId) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(postId);
+        }
+    }
+
+    // Indexes the posts as they are in the table now, dropping those no longer there
+    private void reload(Collection<UUID> postIds) throws IOException {
+        Map<UUID, PostRow> rows = new HashMap<>();
+        for (PostRow row : postRepository.findRowsByIdIn(postIds)) {
+            rows.put(row.post().id(), row);
+        }
+        for (UUID postId : postIds) {
+            Term term = new Term(ID, postId.toString());
+            PostRow row = rows.get(postId);
+            if (row != null) {
+                writer.updateDocument(term, toDocument(row, generation));
+            } else {
+                writer.deleteDocuments(term);
+            }
+        }
+    }
+
+    /**
+     * Returns one page of the IDs of the posts matching the query, most
+     * relevant first, and how many posts match in all.
+     */
+    public IdPage search(String text, Pageable pageable) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(
+                CAPTION, 1f,
+                HASHTAGS, properties.getHashtagBoost(),
+                USERNAME, properties.getAuthorBoost()));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = parser.parse(HASHTAG_MARK.matcher(text).replaceAll(""));
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize());
+                TopDocs top = searcher.search(query, offset + pageable.getPageSize(), RELEVANCE);
+                StoredFields storedFields = searcher.storedFields();
+                List<UUID> ids = new ArrayList<>(pageable.getPageSize());
+                for (int i = offset; i < top.scoreDocs.length; i++) {
+                    ids.add(UUID.fromString(storedFields.document(top.scoreDocs[i].doc).get(ID)));
+                }
+                return new IdPage(ids, searcher.count(query));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${camly.post-search.refresh-interval:1s}")
+    public void refresh() {
+        if (searcherManager == null) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh the post search index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${camly.post-search.commit-interval:1m}", fixedDelayString = "${camly.post-search.commit-interval:1m}")
+    public void commit() {
+        if (writer == null || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            log.warn("Failed to commit the post search index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${camly.post-search.stale-check-interval:10s}")
+    public void rebuildIfStale() {
+        if (writer != null && stale.get() && !rebuilding.get()) {
+            Thread.ofVirtual().name("post-search-rebuild").start(this::rebuild);
+        }
+    }
+
+    /**
+     * Indexes every post again and then drops the posts no longer in the
+     * table. The table is read in keyset batches on the calling thread
+     * while {@code rebuild-threads} threads turn them into documents, a
+     * few batches ahead at most. Searches keep being served throughout.
+     * <p>
+     * Posts changed while this runs, here or on another node, are read
+     * again once the batches are indexed, so that a batch read before the
+     * change neither brings back a deleted post nor an older caption.
+     *
+     * @return whether the index was rebuilt; {@code false} if it is
+     *         disabled, a rebuild was already running or this one failed
+     */
+    public boolean rebuild() {
+        if (writer == null || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        int threads = properties.getRebuildThreads() > 0
+                ? properties.getRebuildThreads()
+                : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("post-search-rebuild-", 0).factory());
+        Semaphore readAhead = new Semaphore(threads * 2);
+        try {
+            stale.set(false);
+            long start = System.nanoTime();
+            long rebuildGeneration = Math.max(generation + 1, System.currentTimeMillis());
+            generation = rebuildGeneration;
+
+            int batchSize = properties.getRebuildBatchSize();
+            List<Future<?>> batches = new ArrayList<>();
+            int indexed = 0;
+            List<PostRow> rows = postRepository.findOldestRows(Limit.of(batchSize));
+            while (true) {
+                readAhead.acquire();
+                List<PostRow> batch = rows;
+                batches.add(executor.submit(() -> {
+                    try {
+                        for (PostRow row : batch) {
+                            writer.updateDocument(new Term(ID, row.post().id().toString()),
+                                    toDocument(row, rebuildGeneration));
+                        }
+                        return null;
+                    } finally {
+                        readAhead.release();
+                    }
+                }));
+                indexed += rows.size();
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                PostSnapshot last = rows.get(rows.size() - 1).post();
+                rows = postRepository.findOldestRowsAfter(last.createdAt(), last.id(), Limit.of(batchSize));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+            // A change landing while these are read is marked again and read once more
+            while (!changedDuringRebuild.isEmpty()) {
+                List<UUID> changed = List.copyOf(changedDuringRebuild);
+                changedDuringRebuild.removeAll(changed);
+                reload(changed);
+            }
+
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            writer.setLiveCommitData(Map.of(BUILT, "true").entrySet());
+            writer.commit();
+            built = true;
+            searcherManager.maybeRefresh();
+            log.info("Rebuilt the post search index with {} posts in {} ms", indexed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stale.set(true);
+            return false;
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            log.warn("Failed to rebuild the post search index, keeping the current one: {}", e.getMessage());
+            stale.set(true);
+            return false;
+        } finally {
+            executor.shutdownNow();
+            rebuilding.set(false);
+            changedDuringRebuild.clear();
+        }
+    }
+
+    private static Document toDocument(PostRow row, long generation) {
+        PostSnapshot post = row.post();
+        Document document = new Document();
+        document.add(new StringField(ID, post.id().toString(), Field.Store.YES));
+        if (post.caption() != null) {
+            document.add(new TextField(CAPTION, post.caption(), Field.Store.NO));
+            document.add(new TextField(HASHTAGS, hashtags(post.caption()), Field.Store.NO));
+        }
+        document.add(new TextField(USERNAME, row.author().username(), Field.Store.NO));
+        document.add(new NumericDocValuesField(CREATED_AT, post.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        document.add(new LongPoint(GENERATION, generation));
+        return document;
+    }
+
+    private static String hashtags(String caption) {
+        StringBuilder hashtags = new StringBuilder();
+        Matcher matcher = HASHTAG.matcher(caption);
+        while (matcher.find()) {
+            hashtags.append(matcher.group(1)).append(' ');
+        }
+        return hashtags.toString();
+    }
+
+}
@@ -0,0 +1,34 @@
+package andrehsvictor.camly.search;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.post-search")
+public class PostSearchProperties {
+
+    private boolean enabled = true;
+    // Directory of the index; blank keeps it in memory, so searches go to the
+    // database after every start until the posts table has been read in full
+    private String directory = "";
+    private int rebuildBatchSize = 1000;
+    // Threads indexing a rebuild; 0 uses one per available processor
+    private int rebuildThreads = 0;
+    private float authorBoost = 2;
+    private float hashtagBoost = 1.5f;
+    // How long an indexed change may take to show up in searches
+    private Duration refreshInterval = Duration.ofSeconds(1);
+    private Duration commitInterval = Duration.ofMinutes(1);
+    // How often to check whether changes may have been missed and rebuild if so
+    private Duration staleCheckInterval = Duration.ofSeconds(10);
+    // Channel the nodes publish the IDs of the posts they changed on
+    private String channel = "camly:post-search:changes";
+
+}
@@ -0,0 +1,48 @@
+package andrehsvictor.camly.trending;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Granularity of the like counters kept per time bucket.
+ */
+enum BucketSize {
+
+    FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+    HOUR("1h", Duration.ofHours(1));
+
+    private final String label;
+    private final Duration duration;
+
+    BucketSize(String label, Duration duration) {
+        this.label = label;
+        this.duration = duration;
+    }
+
+    String label() {
+        return label;
+    }
+
+    Duration duration() {
+        return duration;
+    }
+
+    long index(Instant instant) {
+        return instant.getEpochSecond() / duration.getSeconds();
+    }
+
+    /**
+     * How long a bucket must be kept: the longest window built from it,
+     * plus the bucket still being filled.
+     */
+    Duration retention() {
+        int buckets = Arrays.stream(TrendingWindow.values())
+                .filter(window -> window.bucketSize() == this)
+                .mapToInt(TrendingWindow::bucketCount)
+                .max()
+                .orElse(0);
+        return duration.multipliedBy(buckets + 1L);
+    }
+
+}
@@ -0,0 +1,171 @@
+package andrehsvictor.camly.trending;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import andrehsvictor.camly.cache.IdPage;
+import andrehsvictor.camly.post.PostLikeBucket;
+import andrehsvictor.camly.post.PostLikeChangedEvent;
+import andrehsvictor.camly.post.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trending posts ranked by the likes they received in a recent window.
+ * <p>
+ * Every like adds to the score of its post in a Redis sorted set for the
+ * current five-minute bucket and another for the current hour. A window is
+ * the {@code ZUNIONSTORE} of its most recent buckets, kept for a few
+ * seconds so concurrent readers share it. Reading a page costs the same
+ * however many posts exist, and buckets expire once no window needs them.
+ * <p>
+ * Buckets start empty on a new Redis. The first node to start backfills
+ * them from the creation times of the likes of the longest window.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingPosts {
+
+    private final TrendingProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PostRepository postRepository;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onPostLikeChanged(PostLikeChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (BucketSize size : BucketSize.values()) {
+                    increment(connection, size, size.index(now), event.postId(), event.delta());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to record a like of post {} for trending: {}", event.postId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns one page of the IDs of the posts with the most likes in the
+     * window, most liked first.
+     */
+    public IdPage getTop(TrendingWindow window, Pageable pageable) {
+        String key = union(window, Instant.now());
+        ZSetOperations<String, String> zSet = stringRedisTemplate.opsForZSet();
+        Long total = zSet.count(key, 1, Double.POSITIVE_INFINITY);
+        Set<String> members = zSet.reverseRangeByScore(key, 1, Double.POSITIVE_INFINITY,
+                pageable.getOffset(), pageable.getPageSize());
+
+        List<UUID> ids = new ArrayList<>();
+        if (members != null) {
+            members.forEach(member -> ids.add(UUID.fromString(member)));
+        }
+        return new IdPage(ids, total != null ? total : 0);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    void backfillOnStartup() {
+        if (!properties.isEnabled() || !properties.isBackfill()) {
+            return;
+        }
+        try {
+            Boolean first = stringRedisTemplate.opsForValue().setIfAbsent(properties.getKeyPrefix() + "backfilled",
+                    Instant.now().toString());
+            if (Boolean.TRUE.equals(first)) {
+                Thread.ofVirtual().name("trending-backfill").start(this::backfill);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to start the trending backfill: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the likes of the longest window to the buckets. Likes recorded
+     * by a running node while this runs may be counted twice.
+     */
+    public void backfill() {
+        Instant now = Instant.now();
+        Duration longest = BucketSize.HOUR.retention();
+        long bucketSeconds = BucketSize.FIVE_MINUTES.duration().getSeconds();
+        List<PostLikeBucket> buckets = postRepository.countLikesPerBucket(LocalDateTime.now().minus(longest),
+                bucketSeconds);
+
+        long oldestFiveMinuteBucket = BucketSize.FIVE_MINUTES.index(now.minus(BucketSize.FIVE_MINUTES.retention()));
+        long fiveMinuteBucketsPerHour = BucketSize.HOUR.duration().getSeconds() / bucketSeconds;
+        Map<Bucket, Map<UUID, Long>> scores = new HashMap<>();
+        for (PostLikeBucket bucket : buckets) {
+            if (bucket.getBucket() >= oldestFiveMinuteBucket) {
+                addScore(scores, new Bucket(BucketSize.FIVE_MINUTES, bucket.getBucket()), bucket);
+            }
+            addScore(scores, new Bucket(BucketSize.HOUR, bucket.getBucket() / fiveMinuteBucketsPerHour), bucket);
+        }
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            scores.forEach((bucket, posts) -> posts.forEach((postId, likes) -> increment(connection, bucket.size(),
+                    bucket.index(), postId, likes)));
+            return null;
+        });
+        log.info("Backfilled {} trending buckets from {} post buckets", scores.size(), buckets.size());
+    }
+
+    private String union(TrendingWindow window, Instant now) {
+        BucketSize size = window.bucketSize();
+        long current = size.index(now);
+        String destination = properties.getKeyPrefix() + "window:" + window.value() + ":" + current;
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(destination))) {
+            return destination;
+        }
+
+        List<String> keys = new ArrayList<>(window.bucketCount());
+        for (int i = 0; i < window.bucketCount(); i++) {
+            keys.add(key(size, current - i));
+        }
+        stringRedisTemplate.opsForZSet().unionAndStore(keys.get(0), keys.subList(1, keys.size()), destination);
+        stringRedisTemplate.expire(destination, properties.getUnionTtl());
+        return destination;
+    }
+
+    private void increment(RedisConnection connection, BucketSize size, long bucket, UUID postId, long delta) {
+        byte[] key = bytes(key(size, bucket));
+        connection.zSetCommands().zIncrBy(key, delta, bytes(postId.toString()));
+        connection.keyCommands().expire(key, size.retention().getSeconds());
+    }
+
+    private void addScore(Map<Bucket, Map<UUID, Long>> scores, Bucket key, PostLikeBucket bucket) {
+        scores.computeIfAbsent(key, k -> new HashMap<>()).merge(bucket.getPostId(), bucket.getLikes(), Long::sum);
+    }
+
+    private String key(BucketSize size, long bucket) {
+        return properties.getKeyPrefix() + size.label() + ":" + bucket;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Bucket(BucketSize size, long index) {
+    }
+
+}
@@ -0,0 +1,23 @@
+package andrehsvictor.camly.trending;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.trending")
+public class TrendingProperties {
+
+    private boolean enabled = true;
+    // The hash tag keeps every bucket of a union in one cluster slot
+    private String keyPrefix = "camly:{trending}:";
+    private Duration unionTtl = Duration.ofSeconds(10);
+    private boolean backfill = true;
+
+}
@@ -0,0 +1,47 @@
+package andrehsvictor.camly.trending;
+
+import java.util.Arrays;
+
+import andrehsvictor.camly.exception.BadRequestException;
+
+/**
+ * Period over which likes are counted to rank trending posts, as the union
+ * of its most recent buckets.
+ */
+public enum TrendingWindow {
+
+    HOUR("1h", BucketSize.FIVE_MINUTES, 12),
+    DAY("24h", BucketSize.HOUR, 24),
+    WEEK("7d", BucketSize.HOUR, 168);
+
+    private final String value;
+    private final BucketSize bucketSize;
+    private final int bucketCount;
+
+    TrendingWindow(String value, BucketSize bucketSize, int bucketCount) {
+        this.value = value;
+        this.bucketSize = bucketSize;
+        this.bucketCount = bucketCount;
+    }
+
+    public static TrendingWindow of(String value) {
+        return Arrays.stream(values())
+                .filter(window -> window.value.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Invalid trending window: " + value
+                        + ". Use one of 1h, 24h or 7d"));
+    }
+
+    public String value() {
+        return value;
+    }
+
+    BucketSize bucketSize() {
+        return bucketSize;
+    }
+
+    int bucketCount() {
+        return bucketCount;
+    }
+
+}
@@ -0,0 +1,11 @@
+package andrehsvictor.camly.user;
+
+import java.util.UUID;
+
+/**
+ * Published when a follow or unfollow changes the follower count of a
+ * user.
+ */
+public record FollowerCountChangedEvent(UUID userId) {
+
+}
@@ -10,8 +10,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import andrehsvictor.camly.user.dto.UserDto;
+import andrehsvictor.camly.util.ResourceVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -30,7 +32,7 @@ public class UserController {
 
     private final UserService userService;
 
-    @Operation(summary = "Get all users with optional filtering", description = "Returns a paginated list of users that can be filtered by query parameters for name, username, or exact username match")
+    @Operation(summary = "Get all users with optional filtering", description = "Returns a paginated list of users that can be filtered by query parameters for name, username, or exact username match. With a search query, users whose name or username contains it or a word close to it come first by similarity, then by follower count; only the first 1000 matches are ranked, and the total only tells whether another page follows.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Users retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Page.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
@@ -49,13 +51,20 @@ public class UserController {
     @Operation(summary = "Get user by ID", description = "Retrieves detailed information about a specific user by their UUID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserDto.class))),
+            @ApiResponse(responseCode = "304", description = "User not modified since the version held by the client", content = @Content),
             @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Valid JWT token is required", content = @Content)
     })
     @GetMapping("/api/v1/users/{id}")
-    public UserDto getById(
-            @Parameter(description = "User's UUID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id) {
-        return userService.toDto(userService.getById(id));
+    public ResponseEntity<UserDto> getById(
+            @Parameter(description = "User's UUID", required = true, example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable UUID id,
+            WebRequest request) {
+        UserSnapshot user = userService.getSnapshotById(id);
+        ResourceVersion version = userService.getVersion(user);
+        if (version.isNotModified(request)) {
+            return null;
+        }
+        return version.ok(userService.toDto(user));
     }
 
     @Operation(summary = "Follow or unfollow a user", description = "Toggles the follow status with the specified user. If already following, this will unfollow the user.")
@@ -0,0 +1,163 @@
+package andrehsvictor.camly.user;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.bloomfilter.BloomFilter;
+import andrehsvictor.camly.bloomfilter.BloomFilterFactory;
+import andrehsvictor.camly.bloomfilter.BloomFilterProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filters over the usernames and emails in use, so that checking a
+ * free username or email does not need a database round trip.
+ * <p>
+ * The filters are filled from the users table once the application is
+ * ready and learn every saved user afterwards. Removed users stay in the
+ * filters, which only makes them less selective; a local filter is rebuilt
+ * once enough users have been removed.
+ * <p>
+ * A filter that stopped answering, because its Redis keys were flushed or
+ * its node resubscribed to the additions, is built again on the next
+ * verification. Local filters are also rebuilt every rebuild interval, in
+ * case an addition never reached them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserExistenceFilter {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+    private static final long MIN_REMOVALS_BEFORE_REBUILD = 1_000;
+
+    private final BloomFilterFactory bloomFilterFactory;
+    private final BloomFilterProperties bloomFilterProperties;
+    private final UserRepository userRepository;
+
+    private final AtomicLong removals = new AtomicLong();
+    private volatile long builtCount;
+    private volatile long builtAt = System.nanoTime();
+
+    private BloomFilter usernames;
+    private BloomFilter emails;
+
+    @PostConstruct
+    void createFilters() {
+        if (bloomFilterProperties.isEnabled()) {
+            usernames = bloomFilterFactory.create("usernames");
+            emails = bloomFilterFactory.create("emails");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        if (bloomFilterProperties.isEnabled()) {
+            Thread.ofVirtual().name("user-existence-filter").start(this::build);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${camly.bloom-filter.verify-interval:1m}", fixedDelayString = "${camly.bloom-filter.verify-interval:1m}")
+    void verify() {
+        if (usernames == null) {
+            return;
+        }
+        boolean due = System.nanoTime() - builtAt >= bloomFilterProperties.getRebuildInterval().toNanos();
+        if (due || !usernames.isReady() || !emails.isReady()) {
+            build();
+        }
+    }
+
+    public boolean existsByUsername(String username, Predicate<String> lookup) {
+        return exists(usernames, username, lookup);
+    }
+
+    public boolean existsByEmail(String email, Predicate<String> lookup) {
+        return exists(emails, email, lookup);
+    }
+
+    public void add(User user) {
+        if (usernames != null && user.getUsername() != null) {
+            usernames.put(user.getUsername());
+        }
+        if (emails != null && user.getEmail() != null) {
+            emails.put(user.getEmail());
+        }
+    }
+
+    public void onRemoval() {
+        if (usernames == null) {
+            return;
+        }
+        long removed = removals.incrementAndGet();
+        double threshold = builtCount * bloomFilterProperties.getRebuildStaleRatio();
+        if (removed >= Math.max(MIN_REMOVALS_BEFORE_REBUILD, threshold)) {
+            removals.set(0);
+            Thread.ofVirtual().name("user-existence-filter").start(this::build);
+        }
+    }
+
+    void build() {
+        BloomFilter.Build usernameBuild = usernames.startBuild();
+        BloomFilter.Build emailBuild = emails.startBuild();
+        if (usernameBuild == null && emailBuild == null) {
+            return;
+        }
+
+        try {
+            long count = 0;
+            int batchSize = bloomFilterProperties.getBuildBatchSize();
+            UUID after = MIN_ID;
+            List<UserIdentifiers> batch;
+            do {
+                batch = userRepository.findIdentifiersAfter(after, Limit.of(batchSize));
+                for (UserIdentifiers user : batch) {
+                    if (usernameBuild != null) {
+                        usernameBuild.put(user.getUsername());
+                    }
+                    if (emailBuild != null) {
+                        emailBuild.put(user.getEmail());
+                    }
+                    after = user.getId();
+                }
+                count += batch.size();
+            } while (batch.size() == batchSize);
+
+            complete(usernameBuild);
+            complete(emailBuild);
+            builtCount = count;
+            builtAt = System.nanoTime();
+            log.info("Built user existence filters from {} users", count);
+        } catch (RuntimeException e) {
+            abort(usernameBuild);
+            abort(emailBuild);
+            log.warn("Failed to build user existence filters: {}", e.getMessage());
+        }
+    }
+
+    private boolean exists(BloomFilter filter, String value, Predicate<String> lookup) {
+        return filter != null && value != null ? filter.contains(value, lookup) : lookup.test(value);
+    }
+
+    private void complete(BloomFilter.Build build) {
+        if (build != null) {
+            build.complete();
+        }
+    }
+
+    private void abort(BloomFilter.Build build) {
+        if (build != null) {
+            build.abort();
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package andrehsvictor.camly.user;
+
+import java.util.UUID;
+
+public interface UserIdentifiers {
+
+    UUID getId();
+
+    String getUsername();
+
+    String getEmail();
+
+}
@@ -9,4 +9,6 @@ public interface UserMapper {
 
     UserDto userToUserDto(User user);
 
+    UserDto userSnapshotToUserDto(UserSnapshot user);
+
 }
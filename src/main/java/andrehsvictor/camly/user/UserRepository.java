@@ -1,11 +1,15 @@
 package andrehsvictor.camly.user;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -29,19 +33,49 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     boolean existsByEmail(String email);
 
+    List<User> findAllByOrderByFollowerCountDesc(Pageable pageable);
+
     @Query("""
-            SELECT u FROM User u
-            WHERE (
-                LOWER(:query) IS NULL
-                OR LOWER(u.username) LIKE CONCAT('%', LOWER(:query), '%')
-                OR LOWER(u.fullName) LIKE CONCAT('%', LOWER(:query), '%')
-            )
-            AND (
-                :username IS NULL
-                OR u.username = :username
-            )
+            SELECT u.id AS id, u.username AS username, u.email AS email FROM User u
+            WHERE u.id > :after
+            ORDER BY u.id
             """)
+    List<UserIdentifiers> findIdentifiersAfter(UUID after, Limit limit);
+
+    @Query("SELECT u FROM User u WHERE :username IS NULL OR u.username = :username")
     Page<User> findAllWithFilters(
+            String username,
+            Pageable pageable);
+
+    /**
+     * Searches users whose username or full name contains the query or a word
+     * close to it, through the trigram indexes on their lowercase forms. The
+     * matches are ranked most similar first, then most followed. Only the
+     * first 1000 matches found are ranked, so that a short or common query
+     * stops reading rows early, and no total is counted. The pageable must not
+     * be sorted.
+     */
+    // Materialized so that the matches are planned as a whole, not as the
+    // first rows of a scan that the planner expects to stop early
+    @NativeQuery("""
+            WITH matches AS MATERIALIZED (
+                SELECT c.*
+                FROM users c
+                WHERE (
+                    LOWER(c.username) LIKE '%' || LOWER(:query) || '%'
+                    OR LOWER(c.full_name) LIKE '%' || LOWER(:query) || '%'
+                    OR LOWER(:query) <% LOWER(c.username)
+                    OR LOWER(:query) <% LOWER(c.full_name)
+                )
+                AND (CAST(:username AS TEXT) IS NULL OR c.username = :username)
+            )
+            SELECT u.*
+            FROM (SELECT * FROM matches LIMIT 1000) u
+            ORDER BY GREATEST(word_similarity(LOWER(:query), LOWER(u.username)),
+                word_similarity(LOWER(:query), LOWER(u.full_name))) DESC,
+                u.follower_count DESC, u.id
+            """)
+    Slice<User> searchByName(
             String query,
             String username,
             Pageable pageable);
@@ -1,21 +1,29 @@
 package andrehsvictor.camly.user;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import andrehsvictor.camly.cache.CacheNamespaces;
 import andrehsvictor.camly.exception.ForbiddenOperationException;
 import andrehsvictor.camly.exception.ResourceNotFoundException;
 import andrehsvictor.camly.jwt.JwtService;
 import andrehsvictor.camly.user.dto.UserDto;
+import andrehsvictor.camly.util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -27,41 +35,65 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final JwtService jwtService;
+    private final CacheNamespaces cacheNamespaces;
+    private final UserExistenceFilter userExistenceFilter;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Cacheable(key = "'userById_' + #id")
     public User getById(UUID id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "ID", id));
     }
 
-    @Cacheable(key = "'userByEmail_' + #email")
+    @Cacheable(key = "'userById_' + #id", sync = true)
+    public UserSnapshot getSnapshotById(UUID id) {
+        return UserSnapshot.of(getById(id));
+    }
+
     public User getByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
     }
 
-    @Cacheable(key = "'userByProviderId_' + #providerId")
     public User getByProviderId(String providerId) {
         return userRepository.findByProviderId(providerId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "provider ID", providerId));
     }
 
-    @Cacheable(key = "'filters_' + #query + '_' + #username + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public Page<User> getAllWithFilters(String query, String username, Pageable pageable) {
-        return userRepository.findAllWithFilters(query, username, pageable);
+    // Only misses are cached: the entity is about to be modified by the caller
+    @Cacheable(key = "'userByEmail_' + #email", unless = "#result != null")
+    public Optional<User> findByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Cacheable(key = "'userByProviderId_' + #providerId", unless = "#result != null")
+    public Optional<User> findByProviderId(String providerId) {
+        return userRepository.findByProviderId(providerId);
+    }
+
+    @Cacheable(key = "'filters_' + @cacheNamespaces.version('user-filters') + '_' + #query + '_' + #username + '_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
+    public Page<UserSnapshot> getAllWithFilters(String query, String username, Pageable pageable) {
+        if (StringUtils.hasText(query)) {
+            // Search results are ranked by similarity, whatever the requested sort
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            Slice<UserSnapshot> results = userRepository.searchByName(query, username, unsorted).map(UserSnapshot::of);
+            // Not counted: the total only tells whether another page follows
+            long total = unsorted.getOffset() + results.getNumberOfElements() + (results.hasNext() ? 1 : 0);
+            return new PageImpl<>(results.getContent(), unsorted, total);
+        }
+        return userRepository.findAllWithFilters(username, pageable).map(UserSnapshot::of);
     }
 
-    @Cacheable(key = "'existsByUsername_' + #username")
+    // Only hits are cached: the filter already answers most misses, and a cached miss would go stale
+    @Cacheable(key = "'existsByUsername_' + #username", unless = "!#result")
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return userExistenceFilter.existsByUsername(username, userRepository::existsByUsername);
     }
 
-    @Cacheable(key = "'existsByEmail_' + #email")
+    @Cacheable(key = "'existsByEmail_' + #email", unless = "!#result")
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userExistenceFilter.existsByEmail(email, userRepository::existsByEmail);
     }
 
-    @Cacheable(key = "'userByToken_' + #token")
     public User getByToken(String token, TokenType type) {
         return switch (type) {
             case EMAIL_VERIFICATION -> userRepository.findByEmailVerificationToken(token)
@@ -71,37 +103,49 @@ public class UserService {
         };
     }
 
+    public ResourceVersion getVersion(UserSnapshot user) {
+        return ResourceVersion.of(user.updatedAt(), user);
+    }
+
     public UserDto toDto(User user) {
         return userMapper.userToUserDto(user);
     }
 
+    public UserDto toDto(UserSnapshot user) {
+        return userMapper.userSnapshotToUserDto(user);
+    }
+
     @Transactional
     @Caching(evict = {
             @CacheEvict(key = "'userById_' + #user.id", condition = "#user.id != null"),
-            @CacheEvict(key = "'userByEmail_' + #user.email", condition = "#user.email != null"),
-            @CacheEvict(key = "'userByProviderId_' + #user.providerId", condition = "#user.providerId != null"),
             @CacheEvict(key = "'existsByUsername_' + #user.username", condition = "#user.username != null"),
-            @CacheEvict(key = "'existsByEmail_' + #user.email", condition = "#user.email != null")
+            @CacheEvict(key = "'existsByEmail_' + #user.email", condition = "#user.email != null"),
+            @CacheEvict(key = "'userByEmail_' + #user.email", condition = "#user.email != null"),
+            @CacheEvict(key = "'userByProviderId_' + #user.providerId", condition = "#user.providerId != null")
     })
     public User save(User user) {
+        // Before the row becomes visible, so no check can be told it is absent
+        userExistenceFilter.add(user);
         return userRepository.save(user);
     }
 
     @Transactional
     @Caching(evict = {
             @CacheEvict(key = "'userById_' + #id"),
-            @CacheEvict(key = "'filters_*'", allEntries = true),
             @CacheEvict(cacheNames = "accounts", allEntries = true)
     })
     public void deleteById(UUID id) {
         userRepository.deleteById(id);
+        userExistenceFilter.onRemoval();
+        cacheNamespaces.bump("user-filters");
     }
 
     @Transactional
     @Caching(evict = {
             @CacheEvict(key = "'userById_' + #followedId"),
             @CacheEvict(key = "'userById_' + @jwtService.getCurrentUserId()"),
-            @CacheEvict(key = "'filters_*'", allEntries = true)
+            @CacheEvict(cacheNames = "accounts", key = "'get_' + #followedId"),
+            @CacheEvict(cacheNames = "accounts", key = "'get_' + @jwtService.getCurrentUserId()")
     })
     public boolean follow(UUID followedId) {
         UUID followerId = jwtService.getCurrentUserId();
@@ -123,6 +167,8 @@ public class UserService {
         }
 
         userRepository.saveAll(List.of(follower, followed));
+        cacheNamespaces.bump("user-filters");
+        eventPublisher.publishEvent(new FollowerCountChangedEvent(followedId));
         return !isAlreadyFollowing;
     }
 
@@ -0,0 +1,40 @@
+package andrehsvictor.camly.user;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat, immutable cache representation of a {@link User}.
+ * <p>
+ * Holds only the public profile fields exposed by
+ * {@link andrehsvictor.camly.user.dto.UserDto}; credentials, tokens and the
+ * follower graph never reach the cache.
+ */
+public record UserSnapshot(
+        UUID id,
+        String username,
+        String pictureUrl,
+        String fullName,
+        String bio,
+        Integer followerCount,
+        Integer followingCount,
+        Integer postCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) implements Serializable {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getUsername(),
+                user.getPictureUrl(),
+                user.getFullName(),
+                user.getBio(),
+                user.getFollowerCount(),
+                user.getFollowingCount(),
+                user.getPostCount(),
+                user.getCreatedAt(),
+                user.getUpdatedAt());
+    }
+
+}
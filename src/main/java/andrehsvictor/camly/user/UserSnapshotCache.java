@@ -0,0 +1,79 @@
+package andrehsvictor.camly.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.cache.TieredCache;
+import andrehsvictor.camly.cache.TieredCacheManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Batched access to the user snapshots cached by
+ * {@link UserService#getSnapshotById(UUID)}, used to hydrate listings of
+ * users read as IDs.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSnapshotCache {
+
+    private final TieredCacheManager cacheManager;
+    private final UserRepository userRepository;
+
+    /**
+     * Returns the snapshots in the order of the IDs, reading the cached ones
+     * in one round trip and the rest in one query. Users that no longer
+     * exist are left out.
+     */
+    public List<UserSnapshot> getAll(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Object, Object> cached = cache().getAll(ids.stream().map(UserSnapshotCache::key).toList());
+        Map<UUID, UserSnapshot> snapshots = new HashMap<>(ids.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            if (cached.get(key(id)) instanceof UserSnapshot snapshot) {
+                snapshots.put(id, snapshot);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<UserSnapshot> loaded = userRepository.findAllById(missing).stream()
+                    .map(UserSnapshot::of)
+                    .toList();
+            putAll(loaded);
+            loaded.forEach(snapshot -> snapshots.put(snapshot.id(), snapshot));
+        }
+
+        return ids.stream()
+                .map(snapshots::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void putAll(Collection<UserSnapshot> snapshots) {
+        Map<Object, Object> entries = new LinkedHashMap<>(snapshots.size());
+        snapshots.forEach(snapshot -> entries.put(key(snapshot.id()), snapshot));
+        cache().putAll(entries);
+    }
+
+    private TieredCache cache() {
+        return (TieredCache) cacheManager.getCache("users");
+    }
+
+    private static String key(UUID id) {
+        return "userById_" + id;
+    }
+
+}
@@ -0,0 +1,11 @@
+package andrehsvictor.camly.util;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is
+ * {@code null} on the last page.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+}
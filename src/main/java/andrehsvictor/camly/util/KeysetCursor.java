@@ -0,0 +1,34 @@
+package andrehsvictor.camly.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import andrehsvictor.camly.exception.BadRequestException;
+
+/**
+ * Position of the last element of a keyset page: its sort value and the ID
+ * that breaks ties between equal sort values.
+ * <p>
+ * Clients receive it as an opaque string and send it back unchanged to get
+ * the next page.
+ */
+public record KeysetCursor(long position, UUID id) {
+
+    public String encode() {
+        String value = position + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new KeysetCursor(Long.parseLong(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+}
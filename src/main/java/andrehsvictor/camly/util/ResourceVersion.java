@@ -0,0 +1,62 @@
+package andrehsvictor.camly.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Validators of a representation for conditional GETs: a strong ETag and
+ * the Last-Modified time.
+ * <p>
+ * Both are computed from the cached snapshots a representation is mapped
+ * from, so a request can be answered with 304 before the mapper runs.
+ */
+public record ResourceVersion(String eTag, long lastModified) {
+
+    /**
+     * @param lastModified the latest update among the sources, or
+     *                     {@code null} if unknown
+     * @param sources      everything the representation is built from; each
+     *                     must have a {@code toString} that covers its state
+     */
+    public static ResourceVersion of(LocalDateTime lastModified, Object... sources) {
+        String state = Arrays.stream(sources)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        String eTag = '"' + DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8)) + '"';
+        long lastModifiedMillis = lastModified != null
+                ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        return new ResourceVersion(eTag, lastModifiedMillis);
+    }
+
+    /**
+     * Checks the request preconditions and, when the client copy is current,
+     * prepares the 304 response.
+     */
+    public boolean isNotModified(WebRequest request) {
+        return request.checkNotModified(eTag, lastModified);
+    }
+
+    public <T> ResponseEntity<T> ok(T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(eTag);
+        if (lastModified >= 0) {
+            builder.lastModified(lastModified);
+        }
+        return builder.body(body);
+    }
+
+    public static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        return first.isAfter(second) ? first : second;
+    }
+
+}
@@ -0,0 +1,177 @@
+package andrehsvictor.camly.warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.cache.TieredCache;
+import andrehsvictor.camly.cache.TieredCacheManager;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.post.PostRow;
+import andrehsvictor.camly.post.PostSnapshotCache;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserRepository;
+import andrehsvictor.camly.user.UserSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Preloads the most engaged recent posts and the most followed users into
+ * the caches, so that a fresh node or a flushed Redis does not send the
+ * first wave of requests to the database.
+ * <p>
+ * The first run starts with the application and holds the readiness probe
+ * through {@link CacheWarmupHealthIndicator}; later runs refresh the same
+ * entries at a fixed interval. Pages are loaded in parallel on virtual
+ * threads, without counting the rows behind them, and a run gives up on
+ * whatever is left once its timeout expires.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer {
+
+    private final CacheWarmupProperties properties;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostSnapshotCache postSnapshotCache;
+    private final TieredCacheManager cacheManager;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger postsWarmed = new AtomicInteger();
+    private final AtomicInteger usersWarmed = new AtomicInteger();
+
+    private volatile State state = State.PENDING;
+    private volatile boolean firstRunFinished;
+    private volatile Instant startedAt;
+    private volatile Duration duration;
+
+    @EventListener(ApplicationStartedEvent.class)
+    void warmUpOnStartup() {
+        if (properties.isEnabled()) {
+            Thread.ofVirtual().name("cache-warmup").start(this::warmUp);
+        } else {
+            firstRunFinished = true;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${camly.warmup.interval:10m}", fixedDelayString = "${camly.warmup.interval:10m}")
+    void warmUpPeriodically() {
+        if (properties.isEnabled()) {
+            warmUp();
+        }
+    }
+
+    public void warmUp() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        duration = null;
+        postsWarmed.set(0);
+        usersWarmed.set(0);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = now.minus(properties.getPostWindow());
+            for (int page = 0; page < pageCount(properties.getPostLimit()); page++) {
+                int pageNumber = page;
+                tasks.add(executor.submit(() -> warmPosts(since, now, pageNumber)));
+            }
+            for (int page = 0; page < pageCount(properties.getUserLimit()); page++) {
+                int pageNumber = page;
+                tasks.add(executor.submit(() -> warmUsers(pageNumber)));
+            }
+
+            executor.shutdown();
+            boolean finished = executor.awaitTermination(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (!finished) {
+                executor.shutdownNow();
+            }
+            state = !finished ? State.TIMED_OUT : failed(tasks) ? State.FAILED : State.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.FAILED;
+        } finally {
+            duration = Duration.between(startedAt, Instant.now());
+            firstRunFinished = true;
+            running.set(false);
+        }
+
+        log.info("Cache warm-up {} in {} ms: {} posts, {} users", state.name().toLowerCase(),
+                duration.toMillis(), postsWarmed.get(), usersWarmed.get());
+    }
+
+    public Progress getProgress() {
+        return new Progress(state, firstRunFinished, postsWarmed.get(), properties.getPostLimit(),
+                usersWarmed.get(), properties.getUserLimit(), startedAt, duration);
+    }
+
+    private void warmPosts(LocalDateTime since, LocalDateTime until, int page) {
+        List<PostRow> rows = postRepository.findMostEngagedBetween(since, until, pageRequest(page));
+        postSnapshotCache.putAllRows(rows);
+        postsWarmed.addAndGet(rows.size());
+    }
+
+    private void warmUsers(int page) {
+        List<User> users = userRepository.findAllByOrderByFollowerCountDesc(pageRequest(page));
+        Map<Object, Object> entries = new LinkedHashMap<>(users.size());
+        users.forEach(user -> entries.put("userById_" + user.getId(), UserSnapshot.of(user)));
+        ((TieredCache) cacheManager.getCache("users")).putAll(entries);
+        usersWarmed.addAndGet(users.size());
+    }
+
+    private PageRequest pageRequest(int page) {
+        return PageRequest.of(page, properties.getBatchSize());
+    }
+
+    private int pageCount(int limit) {
+        return (limit + properties.getBatchSize() - 1) / properties.getBatchSize();
+    }
+
+    private boolean failed(List<Future<?>> tasks) {
+        boolean failed = false;
+        for (Future<?> task : tasks) {
+            if (task.state() == Future.State.FAILED) {
+                log.warn("Cache warm-up task failed: {}", task.exceptionNow().getMessage());
+                failed = true;
+            }
+        }
+        return failed;
+    }
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED
+    }
+
+    public record Progress(
+            State state,
+            boolean firstRunFinished,
+            int postsWarmed,
+            int postLimit,
+            int usersWarmed,
+            int userLimit,
+            Instant startedAt,
+            Duration duration) {
+    }
+
+}
@@ -0,0 +1,35 @@
+package andrehsvictor.camly.warmup;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import andrehsvictor.camly.warmup.CacheWarmer.Progress;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Out of service until the first cache warm-up has finished, whatever its
+ * outcome; part of the readiness group so traffic waits for warm caches.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator extends AbstractHealthIndicator {
+
+    private final CacheWarmer cacheWarmer;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        Progress progress = cacheWarmer.getProgress();
+        (progress.firstRunFinished() ? builder.up() : builder.outOfService())
+                .withDetail("state", progress.state())
+                .withDetail("posts", progress.postsWarmed() + "/" + progress.postLimit())
+                .withDetail("users", progress.usersWarmed() + "/" + progress.userLimit());
+        if (progress.startedAt() != null) {
+            builder.withDetail("startedAt", progress.startedAt());
+        }
+        if (progress.duration() != null) {
+            builder.withDetail("durationMs", progress.duration().toMillis());
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package andrehsvictor.camly.warmup;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "camly.warmup")
+public class CacheWarmupProperties {
+
+    private boolean enabled = true;
+    private int postLimit = 500;
+    private Duration postWindow = Duration.ofDays(7);
+    private int userLimit = 200;
+    private int batchSize = 100;
+    private Duration timeout = Duration.ofSeconds(30);
+    private Duration interval = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_likes_post_id_created_at ON likes (post_id, created_at, user_id);
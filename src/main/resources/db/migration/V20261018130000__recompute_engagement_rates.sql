@@ -0,0 +1,7 @@
+UPDATE posts p
+SET engagement_rate = CASE
+    WHEN u.follower_count > 0 THEN CAST(p.like_count AS FLOAT) / u.follower_count
+    ELSE p.like_count
+END
+FROM users u
+WHERE u.id = p.user_id;
@@ -0,0 +1,11 @@
+ALTER TABLE posts
+    ADD COLUMN IF NOT EXISTS caption_search TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('english', caption)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_posts_caption_search ON posts USING GIN (caption_search);
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS username_search TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('simple', username)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_search ON users USING GIN (username_search);
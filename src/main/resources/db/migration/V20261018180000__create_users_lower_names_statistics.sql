@@ -0,0 +1,3 @@
+CREATE STATISTICS IF NOT EXISTS users_lower_names_stats ON (LOWER(username)), (LOWER(full_name)) FROM users;
+
+ANALYZE users;
@@ -44,6 +44,46 @@ class AccountProfileIT extends AbstractAccountIntegrationTest {
                 .body("$", not(hasKey("password")));
     }
 
+    @Test
+    @DisplayName("Should answer not modified until the account is updated")
+    void shouldAnswerNotModifiedUntilAccountIsUpdated() {
+        String eTag = given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("Last-Modified", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(UpdateAccountDto.builder().bio("Conditional bio").build())
+                .when()
+                .put("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("bio", equalTo("Conditional bio"));
+    }
+
     @Test
     @DisplayName("Should update account successfully")
     void shouldUpdateAccountSuccessfully() {
@@ -0,0 +1,143 @@
+package andrehsvictor.camly.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LocalBloomFilterTest {
+
+    private static final int EXPECTED_INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final List<String> broadcasts = new ArrayList<>();
+    private LocalBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LocalBloomFilter("usernames", EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE, broadcasts::add);
+    }
+
+    @Test
+    @DisplayName("Should fall through to the lookup until the filter is built")
+    void shouldFallThroughUntilBuilt() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        boolean exists = filter.contains("nobody", value -> lookups.incrementAndGet() > 0);
+
+        assertThat(exists).isTrue();
+        assertThat(lookups).hasValue(1);
+        assertThat(filter.getUnavailableCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should never rule out a value that was put")
+    void shouldNeverRuleOutPutValues() {
+        build(EXPECTED_INSERTIONS);
+
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            assertThat(filter.contains("user" + i, value -> true)).isTrue();
+        }
+        assertThat(filter.getAbsentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should answer absent values without the lookup at about the configured rate")
+    void shouldSkipLookupForMostAbsentValues() {
+        build(EXPECTED_INSERTIONS);
+        AtomicInteger lookups = new AtomicInteger();
+
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            filter.contains("absent" + i, value -> lookups.incrementAndGet() < 0);
+        }
+
+        assertThat((double) lookups.get() / probes).isLessThan(FALSE_POSITIVE_RATE * 2);
+        assertThat(filter.getFalsePositiveCount()).isEqualTo(lookups.get());
+        assertThat(filter.getObservedFalsePositiveRate()).isLessThan(FALSE_POSITIVE_RATE * 2);
+        assertThat(filter.getExpectedFalsePositiveRate()).isBetween(FALSE_POSITIVE_RATE / 2, FALSE_POSITIVE_RATE * 2);
+    }
+
+    @Test
+    @DisplayName("Should keep values put while a rebuild is running")
+    void shouldKeepValuesPutDuringRebuild() {
+        build(10);
+        BloomFilter.Build rebuild = filter.startBuild();
+
+        filter.put("latecomer");
+        rebuild.complete();
+
+        assertThat(filter.contains("latecomer", value -> true)).isTrue();
+        assertThat(filter.getAbsentCount()).isZero();
+        assertThat(broadcasts).containsExactly("latecomer");
+    }
+
+    @Test
+    @DisplayName("Should keep values put before the first build")
+    void shouldKeepValuesPutBeforeFirstBuild() {
+        filter.put("early");
+        filter.putLocally("remote");
+
+        build(0);
+
+        assertThat(filter.contains("early", value -> true)).isTrue();
+        assertThat(filter.contains("remote", value -> true)).isTrue();
+        assertThat(filter.getAbsentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fall through to the lookup once invalidated until built again")
+    void shouldFallThroughOnceInvalidated() {
+        build(10);
+
+        filter.invalidate();
+        filter.putLocally("meanwhile");
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.contains("user0", value -> true)).isTrue();
+        assertThat(filter.getUnavailableCount()).isEqualTo(1);
+
+        build(10);
+
+        assertThat(filter.contains("meanwhile", value -> true)).isTrue();
+        assertThat(filter.getAbsentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not trust a build that was running when the filter was invalidated")
+    void shouldNotTrustBuildRunningWhenInvalidated() {
+        BloomFilter.Build build = filter.startBuild();
+        build.put("user0");
+
+        filter.invalidate();
+        build.complete();
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.startBuild()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should not broadcast values received from other nodes")
+    void shouldNotBroadcastRemoteValues() {
+        build(0);
+
+        filter.putLocally("remote");
+
+        assertThat(filter.contains("remote", value -> true)).isTrue();
+        assertThat(broadcasts).isEmpty();
+    }
+
+    private void build(int count) {
+        BloomFilter.Build build = filter.startBuild();
+        for (int i = 0; i < count; i++) {
+            build.put("user" + i);
+        }
+        build.complete();
+    }
+
+}
@@ -0,0 +1,79 @@
+package andrehsvictor.camly.bloomfilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+
+class RedisBloomFilterIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private BloomFilterProperties properties;
+    private String name;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BloomFilterProperties();
+        properties.setExpectedInsertions(1_000);
+        properties.setBuildBatchSize(100);
+        name = "test-" + UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should share one bitmap between the filters of all nodes")
+    void shouldShareBitmapBetweenNodes() {
+        RedisBloomFilter builder = new RedisBloomFilter(name, properties, stringRedisTemplate);
+        RedisBloomFilter otherNode = new RedisBloomFilter(name, properties, stringRedisTemplate);
+
+        BloomFilter.Build build = builder.startBuild();
+        for (int i = 0; i < 500; i++) {
+            build.put("user" + i);
+        }
+        assertThat(otherNode.startBuild()).isNull();
+        otherNode.put("latecomer");
+        build.complete();
+
+        assertThat(otherNode.isReady()).isTrue();
+        assertThat(otherNode.contains("user42", value -> true)).isTrue();
+        assertThat(builder.contains("latecomer", value -> true)).isTrue();
+        assertThat(otherNode.contains("absent", value -> false)).isFalse();
+        assertThat(otherNode.getExpectedFalsePositiveRate()).isBetween(0.0, 0.01);
+    }
+
+    @Test
+    @DisplayName("Should stop answering once the bitmap is evicted, even if later additions recreate it")
+    void shouldFallThroughAfterEviction() {
+        RedisBloomFilter filter = new RedisBloomFilter(name, properties, stringRedisTemplate);
+        BloomFilter.Build build = filter.startBuild();
+        build.put("user1");
+        build.complete();
+        assertThat(filter.isReady()).isTrue();
+
+        stringRedisTemplate.delete(properties.getKeyPrefix() + name);
+        filter.put("user2");
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.contains("user1", value -> true)).isTrue();
+        assertThat(filter.getUnavailableCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall through to the lookup until the bitmap is complete")
+    void shouldFallThroughUntilComplete() {
+        RedisBloomFilter filter = new RedisBloomFilter(name, properties, stringRedisTemplate);
+        filter.startBuild();
+
+        assertThat(filter.contains("anyone", value -> true)).isTrue();
+        assertThat(filter.getUnavailableCount()).isEqualTo(1);
+    }
+
+}
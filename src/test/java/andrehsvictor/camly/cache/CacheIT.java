@@ -0,0 +1,412 @@
+package andrehsvictor.camly.cache;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+import andrehsvictor.camly.account.dto.CreateAccountDto;
+import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.PostDto;
+import andrehsvictor.camly.post.dto.UpdatePostDto;
+import andrehsvictor.camly.token.TokenService;
+import andrehsvictor.camly.token.dto.TokenDto;
+import andrehsvictor.camly.token.dto.UsernamePasswordDto;
+import andrehsvictor.camly.user.Role;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserService;
+import jakarta.persistence.EntityManagerFactory;
+
+public class CacheIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TieredCacheManager cacheManager;
+
+    @Autowired
+    private RedisTemplate<String, CacheInvalidation> redisTemplate;
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private String accessToken;
+    private User testUser;
+    private UUID postId;
+
+    @BeforeEach
+    void setupTestUserAndPost() {
+        String username = "cacheuser" + System.currentTimeMillis();
+        String password = "Test@123456";
+
+        CreateAccountDto accountDto = CreateAccountDto.builder()
+                .fullName("Cache Test User")
+                .username(username)
+                .email(username + "@example.com")
+                .password(password)
+                .build();
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(accountDto)
+                .when()
+                .post("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        testUser = userService.getByEmail(accountDto.getEmail());
+        testUser.setEmailVerified(true);
+        userService.save(testUser);
+
+        UsernamePasswordDto credentials = UsernamePasswordDto.builder()
+                .username(accountDto.getEmail())
+                .password(password)
+                .build();
+
+        TokenDto tokenDto = tokenService.request(credentials);
+        accessToken = tokenDto.getAccessToken();
+
+        CreatePostDto createPostDto = CreatePostDto.builder()
+                .caption("Cached post")
+                .imageUrl("https://example.com/cached.jpg")
+                .build();
+
+        PostDto postDto = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(createPostDto)
+                .when()
+                .post("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .as(PostDto.class);
+
+        postId = UUID.fromString(postDto.getId());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated post reads from cache without querying the database")
+    void shouldServeRepeatedPostReadsFromCache() {
+        getAndExpectOk("/api/v1/posts/" + postId);
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        getAndExpectOk("/api/v1/posts/" + postId);
+        getAndExpectOk("/api/v1/posts/" + postId);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated user reads from cache without querying the database")
+    void shouldServeRepeatedUserReadsFromCache() {
+        getAndExpectOk("/api/v1/users/" + testUser.getId());
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        getAndExpectOk("/api/v1/users/" + testUser.getId());
+        getAndExpectOk("/api/v1/users/" + testUser.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reload post from the database after it is updated")
+    void shouldReloadPostAfterUpdate() {
+        getAndExpectOk("/api/v1/posts/" + postId);
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(UpdatePostDto.builder().caption("Updated cached post").build())
+                .when()
+                .put("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        PostDto postDto = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .as(PostDto.class);
+
+        assertThat(postDto.getCaption()).isEqualTo("Updated cached post");
+    }
+
+    @Test
+    @DisplayName("Should keep unrelated entries cached and refresh listings when a post is created")
+    void shouldKeepUnrelatedEntriesWhenPostIsCreated() {
+        getAndExpectOk("/api/v1/posts/" + postId);
+        getAndExpectOk("/api/v1/users/" + testUser.getId() + "/posts");
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(CreatePostDto.builder()
+                        .caption("Another post")
+                        .imageUrl("https://example.com/another.jpg")
+                        .build())
+                .when()
+                .post("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        getAndExpectOk("/api/v1/posts/" + postId);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/users/" + testUser.getId() + "/posts")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(2));
+    }
+
+    @Test
+    @DisplayName("Should show an updated post in cached listings without reloading the listing")
+    void shouldRefreshListedPostWithoutReloadingListing() {
+        getAndExpectOk("/api/v1/users/" + testUser.getId() + "/posts");
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(UpdatePostDto.builder().caption("Updated listed post").build())
+                .when()
+                .put("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/users/" + testUser.getId() + "/posts")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(1))
+                .body("content[0].caption", equalTo("Updated listed post"));
+
+        // Only the updated post is loaded, by ID; the page query and its count are not repeated
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load an expired hot post only once under concurrent reads")
+    void shouldLoadExpiredHotPostOnceUnderConcurrentReads() throws Exception {
+        getAndExpectOk("/api/v1/posts/" + postId);
+
+        TieredCache postsCache = (TieredCache) cacheManager.getCache("posts");
+        postsCache.evict("post_" + postId);
+        long loadsBefore = postsCache.getLoadCount();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                requests.add(executor.submit(() -> getAndExpectOk("/api/v1/posts/" + postId)));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        }
+
+        assertThat(postsCache.getLoadCount() - loadsBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop near-cache entries when another node publishes an invalidation")
+    void shouldDropNearCacheEntryOnRemoteInvalidation() throws InterruptedException {
+        getAndExpectOk("/api/v1/posts/" + postId);
+
+        TieredCache postsCache = (TieredCache) cacheManager.getCache("posts");
+        String key = "post_" + postId;
+        assertThat(postsCache.getNearCache().getIfPresent(key)).isNotNull();
+
+        redisTemplate.convertAndSend(cacheProperties.getInvalidationChannel(),
+                new CacheInvalidation("another-node", "posts", key, System.currentTimeMillis()));
+
+        for (int attempt = 0; attempt < 50 && postsCache.getNearCache().getIfPresent(key) != null; attempt++) {
+            Thread.sleep(100);
+        }
+
+        assertThat(postsCache.getNearCache().getIfPresent(key)).isNull();
+        assertThat(postsCache.getRedisCache().get(key)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should cache lookup misses briefly and forget them once the user is saved")
+    void shouldCacheLookupMissesUntilUserIsSaved() {
+        String providerId = "google-" + System.nanoTime();
+
+        assertThat(userService.findByProviderId(providerId)).isEmpty();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        assertThat(userService.findByProviderId(providerId)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        String redisKey = cacheProperties.getKeyPrefixFor("users") + "userByProviderId_" + providerId;
+        assertThat(stringRedisTemplate.getExpire(redisKey, TimeUnit.SECONDS))
+                .isPositive()
+                .isLessThanOrEqualTo(cacheProperties.getNullTtlFor("users").toSeconds());
+
+        testUser.setProviderId(providerId);
+        userService.save(testUser);
+
+        assertThat(userService.findByProviderId(providerId))
+                .get()
+                .extracting(User::getId)
+                .isEqualTo(testUser.getId());
+    }
+
+    @Test
+    @DisplayName("Should pin a heavily read post and list it as a hot key")
+    void shouldPinAndListHotPost() {
+        String key = "post_" + postId;
+        TieredCache postsCache = (TieredCache) cacheManager.getCache("posts");
+        long threshold = cacheProperties.getHotKeys().getThreshold();
+
+        for (int i = 0; i <= threshold; i++) {
+            getAndExpectOk("/api/v1/posts/" + postId);
+        }
+
+        assertThat(postsCache.getHotKeyTracker().getPinned(key)).isNotNull();
+
+        testUser.setRole(Role.ADMINISTRATOR);
+        userService.save(testUser);
+        String adminToken = tokenService.request(UsernamePasswordDto.builder()
+                .username(testUser.getEmail())
+                .password("Test@123456")
+                .build()).getAccessToken();
+
+        given()
+                .header("Authorization", "Bearer " + adminToken)
+                .when()
+                .get("/actuator/hotkeys/posts")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("find { it.key == '" + key + "' }.pinned", equalTo(true));
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/actuator/hotkeys")
+                .then()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    @DisplayName("Should resolve the liked state of a page with the same number of queries whatever its size")
+    void shouldResolveLikedStateWithConstantQueryCount() {
+        List<UUID> postIds = new ArrayList<>(List.of(postId));
+        for (int i = 0; i < 11; i++) {
+            CreatePostDto createPostDto = CreatePostDto.builder()
+                    .caption("Listed post " + i)
+                    .imageUrl("https://example.com/listed" + i + ".jpg")
+                    .build();
+            PostDto postDto = given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header("Authorization", "Bearer " + accessToken)
+                    .body(createPostDto)
+                    .when()
+                    .post("/api/v1/posts")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .extract()
+                    .as(PostDto.class);
+            postIds.add(UUID.fromString(postDto.getId()));
+        }
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .put("/api/v1/posts/" + postId + "/likes")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        long smallPageStatements = likedStateStatementCount(postIds, 2);
+        long largePageStatements = likedStateStatementCount(postIds, 12);
+
+        assertThat(largePageStatements).isEqualTo(smallPageStatements).isEqualTo(1);
+    }
+
+    private long likedStateStatementCount(List<UUID> postIds, int size) {
+        String path = "/api/v1/users/" + testUser.getId() + "/posts?size=" + size + "&sort=createdAt,asc";
+        getAndExpectOk(path);
+        Cache postsCache = cacheManager.getCache("posts");
+        postIds.forEach(id -> postsCache.evict("liked_" + id + "_" + testUser.getId()));
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get(path)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.size()", equalTo(size))
+                .body("content[0].liked", equalTo(true))
+                .body("content[1].liked", equalTo(false));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void getAndExpectOk(String path) {
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get(path)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+}
@@ -0,0 +1,67 @@
+package andrehsvictor.camly.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheKeyMetricsTest {
+
+    @Test
+    @DisplayName("Should use the leading word of a key as its family")
+    void shouldExtractKeyFamily() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(CacheKeyMetrics.family("post_" + id)).isEqualTo("post");
+        assertThat(CacheKeyMetrics.family("filterIds_3_null_null_0_20_UNSORTED")).isEqualTo("filterIds");
+        assertThat(CacheKeyMetrics.family("user-posts:" + id)).isEqualTo("user-posts");
+        assertThat(CacheKeyMetrics.family("post-filters")).isEqualTo("post-filters");
+    }
+
+    @Test
+    @DisplayName("Should report keys without a word prefix as other")
+    void shouldReportUnprefixedKeysAsOther() {
+        assertThat(CacheKeyMetrics.family(UUID.randomUUID().toString())).isEqualTo(CacheKeyMetrics.OTHER);
+        assertThat(CacheKeyMetrics.family("_1")).isEqualTo(CacheKeyMetrics.OTHER);
+        assertThat(CacheKeyMetrics.family(42L)).isEqualTo(CacheKeyMetrics.OTHER);
+    }
+
+    @Test
+    @DisplayName("Should fold families beyond the limit of a cache into other")
+    void shouldCapFamiliesPerCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheProperties properties = new CacheProperties();
+        properties.getMetrics().setMaxKeyFamilies(2);
+        CacheKeyMetrics metrics = new CacheKeyMetrics(registry, properties);
+
+        metrics.recordGet("posts", "post_1", true);
+        metrics.recordGet("posts", "liked_1", true);
+        metrics.recordGet("posts", "stats_1", true);
+        metrics.recordGet("users", "userById_1", true);
+
+        assertThat(registry.find("cache.key.gets").tag("family", "stats").counter()).isNull();
+        assertThat(hits(registry, "posts", "other")).isEqualTo(1);
+        assertThat(hits(registry, "users", "userById")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record nothing when disabled")
+    void shouldRecordNothingWhenDisabled() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheProperties properties = new CacheProperties();
+        properties.getMetrics().setEnabled(false);
+
+        new CacheKeyMetrics(registry, properties).recordPut("posts", "post_1", 100);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    private double hits(SimpleMeterRegistry registry, String cache, String family) {
+        return registry.get("cache.key.gets").tags("cache", cache, "family", family, "result", "hit").counter().count();
+    }
+
+}
@@ -0,0 +1,53 @@
+package andrehsvictor.camly.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    @DisplayName("Should never underestimate a count")
+    void shouldNeverUnderestimate() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int key = 0; key < 1_000; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.increment("post_" + key);
+            }
+        }
+
+        for (int key = 0; key < 1_000; key++) {
+            assertThat(sketch.estimate("post_" + key)).isGreaterThanOrEqualTo(key % 5 + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep a heavy key well above the background noise")
+    void shouldSeparateHeavyKeyFromNoise() {
+        CountMinSketch sketch = new CountMinSketch(1_024, 4);
+        for (int key = 0; key < 5_000; key++) {
+            sketch.increment("post_" + key);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            sketch.increment("post_celebrity");
+        }
+
+        assertThat(sketch.estimate("post_celebrity")).isBetween(10_000L, 10_100L);
+        assertThat(sketch.estimate("post_42")).isLessThan(100);
+    }
+
+    @Test
+    @DisplayName("Should halve every counter on decay")
+    void shouldHalveOnDecay() {
+        CountMinSketch sketch = new CountMinSketch(1_024, 4);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("post_1");
+        }
+
+        sketch.halve();
+
+        assertThat(sketch.estimate("post_1")).isEqualTo(50);
+    }
+
+}
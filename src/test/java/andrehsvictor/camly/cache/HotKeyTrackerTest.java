@@ -0,0 +1,103 @@
+package andrehsvictor.camly.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import andrehsvictor.camly.cache.HotKeyTracker.HotKey;
+
+class HotKeyTrackerTest {
+
+    private CacheProperties.HotKeys properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheProperties.HotKeys();
+        properties.setSampleRate(1);
+        properties.setThreshold(10);
+        properties.setSketchWidth(256);
+        properties.setMaxPinned(2);
+    }
+
+    @Test
+    @DisplayName("Should report a key as hot once its reads reach the threshold")
+    void shouldDetectHotKey() {
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+
+        for (int i = 1; i < 10; i++) {
+            assertThat(tracker.recordAccess("post_1")).isFalse();
+        }
+
+        assertThat(tracker.recordAccess("post_1")).isTrue();
+        assertThat(tracker.recordAccess("post_2")).isFalse();
+        assertThat(tracker.getHotKeys()).containsExactly(new HotKey("post_1", 10, false));
+    }
+
+    @Test
+    @DisplayName("Should scale sampled reads back up to an estimate of all reads")
+    void shouldScaleSampledReads() {
+        properties.setSampleRate(4);
+        properties.setThreshold(400);
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+
+        for (int i = 0; i < 2_000; i++) {
+            tracker.recordAccess("post_1");
+        }
+
+        assertThat(tracker.getHotKeys()).singleElement()
+                .satisfies(hotKey -> assertThat(hotKey.estimatedAccesses()).isBetween(1_000L, 3_000L));
+    }
+
+    @Test
+    @DisplayName("Should not track more hot keys than can be pinned")
+    void shouldBoundHotKeys() {
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+
+        for (String key : new String[] { "post_1", "post_2", "post_3" }) {
+            for (int i = 0; i < 10; i++) {
+                tracker.recordAccess(key);
+            }
+        }
+
+        assertThat(tracker.getHotKeyCount()).isEqualTo(2);
+        assertThat(tracker.recordAccess("post_3")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should forget keys whose traffic stopped once the window decays")
+    void shouldCoolDownIdleKeys() throws InterruptedException {
+        properties.setWindow(Duration.ofMillis(20));
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+        for (int i = 0; i < 10; i++) {
+            tracker.recordAccess("post_1");
+        }
+
+        for (int window = 0; window < 3; window++) {
+            Thread.sleep(25);
+            tracker.recordAccess("post_2");
+        }
+
+        assertThat(tracker.getHotKeys()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should serve and drop pinned values")
+    void shouldPinAndUnpin() {
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+        byte[] bytes = { 1, 2, 3 };
+
+        tracker.pin("post_1", bytes);
+
+        assertThat(tracker.getPinned("post_1")).isSameAs(bytes);
+        assertThat(tracker.getPinnedHitCount()).isEqualTo(1);
+
+        tracker.unpin("post_1");
+
+        assertThat(tracker.getPinned("post_1")).isNull();
+    }
+
+}
@@ -0,0 +1,399 @@
+package andrehsvictor.camly.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TieredCacheTest {
+
+    @Mock
+    private RedisCache redisCache;
+
+    @Mock
+    private RedisCacheWriter cacheWriter;
+
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    @Mock
+    private CacheLoadLease loadLease;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TieredCache tieredCache;
+
+    @BeforeEach
+    void setUp() {
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(SerializationPair.fromSerializer(new JdkSerializationRedisSerializer()));
+        lenient().when(redisCache.getCacheConfiguration()).thenReturn(configuration);
+        lenient().when(redisCache.getName()).thenReturn("posts");
+        lenient().when(redisCache.getNativeCache()).thenReturn(cacheWriter);
+
+        CacheProperties.Lease lease = new CacheProperties.Lease();
+        lease.setWait(Duration.ofMillis(200));
+        lease.setPollInterval(Duration.ofMillis(10));
+
+        tieredCache = new TieredCache(redisCache, Caffeine.newBuilder().maximumSize(10).build(),
+                invalidationPublisher, loadLease, lease, Duration.ofMinutes(1), connectionFactory,
+                new CacheKeyMetrics(meterRegistry, new CacheProperties()), null);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from the near tier")
+    void shouldServeRepeatedReadsFromNearTier() {
+        when(redisCache.get("post_1")).thenReturn(new SimpleValueWrapper("value"));
+
+        assertThat(tieredCache.get("post_1").get()).isEqualTo("value");
+        assertThat(tieredCache.get("post_1").get()).isEqualTo("value");
+
+        verify(redisCache, times(1)).get("post_1");
+    }
+
+    @Test
+    @DisplayName("Should hand out a fresh copy on every near-tier read")
+    void shouldHandOutFreshCopyOnEveryRead() {
+        when(redisCache.get("list")).thenReturn(new SimpleValueWrapper(new ArrayList<>(List.of(1))));
+
+        Object first = tieredCache.get("list").get();
+        Object second = tieredCache.get("list").get();
+
+        assertThat(first).isEqualTo(second).isNotSameAs(second);
+    }
+
+    @Test
+    @DisplayName("Should serve batched reads from the near tier without a Redis round trip")
+    void shouldServeBatchedReadsFromNearTier() {
+        when(redisCache.get("post_1")).thenReturn(new SimpleValueWrapper("one"));
+        when(redisCache.get("post_2")).thenReturn(new SimpleValueWrapper("two"));
+        tieredCache.get("post_1");
+        tieredCache.get("post_2");
+
+        Map<Object, Object> values = tieredCache.getAll(List.of("post_1", "post_2"));
+
+        assertThat(values).containsExactlyInAnyOrderEntriesOf(Map.of("post_1", "one", "post_2", "two"));
+        verifyNoInteractions(connectionFactory);
+    }
+
+    @Test
+    @DisplayName("Should fill only absent keys with a capped TTL and broadcast the written ones")
+    void shouldFillOnlyAbsentKeys() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.closePipeline()).thenReturn(List.of(true, false));
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put("post_1", "one");
+        entries.put("post_2", "two");
+        tieredCache.getNearCache().put("post_2", new byte[0]);
+
+        tieredCache.putAll(entries);
+
+        verify(stringCommands, times(2)).set(any(byte[].class), any(byte[].class),
+                eq(Expiration.from(Duration.ofMinutes(1))), eq(SetOption.ifAbsent()));
+        assertThat(tieredCache.getNearCache().getIfPresent("post_1")).isNotNull();
+        assertThat(tieredCache.getNearCache().getIfPresent("post_2")).isNull();
+        verify(invalidationPublisher).publishEvict("posts", "post_1");
+        verify(invalidationPublisher, never()).publishEvict("posts", "post_2");
+    }
+
+    @Test
+    @DisplayName("Should drop the near copy and broadcast on evict")
+    void shouldDropNearCopyAndBroadcastOnEvict() {
+        when(redisCache.get("post_1")).thenReturn(new SimpleValueWrapper("value"));
+        tieredCache.get("post_1");
+
+        tieredCache.evict("post_1");
+
+        assertThat(tieredCache.getNearCache().getIfPresent("post_1")).isNull();
+        verify(redisCache).evict("post_1");
+        verify(invalidationPublisher).publishEvict("posts", "post_1");
+    }
+
+    @Test
+    @DisplayName("Should only touch the near tier on remote invalidation")
+    void shouldOnlyTouchNearTierOnRemoteInvalidation() {
+        when(redisCache.get("post_1")).thenReturn(new SimpleValueWrapper("value"));
+        tieredCache.get("post_1");
+
+        tieredCache.evictLocal("post_1");
+
+        assertThat(tieredCache.getNearCache().getIfPresent("post_1")).isNull();
+        verify(redisCache, never()).evict(any());
+        verify(invalidationPublisher, never()).publishEvict(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep cached null markers in the near tier")
+    void shouldKeepNullMarkersInNearTier() {
+        when(redisCache.get("missing")).thenReturn(new SimpleValueWrapper(null));
+
+        assertThat(tieredCache.get("missing")).isNotNull();
+        assertThat(tieredCache.get("missing").get()).isNull();
+
+        verify(redisCache, times(1)).get("missing");
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight load between concurrent misses on the same key")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn("token");
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loaderCalls.incrementAndGet();
+            loaderStarted.countDown();
+            releaseLoader.await();
+            return "value";
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> tieredCache.get("post_1", loader));
+            loaderStarted.await();
+
+            List<Future<String>> others = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                others.add(executor.submit(() -> tieredCache.get("post_1", loader)));
+            }
+            while (tieredCache.getLocalCoalescedLoadCount() < 10) {
+                Thread.sleep(5);
+            }
+            releaseLoader.countDown();
+
+            assertThat(first.get()).isEqualTo("value");
+            for (Future<String> other : others) {
+                assertThat(other.get()).isEqualTo("value");
+            }
+        }
+
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(tieredCache.getLoadCount()).isEqualTo(1);
+        verifyWritten("post_1", "value");
+        verify(loadLease).release("posts", "post_1", "token");
+    }
+
+    @Test
+    @DisplayName("Should read Redis once and count one miss on an uncontended cold load")
+    void shouldReadRedisOnceOnColdLoad() {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn("token");
+
+        assertThat(tieredCache.get("post_1", () -> "value")).isEqualTo("value");
+
+        verify(redisCache, times(1)).get("post_1");
+        assertThat(count("cache.key.gets", "post", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reuse a value loaded between the miss and claiming the load")
+    void shouldReuseValueLoadedBeforeClaim() {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn("token");
+        AtomicInteger reads = new AtomicInteger();
+        when(redisCache.get("post_1")).thenAnswer(invocation -> {
+            switch (reads.incrementAndGet()) {
+                case 1 -> {
+                    // Another caller misses, loads and stores the value before this one claims the load
+                    Thread other = Thread.ofVirtual().start(() -> tieredCache.get("post_1", () -> "first"));
+                    other.join();
+                    return null;
+                }
+                case 2 -> {
+                    return null;
+                }
+                default -> {
+                    return new SimpleValueWrapper("first");
+                }
+            }
+        });
+
+        String value = tieredCache.get("post_1", () -> "second");
+
+        assertThat(value).isEqualTo("first");
+        assertThat(tieredCache.getLoadCount()).isEqualTo(1);
+        verify(redisCache, times(3)).get("post_1");
+        verifyWritten("post_1", "first");
+    }
+
+    @Test
+    @DisplayName("Should wait for the value loaded by the node holding the lease")
+    void shouldServeValueLoadedByLeaseHolder() {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn(null);
+        when(redisCache.get("post_1"))
+                .thenReturn(null)
+                .thenReturn(null)
+                .thenReturn(new SimpleValueWrapper("remote"));
+
+        String value = tieredCache.get("post_1", () -> "local");
+
+        assertThat(value).isEqualTo("remote");
+        assertThat(tieredCache.getRemoteCoalescedLoadCount()).isEqualTo(1);
+        assertThat(tieredCache.getLoadCount()).isZero();
+        verify(cacheWriter, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should load locally when the lease holder does not deliver in time")
+    void shouldLoadLocallyWhenLeaseHolderIsSlow() {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn(null);
+        when(redisCache.get("post_1")).thenReturn(null);
+
+        String value = tieredCache.get("post_1", () -> "local");
+
+        assertThat(value).isEqualTo("local");
+        assertThat(tieredCache.getLoadCount()).isEqualTo(1);
+        verifyWritten("post_1", "local");
+    }
+
+    @Test
+    @DisplayName("Should propagate loader failures to every coalesced caller")
+    void shouldPropagateLoaderFailure() {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn("token");
+        Callable<String> loader = () -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThatThrownBy(() -> tieredCache.get("post_1", loader))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        verify(loadLease).release("posts", "post_1", "token");
+        verify(cacheWriter, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should tag lookups, writes and evictions with the key family")
+    void shouldRecordOperationsByKeyFamily() {
+        when(redisCache.get("post_1")).thenReturn(null);
+        when(redisCache.get("liked_1_2")).thenReturn(new SimpleValueWrapper(true));
+
+        tieredCache.get("post_1");
+        tieredCache.get("liked_1_2");
+        tieredCache.put("post_1", "value");
+        tieredCache.evict("post_1");
+
+        assertThat(count("cache.key.gets", "post", "miss")).isEqualTo(1);
+        assertThat(count("cache.key.gets", "liked", "hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.key.puts").tag("family", "post").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.key.evictions").tag("family", "post").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.key.value.size").tag("family", "post").summary().totalAmount())
+                .isPositive();
+    }
+
+    @Test
+    @DisplayName("Should time loads of the key family that missed")
+    void shouldRecordLoadTimeByKeyFamily() {
+        when(loadLease.tryAcquire("posts", "post_1")).thenReturn("token");
+
+        tieredCache.get("post_1", () -> "value");
+
+        assertThat(meterRegistry.get("cache.key.loads").tags("cache", "posts", "family", "post").timer().count())
+                .isEqualTo(1);
+        assertThat(count("cache.key.gets", "post", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should encode a written value once for Redis, the near tier and the size metric")
+    void shouldEncodeWrittenValueOnce() {
+        AtomicInteger encodings = new AtomicInteger();
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer() {
+            @Override
+            public byte[] serialize(Object value) {
+                encodings.incrementAndGet();
+                return super.serialize(value);
+            }
+        };
+        when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(5))
+                .serializeValuesWith(SerializationPair.fromSerializer(serializer)));
+
+        tieredCache.put("post_1", "value");
+
+        assertThat(encodings).hasValue(1);
+        assertThat(tieredCache.get("post_1").get()).isEqualTo("value");
+        verify(cacheWriter).put(eq("posts"), eq("posts::post_1".getBytes(StandardCharsets.UTF_8)),
+                eq(new JdkSerializationRedisSerializer().serialize("value")), eq(Duration.ofMinutes(5)));
+        verify(redisCache, never()).get("post_1");
+    }
+
+    private void verifyWritten(String key, Object value) {
+        verify(cacheWriter).put(eq("posts"), eq(("posts::" + key).getBytes(StandardCharsets.UTF_8)),
+                eq(new JdkSerializationRedisSerializer().serialize(value)), any());
+    }
+
+    private double count(String name, String family, String result) {
+        return meterRegistry.get(name).tags("cache", "posts", "family", family, "result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should serve a hot key from its pin even without a near tier")
+    void shouldServeHotKeyFromPin() {
+        CacheProperties.HotKeys hotKeys = new CacheProperties.HotKeys();
+        hotKeys.setSampleRate(1);
+        hotKeys.setThreshold(3);
+        TieredCache cache = new TieredCache(redisCache, null, invalidationPublisher, loadLease,
+                new CacheProperties.Lease(), Duration.ofMinutes(1), connectionFactory,
+                new CacheKeyMetrics(meterRegistry, new CacheProperties()), new HotKeyTracker(hotKeys));
+        when(redisCache.get("post_1")).thenReturn(new SimpleValueWrapper("value"));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(cache.get("post_1").get()).isEqualTo("value");
+        }
+
+        verify(redisCache, times(3)).get("post_1");
+        assertThat(cache.getHotKeyTracker().getPinnedHitCount()).isEqualTo(7);
+
+        cache.evictLocal("post_1");
+        cache.get("post_1");
+
+        verify(redisCache, times(4)).get("post_1");
+    }
+
+}
@@ -0,0 +1,115 @@
+package andrehsvictor.camly.engagement;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+import andrehsvictor.camly.account.dto.CreateAccountDto;
+import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.PostDto;
+import andrehsvictor.camly.token.TokenService;
+import andrehsvictor.camly.token.dto.UsernamePasswordDto;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserService;
+
+public class EngagementRateIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EngagementRateUpdater engagementRateUpdater;
+
+    @Test
+    @DisplayName("Should recompute the engagement rate of an author's posts when they gain followers")
+    void shouldRecomputeEngagementRateWhenAuthorGainsFollowers() {
+        String authorToken = createUser("author");
+        UUID authorId = userService.getByEmail(emailOf(authorToken)).getId();
+        UUID postId = createPost(authorToken);
+        jdbcTemplate.update("UPDATE posts SET like_count = 6, engagement_rate = 6 WHERE id = ?", postId);
+
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .header("Authorization", "Bearer " + createUser("follower"))
+                    .when()
+                    .put("/api/v1/users/" + authorId + "/followers")
+                    .then()
+                    .statusCode(HttpStatus.NO_CONTENT.value());
+        }
+
+        engagementRateUpdater.recompute();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT engagement_rate FROM posts WHERE id = ?", Float.class, postId))
+                .isEqualTo(2f);
+    }
+
+    private String createUser(String prefix) {
+        String username = prefix + UUID.randomUUID().toString().substring(0, 8);
+        String email = username + "@example.com";
+        String password = "Test@123456";
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(CreateAccountDto.builder()
+                        .fullName("Engagement Test User")
+                        .username(username)
+                        .email(email)
+                        .password(password)
+                        .build())
+                .when()
+                .post("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        User user = userService.getByEmail(email);
+        user.setEmailVerified(true);
+        userService.save(user);
+        return tokenService.request(UsernamePasswordDto.builder()
+                .username(email)
+                .password(password)
+                .build()).getAccessToken();
+    }
+
+    private String emailOf(String accessToken) {
+        return given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .path("email");
+    }
+
+    private UUID createPost(String accessToken) {
+        PostDto postDto = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(CreatePostDto.builder()
+                        .caption("Engaging post")
+                        .imageUrl("https://example.com/engaging.jpg")
+                        .build())
+                .when()
+                .post("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .as(PostDto.class);
+        return UUID.fromString(postDto.getId());
+    }
+
+}
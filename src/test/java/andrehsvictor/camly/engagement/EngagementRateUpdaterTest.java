@@ -0,0 +1,98 @@
+package andrehsvictor.camly.engagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.user.FollowerCountChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementRateUpdaterTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private EngagementRateProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private EngagementRateUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EngagementRateProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        updater = new EngagementRateUpdater(properties, postRepository, meterRegistry);
+        updater.registerMeters();
+    }
+
+    @Test
+    @DisplayName("Should recompute an author followed many times once")
+    void shouldCoalesceBurstPerAuthor() {
+        UUID authorId = UUID.randomUUID();
+        when(postRepository.recomputeEngagementRates(any())).thenReturn(3);
+        for (int i = 0; i < 5; i++) {
+            updater.onFollowerCountChanged(new FollowerCountChangedEvent(authorId));
+        }
+
+        updater.recompute();
+
+        verify(postRepository, times(1)).recomputeEngagementRates(new UUID[] { authorId });
+        assertThat(updater.getPendingCount()).isZero();
+        assertThat(meterRegistry.get("engagement.rate.authors").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("engagement.rate.posts").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should recompute authors in batches")
+    void shouldRecomputeAuthorsInBatches() {
+        properties.setBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            updater.onFollowerCountChanged(new FollowerCountChangedEvent(UUID.randomUUID()));
+        }
+
+        updater.recompute();
+
+        ArgumentCaptor<UUID[]> batches = ArgumentCaptor.forClass(UUID[].class);
+        verify(postRepository, times(3)).recomputeEngagementRates(batches.capture());
+        assertThat(batches.getAllValues()).extracting(batch -> batch.length).containsExactly(2, 2, 1);
+        assertThat(meterRegistry.get("engagement.rate.batch").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep authors pending when a recomputation fails")
+    void shouldKeepAuthorsPendingWhenRecomputationFails() {
+        when(postRepository.recomputeEngagementRates(any())).thenThrow(new QueryTimeoutException("timeout"));
+        updater.onFollowerCountChanged(new FollowerCountChangedEvent(UUID.randomUUID()));
+
+        updater.recompute();
+
+        assertThat(updater.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should ignore follower changes when disabled")
+    void shouldIgnoreFollowerChangesWhenDisabled() {
+        properties.setEnabled(false);
+        updater.onFollowerCountChanged(new FollowerCountChangedEvent(UUID.randomUUID()));
+
+        updater.recompute();
+
+        verify(postRepository, never()).recomputeEngagementRates(any());
+    }
+
+}
@@ -0,0 +1,143 @@
+package andrehsvictor.camly.hot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import andrehsvictor.camly.post.LikeCounter;
+import andrehsvictor.camly.post.PostLikeChangedEvent;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.post.PostSnapshot;
+import andrehsvictor.camly.post.PostSnapshotCache;
+import andrehsvictor.camly.user.UserSnapshotCache;
+
+@ExtendWith(MockitoExtension.class)
+class HotRankingTest {
+
+    private static final String CHANNEL = "camly:hot-ranking:likes";
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostSnapshotCache postSnapshotCache;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private LikeCounter likeCounter;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private HotRanking hotRanking;
+
+    @BeforeEach
+    void setUp() {
+        HotRankingProperties properties = new HotRankingProperties();
+        hotRanking = new HotRanking(properties, Map.of("gravity", new GravityHotScorer(properties)), postRepository,
+                postSnapshotCache, userSnapshotCache, likeCounter, stringRedisTemplate, listenerContainer);
+    }
+
+    @Test
+    @DisplayName("Should rank a liked post and publish the like to the other nodes")
+    void shouldPublishLocalLikes() {
+        PostSnapshot post = post(3);
+        when(postSnapshotCache.getAll(List.of(post.id()))).thenReturn(List.of(post));
+
+        hotRanking.onPostLikeChanged(new PostLikeChangedEvent(post.id(), 1));
+
+        assertThat(top()).containsExactly(post.id());
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), message.capture());
+        assertThat(message.getValue()).endsWith("\n" + post.id() + "\n1");
+    }
+
+    @Test
+    @DisplayName("Should rank posts liked on other nodes, but not its own likes twice")
+    void shouldApplyLikesFromOtherNodes() {
+        PostSnapshot local = post(5);
+        PostSnapshot remote = post(3);
+        when(postSnapshotCache.getAll(any())).thenAnswer(invocation -> List.of(
+                invocation.<List<UUID>>getArgument(0).get(0).equals(local.id()) ? local : remote));
+        hotRanking.onPostLikeChanged(new PostLikeChangedEvent(local.id(), 1));
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+
+        String nodeId = published.getValue().split("\n")[0];
+
+        hotRanking.onMessage(message(nodeId + "\n" + local.id() + "\n10"), null);
+        hotRanking.onMessage(message("other-node\n" + remote.id() + "\n1"), null);
+        hotRanking.onMessage(message("other-node\n" + remote.id() + "\n4"), null);
+
+        assertThat(top()).containsExactly(remote.id(), local.id());
+    }
+
+    @Test
+    @DisplayName("Should ignore malformed messages")
+    void shouldIgnoreMalformedMessages() {
+        hotRanking.onMessage(message("other-node\nnot-a-uuid\n1"), null);
+        hotRanking.onMessage(message("other-node"), null);
+
+        assertThat(top()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should age a liked post by its instant, whatever the JVM's zone")
+    void shouldAgePostsByInstant() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            LocalDateTime createdAt = LocalDateTime.now().minusDays(7).plusHours(1);
+            PostSnapshot post = new PostSnapshot(UUID.randomUUID(), "https://example.com/image.jpg", "Old post", 0,
+                    UUID.randomUUID(), createdAt, createdAt);
+            when(postSnapshotCache.getAll(List.of(post.id()))).thenReturn(List.of(post));
+
+            hotRanking.onPostLikeChanged(new PostLikeChangedEvent(post.id(), 1));
+
+            assertThat(top()).containsExactly(post.id());
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    private List<UUID> top() {
+        return hotRanking.getTop(PageRequest.of(0, 10)).ids();
+    }
+
+    private static PostSnapshot post(int likeCount) {
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        return new PostSnapshot(UUID.randomUUID(), "https://example.com/image.jpg", "Hot post", likeCount,
+                UUID.randomUUID(), createdAt, createdAt);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
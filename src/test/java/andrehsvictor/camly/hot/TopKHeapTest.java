@@ -0,0 +1,126 @@
+package andrehsvictor.camly.hot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TopKHeapTest {
+
+    private static final long NOW = 1_800_000_000L;
+
+    // Likes only, so expected rankings are easy to state
+    private final HotScorer likes = (likeCount, engagementRate, ageHours) -> likeCount;
+
+    @Test
+    @DisplayName("Should keep only the highest scored posts, best first")
+    void shouldKeepHighestScoredPosts() {
+        TopKHeap heap = new TopKHeap(3, likes);
+        List<UUID> ids = ids(5);
+        for (int i = 0; i < ids.size(); i++) {
+            heap.offer(ids.get(i), i, 0, NOW, NOW);
+        }
+
+        assertThat(heap.size()).isEqualTo(3);
+        assertThat(heap.top(0, 10)).containsExactly(ids.get(4), ids.get(3), ids.get(2));
+        assertThat(heap.top(1, 1)).containsExactly(ids.get(3));
+    }
+
+    @Test
+    @DisplayName("Should reject a post that scores no better than the lowest ranked one")
+    void shouldRejectPostScoringBelowLowest() {
+        TopKHeap heap = new TopKHeap(2, likes);
+        List<UUID> ids = ids(3);
+        heap.offer(ids.get(0), 5, 0, NOW, NOW);
+        heap.offer(ids.get(1), 7, 0, NOW, NOW);
+
+        assertThat(heap.offer(ids.get(2), 5, 0, NOW, NOW)).isFalse();
+        assertThat(heap.contains(ids.get(2))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should move a ranked post when it gains or loses likes")
+    void shouldMoveRankedPostOnLikes() {
+        TopKHeap heap = new TopKHeap(3, likes);
+        List<UUID> ids = ids(3);
+        for (int i = 0; i < ids.size(); i++) {
+            heap.offer(ids.get(i), 10 * (i + 1), 0, NOW, NOW);
+        }
+
+        assertThat(heap.addLikes(ids.get(0), 25, NOW)).isTrue();
+        assertThat(heap.top(0, 3)).containsExactly(ids.get(0), ids.get(2), ids.get(1));
+
+        heap.addLikes(ids.get(0), -35, NOW);
+        assertThat(heap.top(0, 3)).containsExactly(ids.get(2), ids.get(1), ids.get(0));
+        assertThat(heap.addLikes(UUID.randomUUID(), 1, NOW)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should rank newer posts above older ones with as many likes")
+    void shouldRankNewerPostsHigher() {
+        HotRankingProperties properties = new HotRankingProperties();
+        TopKHeap heap = new TopKHeap(2, new GravityHotScorer(properties));
+        UUID older = UUID.randomUUID();
+        UUID newer = UUID.randomUUID();
+        heap.offer(older, 50, 100, NOW - Duration.ofDays(1).toSeconds(), NOW);
+        heap.offer(newer, 50, 100, NOW - Duration.ofHours(1).toSeconds(), NOW);
+
+        assertThat(heap.top(0, 2)).containsExactly(newer, older);
+    }
+
+    @Test
+    @DisplayName("Should drop posts past the cutoff when rescoring")
+    void shouldDropExpiredPostsWhenRescoring() {
+        TopKHeap heap = new TopKHeap(3, likes);
+        List<UUID> ids = ids(3);
+        heap.offer(ids.get(0), 1, 0, NOW - 100, NOW);
+        heap.offer(ids.get(1), 3, 0, NOW, NOW);
+        heap.offer(ids.get(2), 2, 0, NOW, NOW);
+
+        heap.rescore(NOW + 10, NOW - 50);
+
+        assertThat(heap.size()).isEqualTo(2);
+        assertThat(heap.contains(ids.get(0))).isFalse();
+        assertThat(heap.top(0, 3)).containsExactly(ids.get(1), ids.get(2));
+    }
+
+    @Test
+    @DisplayName("Should match a full sort after random updates")
+    void shouldMatchFullSortAfterRandomUpdates() {
+        TopKHeap heap = new TopKHeap(50, likes);
+        List<UUID> ids = ids(500);
+        long[] likeCounts = new long[ids.size()];
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int post = random.nextInt(ids.size());
+            likeCounts[post] += random.nextInt(5);
+            heap.offer(ids.get(post), likeCounts[post], 0, NOW, NOW);
+        }
+
+        List<Long> expected = new ArrayList<>();
+        for (long likeCount : likeCounts) {
+            expected.add(likeCount);
+        }
+        expected.sort(Comparator.reverseOrder());
+        List<Long> ranked = heap.top(0, 50).stream()
+                .map(id -> likeCounts[ids.indexOf(id)])
+                .toList();
+        assertThat(ranked).isEqualTo(expected.subList(0, 50));
+    }
+
+    private static List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+}
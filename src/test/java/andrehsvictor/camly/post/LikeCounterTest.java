@@ -0,0 +1,232 @@
+package andrehsvictor.camly.post;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import andrehsvictor.camly.cache.TieredCacheManager;
+
+@ExtendWith(MockitoExtension.class)
+class LikeCounterTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private TieredCacheManager cacheManager;
+
+    @Mock
+    private Cache postsCache;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private LikeCountProperties properties;
+    private LikeCounter likeCounter;
+    private UUID postId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LikeCountProperties();
+        likeCounter = new LikeCounter(properties, postRepository, cacheManager, stringRedisTemplate);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        postId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply a delta only once its transaction commits")
+    void shouldApplyDeltaAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        likeCounter.add(postId, 1);
+        assertThat(likeCounter.getPending(postId)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(likeCounter.getPending(postId)).isEqualTo(1);
+        verify(postRepository, never()).addToLikeCount(any(), eq(1), any());
+    }
+
+    @Test
+    @DisplayName("Should flush the pending deltas of many posts in one update")
+    void shouldFlushPendingDeltasInOneUpdate() {
+        UUID otherPostId = UUID.randomUUID();
+        when(cacheManager.getCache("posts")).thenReturn(postsCache);
+        likeCounter.add(postId, 1);
+        likeCounter.add(postId, 1);
+        likeCounter.add(otherPostId, -1);
+
+        likeCounter.flush();
+
+        ArgumentCaptor<UUID[]> ids = ArgumentCaptor.forClass(UUID[].class);
+        ArgumentCaptor<int[]> deltas = ArgumentCaptor.forClass(int[].class);
+        verify(postRepository).addToLikeCounts(ids.capture(), deltas.capture(), any(LocalDateTime.class));
+        for (int i = 0; i < ids.getValue().length; i++) {
+            assertThat(deltas.getValue()[i]).isEqualTo(ids.getValue()[i].equals(postId) ? 2 : -1);
+        }
+        assertThat(likeCounter.getPending(postId)).isZero();
+        assertThat(likeCounter.getPending(otherPostId)).isZero();
+        verify(postsCache).evict("post_" + postId);
+        verify(postsCache).evict("post_" + otherPostId);
+    }
+
+    @Test
+    @DisplayName("Should keep pending deltas when a flush fails")
+    void shouldKeepPendingDeltasWhenFlushFails() {
+        likeCounter.add(postId, 1);
+        when(postRepository.addToLikeCounts(any(), any(), any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        likeCounter.flush();
+
+        assertThat(likeCounter.getPending(postId)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop posts whose deltas cancel out")
+    void shouldDropPostsWhoseDeltasCancelOut() {
+        likeCounter.add(postId, 1);
+        likeCounter.add(postId, -1);
+
+        likeCounter.flush();
+
+        verify(postRepository, never()).addToLikeCounts(any(), any(), any());
+        assertThat(likeCounter.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should update the count right away when write-behind is disabled")
+    void shouldUpdateCountRightAwayWhenWriteBehindDisabled() {
+        properties.setWriteBehind(false);
+
+        likeCounter.add(postId, 1);
+
+        verify(postRepository).addToLikeCount(eq(postId), eq(1), any(LocalDateTime.class));
+        assertThat(likeCounter.getPending(postId)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should mark posts as changed when a delta is recorded and when it is flushed")
+    void shouldMarkChangedPosts() {
+        likeCounter.add(postId, 1);
+        likeCounter.flush();
+
+        ArgumentCaptor<Set<TypedTuple<String>>> marked = ArgumentCaptor.captor();
+        verify(zSetOperations, times(2)).add(eq("camly:{like-count}:changed"), marked.capture());
+        verify(zSetOperations, times(2)).addIfAbsent(eq("camly:{like-count}:waiting"), marked.capture());
+        assertThat(marked.getAllValues()).allSatisfy(members -> assertThat(members)
+                .extracting(TypedTuple::getValue).containsExactly(postId.toString()));
+    }
+
+    @Test
+    @DisplayName("Should recount only settled posts and unmark them under the reconciliation lock")
+    void shouldReconcileSettledPosts() {
+        UUID otherPostId = UUID.randomUUID();
+        properties.setReconcileSettleTime(Duration.ofMinutes(1));
+        when(cacheManager.getCache("posts")).thenReturn(postsCache);
+        when(valueOperations.setIfAbsent(eq("camly:{like-count}:reconcile"), any(), eq(properties.getReconcileLockTtl())))
+                .thenReturn(true);
+        long before = System.currentTimeMillis();
+        when(zSetOperations.rangeByScore(eq("camly:{like-count}:changed"), eq(Double.NEGATIVE_INFINITY), anyDouble(),
+                eq(0L), eq(1_000L)))
+                .thenReturn(new LinkedHashSet<>(List.of(postId.toString(), otherPostId.toString())));
+        when(postRepository.reconcileLikeCounts(any(), any())).thenReturn(List.of(otherPostId));
+
+        likeCounter.reconcile();
+
+        ArgumentCaptor<Double> settledAt = ArgumentCaptor.forClass(Double.class);
+        verify(zSetOperations).rangeByScore(eq("camly:{like-count}:changed"), eq(Double.NEGATIVE_INFINITY),
+                settledAt.capture(), anyLong(), anyLong());
+        assertThat(settledAt.getValue()).isBetween(before - 60_000.0, System.currentTimeMillis() - 60_000.0);
+        verify(postRepository).reconcileLikeCounts(eq(new UUID[] { postId, otherPostId }), any(LocalDateTime.class));
+        verify(postsCache).evict("post_" + otherPostId);
+        verify(postsCache, never()).evict("post_" + postId);
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(List.of("camly:{like-count}:changed", "camly:{like-count}:waiting")), any(), any(),
+                eq(postId.toString()), eq(otherPostId.toString()));
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of("camly:{like-count}:reconcile")), any());
+    }
+
+    @Test
+    @DisplayName("Should recount a post that never settles once it has waited the max wait")
+    void shouldReconcileOverduePosts() {
+        properties.setReconcileMaxWait(Duration.ofMinutes(10));
+        when(valueOperations.setIfAbsent(eq("camly:{like-count}:reconcile"), any(), eq(properties.getReconcileLockTtl())))
+                .thenReturn(true);
+        long before = System.currentTimeMillis();
+        when(zSetOperations.rangeByScore(eq("camly:{like-count}:changed"), eq(Double.NEGATIVE_INFINITY), anyDouble(),
+                eq(0L), eq(1_000L)))
+                .thenReturn(Set.of());
+        when(zSetOperations.rangeByScore(eq("camly:{like-count}:waiting"), eq(Double.NEGATIVE_INFINITY), anyDouble(),
+                eq(0L), eq(1_000L)))
+                .thenReturn(new LinkedHashSet<>(List.of(postId.toString())));
+        when(postRepository.reconcileLikeCounts(any(), any())).thenReturn(List.of());
+
+        likeCounter.reconcile();
+
+        ArgumentCaptor<Double> overdueAt = ArgumentCaptor.forClass(Double.class);
+        verify(zSetOperations).rangeByScore(eq("camly:{like-count}:waiting"), eq(Double.NEGATIVE_INFINITY),
+                overdueAt.capture(), anyLong(), anyLong());
+        assertThat(overdueAt.getValue()).isBetween(before - 600_000.0, System.currentTimeMillis() - 600_000.0);
+        verify(postRepository).reconcileLikeCounts(eq(new UUID[] { postId }), any(LocalDateTime.class));
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(List.of("camly:{like-count}:changed", "camly:{like-count}:waiting")), any(), any(),
+                eq(postId.toString()));
+    }
+
+    @Test
+    @DisplayName("Should leave reconciliation to the node holding the lock")
+    void shouldSkipReconciliationWithoutLock() {
+        when(valueOperations.setIfAbsent(any(), any(), any(Duration.class))).thenReturn(false);
+
+        likeCounter.reconcile();
+
+        verify(zSetOperations, never()).rangeByScore(any(), anyDouble(), anyDouble(), anyLong(), anyLong());
+        verify(postRepository, never()).reconcileLikeCounts(any(), any());
+    }
+
+}
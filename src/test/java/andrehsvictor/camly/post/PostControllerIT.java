@@ -1,15 +1,21 @@
 package andrehsvictor.camly.post;
 
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,11 +29,14 @@ import andrehsvictor.camly.account.dto.CreateAccountDto;
 import andrehsvictor.camly.post.dto.CreatePostDto;
 import andrehsvictor.camly.post.dto.PostDto;
 import andrehsvictor.camly.post.dto.UpdatePostDto;
+import andrehsvictor.camly.search.PostSearchIndex;
 import andrehsvictor.camly.token.TokenService;
 import andrehsvictor.camly.token.dto.TokenDto;
 import andrehsvictor.camly.token.dto.UsernamePasswordDto;
 import andrehsvictor.camly.user.User;
 import andrehsvictor.camly.user.UserService;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
 
 public class PostControllerIT extends AbstractIntegrationTest {
 
@@ -40,6 +49,9 @@ public class PostControllerIT extends AbstractIntegrationTest {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
     private String accessToken;
     private User testUser;
     private UUID postId;
@@ -174,6 +186,59 @@ public class PostControllerIT extends AbstractIntegrationTest {
                 .body("likeCount", equalTo(0));
     }
 
+    @Test
+    @DisplayName("Should like and unlike post idempotently")
+    void shouldLikeAndUnlikePostIdempotently() {
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header("Authorization", "Bearer " + accessToken)
+                    .when()
+                    .post("/api/v1/posts/" + postId + "/likes")
+                    .then()
+                    .statusCode(HttpStatus.NO_CONTENT.value());
+        }
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("liked", equalTo(true))
+                .body("likeCount", equalTo(1));
+
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header("Authorization", "Bearer " + accessToken)
+                    .when()
+                    .delete("/api/v1/posts/" + postId + "/likes")
+                    .then()
+                    .statusCode(HttpStatus.NO_CONTENT.value());
+        }
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("liked", equalTo(false))
+                .body("likeCount", equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Should return not found when liking non-existent post")
+    void shouldReturnNotFoundWhenLikingNonExistentPost() {
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .post("/api/v1/posts/" + UUID.randomUUID() + "/likes")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
     @Test
     @DisplayName("Should update post successfully")
     void shouldUpdatePostSuccessfully() {
@@ -213,6 +278,48 @@ public class PostControllerIT extends AbstractIntegrationTest {
                 .body("updatedAt", notNullValue());
     }
 
+    @Test
+    @DisplayName("Should answer not modified while the post and its liked state are unchanged")
+    void shouldAnswerNotModifiedForUnchangedPost() {
+        String eTag = given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", notNullValue())
+                .header("Last-Modified", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", equalTo(eTag))
+                .body(emptyString());
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .put("/api/v1/posts/" + postId + "/likes")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", not(equalTo(eTag)))
+                .body("liked", equalTo(true));
+    }
+
     @Test
     @DisplayName("Should get all posts with pagination")
     void shouldGetAllPostsWithPagination() {
@@ -318,6 +425,92 @@ public class PostControllerIT extends AbstractIntegrationTest {
                 .body("content[0].user.id", equalTo(testUser.getId().toString()));
     }
 
+    @Test
+    @DisplayName("Should page through user posts by cursor exactly once, newest first")
+    void shouldPagePostsByUserIdByCursor() {
+        for (int i = 0; i < 4; i++) {
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header("Authorization", "Bearer " + accessToken)
+                    .body(CreatePostDto.builder()
+                            .caption("Cursor post " + i)
+                            .imageUrl("https://example.com/cursor.jpg")
+                            .build())
+                    .when()
+                    .post("/api/v1/posts")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value());
+        }
+
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        do {
+            RequestSpecification request = given()
+                    .header("Authorization", "Bearer " + accessToken)
+                    .queryParam("limit", 2);
+            if (after != null) {
+                request.queryParam("after", after);
+            }
+            JsonPath page = request
+                    .when()
+                    .get("/api/v1/users/" + testUser.getId() + "/posts")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("totalElements", nullValue())
+                    .extract()
+                    .jsonPath();
+            ids.addAll(page.getList("content.id"));
+            after = page.getString("nextCursor");
+        } while (after != null);
+
+        assertThat(ids).hasSize(5).doesNotHaveDuplicates().endsWith(postId.toString());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed posts cursor")
+    void shouldRejectMalformedPostsCursor() {
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .queryParam("limit", 10)
+                .queryParam("after", "not-a-cursor")
+                .when()
+                .get("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("Should find a new post by hashtag prefix through the search index")
+    void shouldSearchPostsThroughIndex() throws InterruptedException {
+        awaitSearchIndex();
+        String hashtag = "tag" + UUID.randomUUID().toString().replace("-", "");
+        PostDto post = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(CreatePostDto.builder()
+                        .caption("Indexed post #" + hashtag)
+                        .imageUrl("https://example.com/indexed.jpg")
+                        .build())
+                .when()
+                .post("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .as(PostDto.class);
+        postSearchIndex.refresh();
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .queryParam("q", "#" + hashtag.substring(0, 20) + "*")
+                .when()
+                .get("/api/v1/posts/search")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("totalElements", equalTo(1))
+                .body("content[0].id", equalTo(post.getId()))
+                .body("content[0].user.id", equalTo(testUser.getId().toString()));
+    }
+
     @Test
     @DisplayName("Should delete post successfully")
     void shouldDeletePostSuccessfully() {
@@ -494,4 +687,13 @@ public class PostControllerIT extends AbstractIntegrationTest {
                 .body("message", containsString("Validation failed"))
                 .body("errors", notNullValue());
     }
-}
\ No newline at end of file
+
+    // Searches go to the database until the index has been built once
+    private void awaitSearchIndex() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!postSearchIndex.isReady() && !postSearchIndex.rebuild() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+}
@@ -0,0 +1,341 @@
+package andrehsvictor.camly.post;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+import andrehsvictor.camly.account.dto.CreateAccountDto;
+import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.PostDto;
+import andrehsvictor.camly.token.TokenService;
+import andrehsvictor.camly.token.dto.UsernamePasswordDto;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserService;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Liking and reading a post must cost the same whether it has no likers or
+ * thousands, and its likers are listed page by page.
+ */
+public class PostLikeScalingIT extends AbstractIntegrationTest {
+
+    private static final int LIKERS = 5_000;
+    private static final int FOLLOWERS = 4;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    @Autowired
+    private LikeCountProperties likeCountProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private String accessToken;
+    private UUID popularPostId;
+    private UUID freshPostId;
+
+    @BeforeEach
+    void setupPosts() {
+        String username = "likeuser" + System.currentTimeMillis();
+        String password = "Test@123456";
+
+        CreateAccountDto accountDto = CreateAccountDto.builder()
+                .fullName("Like Test User")
+                .username(username)
+                .email(username + "@example.com")
+                .password(password)
+                .build();
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(accountDto)
+                .when()
+                .post("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        User user = userService.getByEmail(accountDto.getEmail());
+        user.setEmailVerified(true);
+        user.setFollowerCount(FOLLOWERS);
+        userService.save(user);
+
+        accessToken = tokenService.request(UsernamePasswordDto.builder()
+                .username(accountDto.getEmail())
+                .password(password)
+                .build()).getAccessToken();
+
+        popularPostId = createPost("Popular post");
+        freshPostId = createPost("Fresh post");
+
+        String likerPrefix = "liker" + System.nanoTime() + "_";
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, provider, full_name)
+                SELECT ? || n, ? || n || '@example.com', 'LOCAL', 'Liker'
+                FROM generate_series(1, ?) AS n
+                """, likerPrefix, likerPrefix, LIKERS);
+        jdbcTemplate.update("""
+                INSERT INTO likes (user_id, post_id)
+                SELECT id, ? FROM users WHERE username LIKE ?
+                """, popularPostId, likerPrefix + "%");
+        jdbcTemplate.update("UPDATE posts SET like_count = ? WHERE id = ?", LIKERS, popularPostId);
+    }
+
+    @Test
+    @DisplayName("Should like a post with thousands of likers as cheaply as a post with none")
+    void shouldLikePopularPostAsCheaplyAsFreshPost() {
+        Statistics popular = like(popularPostId);
+        long popularStatements = popular.getPrepareStatementCount();
+        long popularEntityLoads = popular.getEntityLoadCount();
+
+        Statistics fresh = like(freshPostId);
+
+        assertThat(popularStatements).isEqualTo(fresh.getPrepareStatementCount());
+        assertThat(popularEntityLoads).isEqualTo(fresh.getEntityLoadCount()).isLessThan(LIKERS);
+        likeCounter.flush();
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM posts WHERE id = ?", Integer.class,
+                popularPostId)).isEqualTo(LIKERS + 1);
+    }
+
+    @Test
+    @DisplayName("Should keep the engagement rate in step with the like count")
+    void shouldKeepEngagementRateInStepWithLikeCount() {
+        like(freshPostId);
+        likeCounter.flush();
+        assertThat(engagementRate(freshPostId)).isEqualTo(1f / FOLLOWERS);
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .delete("/api/v1/posts/" + freshPostId + "/likes")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+        likeCounter.flush();
+        assertThat(engagementRate(freshPostId)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count concurrent likes once they are flushed")
+    void shouldCountConcurrentLikesOnceFlushed() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tokens.add(createLiker());
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(tokens.size())) {
+            List<Future<?>> likes = new ArrayList<>();
+            for (String token : tokens) {
+                likes.add(executor.submit(() -> given()
+                        .header("Authorization", "Bearer " + token)
+                        .when()
+                        .post("/api/v1/posts/" + freshPostId + "/likes")
+                        .then()
+                        .statusCode(HttpStatus.NO_CONTENT.value())));
+            }
+            for (Future<?> like : likes) {
+                like.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + freshPostId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("likeCount", equalTo(tokens.size()));
+
+        likeCounter.flush();
+        assertThat(likeCounter.getPending(freshPostId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM posts WHERE id = ?", Integer.class,
+                freshPostId)).isEqualTo(tokens.size());
+    }
+
+    @Test
+    @DisplayName("Should recount a drifted like count from the likes")
+    void shouldRecountDriftedLikeCount() {
+        jdbcTemplate.update("UPDATE posts SET like_count = 7 WHERE id = ?", popularPostId);
+        String changedKey = likeCountProperties.getKeyPrefix() + "changed";
+        stringRedisTemplate.opsForZSet().add(changedKey, popularPostId.toString(), 0);
+
+        likeCounter.reconcile();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM posts WHERE id = ?", Integer.class,
+                popularPostId)).isEqualTo(LIKERS);
+        assertThat(stringRedisTemplate.opsForZSet().score(changedKey, popularPostId.toString())).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read a post with thousands of likers without loading them")
+    void shouldReadPopularPostWithoutLoadingLikers() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cacheManager.getCache("posts").evict("post_" + popularPostId);
+        statistics.clear();
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + popularPostId)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("likeCount", equalTo(LIKERS));
+
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should page through every liker exactly once")
+    void shouldPageThroughEveryLikerExactlyOnce() {
+        Set<String> likers = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            RequestSpecification request = given()
+                    .header("Authorization", "Bearer " + accessToken)
+                    .queryParam("limit", 100);
+            if (cursor != null) {
+                request.queryParam("after", cursor);
+            }
+            JsonPath page = request
+                    .when()
+                    .get("/api/v1/posts/" + popularPostId + "/likes")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract()
+                    .jsonPath();
+            List<String> ids = page.getList("content.user.id");
+            assertThat(ids).hasSizeLessThanOrEqualTo(100);
+            likers.addAll(ids);
+            cursor = page.getString("nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        assertThat(likers).hasSize(LIKERS);
+        assertThat(pages).isEqualTo(LIKERS / 100);
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed likes cursor")
+    void shouldRejectMalformedLikesCursor() {
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .queryParam("after", "not-a-cursor")
+                .when()
+                .get("/api/v1/posts/" + popularPostId + "/likes")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private float engagementRate(UUID postId) {
+        return jdbcTemplate.queryForObject("SELECT engagement_rate FROM posts WHERE id = ?", Float.class, postId);
+    }
+
+    private Statistics like(UUID postId) {
+        // Read first so both likes start from a cached snapshot
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/posts/" + postId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long startedAt = System.nanoTime();
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .post("/api/v1/posts/" + postId + "/likes")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        System.out.printf("Like on %s took %.2f ms, %d statements, %d entities loaded%n", postId,
+                (System.nanoTime() - startedAt) / 1e6, statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount());
+        return statistics;
+    }
+
+    private String createLiker() {
+        String username = "concurrentliker" + UUID.randomUUID().toString().substring(0, 8);
+        String password = "Test@123456";
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(CreateAccountDto.builder()
+                        .fullName("Concurrent Liker")
+                        .username(username)
+                        .email(username + "@example.com")
+                        .password(password)
+                        .build())
+                .when()
+                .post("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        User user = userService.getByEmail(username + "@example.com");
+        user.setEmailVerified(true);
+        userService.save(user);
+        return tokenService.request(UsernamePasswordDto.builder()
+                .username(username + "@example.com")
+                .password(password)
+                .build()).getAccessToken();
+    }
+
+    private UUID createPost(String caption) {
+        PostDto postDto = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(CreatePostDto.builder()
+                        .caption(caption)
+                        .imageUrl("https://example.com/" + UUID.randomUUID() + ".jpg")
+                        .build())
+                .when()
+                .post("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .as(PostDto.class);
+        return UUID.fromString(postDto.getId());
+    }
+
+}
@@ -0,0 +1,150 @@
+package andrehsvictor.camly.post;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+import andrehsvictor.camly.account.dto.CreateAccountDto;
+import andrehsvictor.camly.token.TokenService;
+import andrehsvictor.camly.token.dto.UsernamePasswordDto;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Listing a page of posts must cost a fixed number of statements however
+ * many authors the page has.
+ */
+public class PostListingQueriesIT extends AbstractIntegrationTest {
+
+    private static final int PAGE_SIZE = 20;
+    // Search IDs, count, hydration of the posts and their authors, liked state
+    private static final long MAX_STATEMENTS_PER_PAGE = 5;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String accessToken;
+    private String manyAuthorsCaption;
+    private String singleAuthorCaption;
+
+    @BeforeEach
+    void setupPosts() {
+        String username = "listinguser" + System.currentTimeMillis();
+        String password = "Test@123456";
+
+        CreateAccountDto accountDto = CreateAccountDto.builder()
+                .fullName("Listing Test User")
+                .username(username)
+                .email(username + "@example.com")
+                .password(password)
+                .build();
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(accountDto)
+                .when()
+                .post("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        User user = userService.getByEmail(accountDto.getEmail());
+        user.setEmailVerified(true);
+        userService.save(user);
+
+        accessToken = tokenService.request(UsernamePasswordDto.builder()
+                .username(accountDto.getEmail())
+                .password(password)
+                .build()).getAccessToken();
+
+        // Inserted directly so that neither the posts nor their authors are cached
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        manyAuthorsCaption = "many" + suffix;
+        singleAuthorCaption = "single" + suffix;
+        String authorPrefix = "author" + suffix.substring(0, 12) + "_";
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, provider, full_name)
+                SELECT ? || n, ? || n || '@example.com', 'LOCAL', 'Author'
+                FROM generate_series(1, ?) AS n
+                """, authorPrefix, authorPrefix, PAGE_SIZE);
+        jdbcTemplate.update("""
+                INSERT INTO posts (image_url, caption, user_id)
+                SELECT 'https://example.com/image.jpg', ?, id FROM users WHERE username LIKE ?
+                """, manyAuthorsCaption, authorPrefix + "%");
+        jdbcTemplate.update("""
+                INSERT INTO posts (image_url, caption, user_id)
+                SELECT 'https://example.com/image.jpg', ?, ? FROM generate_series(1, ?)
+                """, singleAuthorCaption, user.getId(), PAGE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should list a page of posts by many authors in as many statements as by one")
+    void shouldListPostsByManyAuthorsInConstantStatements() {
+        long manyAuthors = statementsToList(manyAuthorsCaption);
+        long singleAuthor = statementsToList(singleAuthorCaption);
+
+        assertThat(manyAuthors).isEqualTo(singleAuthor).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    @DisplayName("Should list a cached page of posts without loading any entity")
+    void shouldListCachedPageWithoutLoadingEntities() {
+        statementsToList(manyAuthorsCaption);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .queryParam("q", manyAuthorsCaption)
+                .queryParam("size", PAGE_SIZE)
+                .when()
+                .get("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content", hasSize(PAGE_SIZE));
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private long statementsToList(String caption) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .queryParam("q", caption)
+                .queryParam("size", PAGE_SIZE)
+                .when()
+                .get("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content", hasSize(PAGE_SIZE))
+                .body("content.user.username", hasSize(PAGE_SIZE));
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        return statistics.getPrepareStatementCount();
+    }
+
+}
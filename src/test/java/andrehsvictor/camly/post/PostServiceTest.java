@@ -3,16 +3,23 @@ package andrehsvictor.camly.post;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TimeZone;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -22,19 +29,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import andrehsvictor.camly.cache.CacheNamespaces;
+import andrehsvictor.camly.cache.IdPage;
 import andrehsvictor.camly.exception.ForbiddenOperationException;
 import andrehsvictor.camly.exception.ResourceNotFoundException;
+import andrehsvictor.camly.hot.HotRanking;
 import andrehsvictor.camly.jwt.JwtService;
 import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.LikeDto;
 import andrehsvictor.camly.post.dto.PostDto;
 import andrehsvictor.camly.post.dto.UpdatePostDto;
+import andrehsvictor.camly.search.PostSearchIndex;
+import andrehsvictor.camly.trending.TrendingPosts;
 import andrehsvictor.camly.user.User;
 import andrehsvictor.camly.user.UserService;
+import andrehsvictor.camly.user.UserSnapshot;
+import andrehsvictor.camly.user.UserSnapshotCache;
+import andrehsvictor.camly.util.CursorPage;
+import andrehsvictor.camly.util.KeysetCursor;
 
 @ExtendWith(MockitoExtension.class)
 class PostServiceTest {
@@ -51,6 +72,33 @@ class PostServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private CacheNamespaces cacheNamespaces;
+
+    @Mock
+    private PostSnapshotCache postSnapshotCache;
+
+    @Mock
+    private LikedPostCache likedPostCache;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private LikeCounter likeCounter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TrendingPosts trendingPosts;
+
+    @Mock
+    private HotRanking hotRanking;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
     @InjectMocks
     private PostService postService;
 
@@ -95,7 +143,6 @@ class PostServiceTest {
         testPost.setUser(currentUser);
         testPost.setLikeCount(5);
         testPost.setEngagementRate(0.5f);
-        testPost.setLikes(new HashSet<>());
 
         // Setup DTOs
         createPostDto = CreatePostDto.builder()
@@ -111,6 +158,8 @@ class PostServiceTest {
         testPostDto.setId(postId.toString());
         testPostDto.setCaption("Test Caption");
         testPostDto.setImageUrl("https://example.com/image.jpg");
+
+        ReflectionTestUtils.setField(postService, "self", postService);
     }
 
     @Test
@@ -136,21 +185,83 @@ class PostServiceTest {
                 .hasMessageContaining("Post not found with ID: '" + postId + "'");
     }
 
+    @Test
+    @DisplayName("Should get post snapshot by id without entity collections")
+    void shouldGetPostSnapshotById() {
+        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
+
+        PostSnapshot result = postService.getSnapshotById(postId);
+
+        assertThat(result.id()).isEqualTo(postId);
+        assertThat(result.caption()).isEqualTo(testPost.getCaption());
+        assertThat(result.userId()).isEqualTo(currentUserId);
+        verify(postRepository, times(1)).findById(postId);
+    }
+
     @Test
     @DisplayName("Should get all posts with filters")
     void shouldGetAllPostsWithFilters() {
-        String query = "test";
         String username = "testuser";
-        Page<Post> expectedPage = new PageImpl<>(Collections.singletonList(testPost));
+        Page<PostRow> expectedPage = new PageImpl<>(Collections.singletonList(row(testPost)));
 
-        when(postRepository.findAllWithFilters(query, username, pageable)).thenReturn(expectedPage);
+        when(postRepository.findAllWithFilters(username, pageable)).thenReturn(expectedPage);
+        when(postSnapshotCache.getAll(List.of(postId))).thenReturn(List.of(PostSnapshot.of(testPost)));
 
-        Page<Post> result = postService.getAllWithFilters(query, username, pageable);
+        Page<PostSnapshot> result = postService.getAllWithFilters(null, username, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getId()).isEqualTo(postId);
-        verify(postRepository, times(1)).findAllWithFilters(query, username, pageable);
+        assertThat(result.getContent().get(0).id()).isEqualTo(postId);
+        verify(postRepository, times(1)).findAllWithFilters(username, pageable);
+        verify(postSnapshotCache).putAllRows(List.of(row(testPost)));
+    }
+
+    @Test
+    @DisplayName("Should search posts by full text, ranked whatever the requested sort")
+    void shouldSearchPostsByFullText() {
+        String query = "test";
+        Pageable sorted = PageRequest.of(1, 10, Sort.by("createdAt"));
+
+        when(postRepository.searchIds(query, null, PageRequest.of(1, 10)))
+                .thenReturn(new PageImpl<>(List.of(postId), PageRequest.of(1, 10), 11));
+        when(postSnapshotCache.getAll(List.of(postId))).thenReturn(List.of(PostSnapshot.of(testPost)));
+
+        Page<PostSnapshot> result = postService.getAllWithFilters(query, null, sorted);
+
+        assertThat(result.getContent()).extracting(PostSnapshot::id).containsExactly(postId);
+        assertThat(result.getTotalElements()).isEqualTo(11);
+        verify(postRepository, never()).findAllWithFilters(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should search posts through the search index")
+    void shouldSearchPostsThroughIndex() {
+        String query = "#sunset beach*";
+
+        when(postSearchIndex.isReady()).thenReturn(true);
+        when(postSearchIndex.search(query, pageable)).thenReturn(new IdPage(List.of(postId), 1));
+        when(postSnapshotCache.getAll(List.of(postId))).thenReturn(List.of(PostSnapshot.of(testPost)));
+
+        Page<PostSnapshot> result = postService.search(query, pageable);
+
+        assertThat(result.getContent()).extracting(PostSnapshot::id).containsExactly(postId);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        verify(postRepository, never()).searchIds(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should search posts through the database until the index is built")
+    void shouldSearchPostsThroughDatabaseUntilIndexBuilt() {
+        String query = "beach";
+
+        when(postSearchIndex.isReady()).thenReturn(false);
+        when(postRepository.searchIds(query, null, pageable)).thenReturn(new PageImpl<>(List.of(postId), pageable, 1));
+        when(postSnapshotCache.getAll(List.of(postId))).thenReturn(List.of(PostSnapshot.of(testPost)));
+
+        Page<PostSnapshot> result = postService.search(query, pageable);
+
+        assertThat(result.getContent()).extracting(PostSnapshot::id).containsExactly(postId);
+        verify(postSearchIndex, never()).search(any(), any());
     }
 
     @Test
@@ -158,16 +269,17 @@ class PostServiceTest {
     void shouldGetPostsByEngagementRate() {
         LocalDateTime startDate = now.minusDays(7);
         LocalDateTime endDate = now;
-        Page<Post> expectedPage = new PageImpl<>(Collections.singletonList(testPost));
+        Page<PostRow> expectedPage = new PageImpl<>(Collections.singletonList(row(testPost)));
 
         when(postRepository.findAllByCreatedAtBetweenOrderByEngagementRateDesc(startDate, endDate, pageable))
                 .thenReturn(expectedPage);
+        when(postSnapshotCache.getAll(List.of(postId))).thenReturn(List.of(PostSnapshot.of(testPost)));
 
-        Page<Post> result = postService.getAllByEngagementRate(startDate, endDate, pageable);
+        Page<PostSnapshot> result = postService.getAllByEngagementRate(startDate, endDate, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getId()).isEqualTo(postId);
+        assertThat(result.getContent().get(0).id()).isEqualTo(postId);
         verify(postRepository, times(1)).findAllByCreatedAtBetweenOrderByEngagementRateDesc(startDate, endDate,
                 pageable);
     }
@@ -175,15 +287,16 @@ class PostServiceTest {
     @Test
     @DisplayName("Should get all posts by user id")
     void shouldGetAllPostsByUserId() {
-        Page<Post> expectedPage = new PageImpl<>(Collections.singletonList(testPost));
+        Page<PostRow> expectedPage = new PageImpl<>(Collections.singletonList(row(testPost)));
 
         when(postRepository.findAllByUserId(currentUserId, pageable)).thenReturn(expectedPage);
+        when(postSnapshotCache.getAll(List.of(postId))).thenReturn(List.of(PostSnapshot.of(testPost)));
 
-        Page<Post> result = postService.getAllByUserId(currentUserId, pageable);
+        Page<PostSnapshot> result = postService.getAllByUserId(currentUserId, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getId()).isEqualTo(postId);
+        assertThat(result.getContent().get(0).id()).isEqualTo(postId);
         verify(postRepository, times(1)).findAllByUserId(currentUserId, pageable);
     }
 
@@ -218,33 +331,185 @@ class PostServiceTest {
     }
 
     @Test
-    @DisplayName("Should like a post when not already liked")
-    void shouldLikePostWhenNotAlreadyLiked() {
+    @DisplayName("Should like a post without loading its likers")
+    void shouldLikePostWithoutLoadingItsLikers() {
         when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
         when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
-        when(postRepository.existsLikeByUserIdAndPostId(currentUserId, postId)).thenReturn(false);
-        when(userService.getById(currentUserId)).thenReturn(currentUser);
+        when(postRepository.insertLike(currentUserId, postId)).thenReturn(1);
 
         postService.like(postId);
 
-        verify(postRepository, times(1)).save(testPost);
-        assertThat(testPost.getLikeCount()).isEqualTo(6); // Initial count 5 + 1
+        verify(likeCounter, times(1)).add(postId, 1);
+        verify(eventPublisher).publishEvent(new PostLikeChangedEvent(postId, 1));
+        verify(postRepository, never()).save(any(Post.class));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should not count a like twice")
+    void shouldNotCountLikeTwice() {
+        when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
+        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
+        when(postRepository.insertLike(currentUserId, postId)).thenReturn(0);
+
+        postService.like(postId);
+
+        verify(likeCounter, never()).add(any(), anyInt());
     }
 
     @Test
     @DisplayName("Should unlike a post when already liked")
     void shouldUnlikePostWhenAlreadyLiked() {
-        // Add the current user to the likes set
-        testPost.getLikes().add(currentUser);
+        when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
+        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
+        when(postRepository.deleteLike(currentUserId, postId)).thenReturn(1);
+
+        postService.unlike(postId);
 
+        verify(likeCounter, times(1)).add(postId, -1);
+        verify(postRepository, never()).insertLike(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not change like count when unliking a post not liked")
+    void shouldNotChangeLikeCountWhenUnlikingPostNotLiked() {
         when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
         when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
-        when(postRepository.existsLikeByUserIdAndPostId(currentUserId, postId)).thenReturn(true);
+        when(postRepository.deleteLike(currentUserId, postId)).thenReturn(0);
 
-        postService.like(postId);
+        postService.unlike(postId);
 
-        verify(postRepository, times(1)).save(testPost);
-        assertThat(testPost.getLikeCount()).isEqualTo(4); // Initial count 5 - 1
+        verify(likeCounter, never()).add(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should toggle like off when already liked")
+    void shouldToggleLikeOffWhenAlreadyLiked() {
+        when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
+        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
+        when(postRepository.deleteLike(currentUserId, postId)).thenReturn(1);
+
+        postService.toggleLike(postId);
+
+        verify(postRepository, never()).insertLike(any(), any());
+        verify(likeCounter, times(1)).add(postId, -1);
+    }
+
+    @Test
+    @DisplayName("Should toggle like on when not liked")
+    void shouldToggleLikeOnWhenNotLiked() {
+        when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
+        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
+        when(postRepository.deleteLike(currentUserId, postId)).thenReturn(0);
+        when(postRepository.insertLike(currentUserId, postId)).thenReturn(1);
+
+        postService.toggleLike(postId);
+
+        verify(likeCounter, times(1)).add(postId, 1);
+    }
+
+    @Test
+    @DisplayName("Should add pending likes to the count of a post")
+    void shouldAddPendingLikesToCount() {
+        PostSnapshot snapshot = PostSnapshot.of(testPost);
+        when(likeCounter.getPending(postId)).thenReturn(3L);
+        when(postMapper.postSnapshotToPostDto(any(PostSnapshot.class))).thenReturn(testPostDto);
+
+        postService.toDto(snapshot);
+
+        verify(postMapper).postSnapshotToPostDto(snapshot.plusLikes(3));
+        assertThat(snapshot.plusLikes(3).likeCount()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should not like a post that does not exist")
+    void shouldNotLikePostThatDoesNotExist() {
+        when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
+        when(postRepository.findById(postId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> postService.like(postId))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(postRepository, never()).insertLike(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should page likes by cursor")
+    void shouldPageLikesByCursor() {
+        UUID firstLiker = UUID.randomUUID();
+        UUID secondLiker = UUID.randomUUID();
+        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
+        when(postRepository.findLikes(postId, 2)).thenReturn(List.of(like(firstLiker, 2_000), like(secondLiker, 1_000)));
+        when(userSnapshotCache.getAll(List.of(firstLiker))).thenReturn(List.of(
+                new UserSnapshot(firstLiker, "liker", null, "Liker", null, 0, 0, 0, now, now)));
+
+        CursorPage<LikeDto> page = postService.getLikes(postId, null, 1);
+
+        assertThat(page.content()).hasSize(1);
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor(2_000, firstLiker));
+
+        when(postRepository.findLikesBefore(postId, 2_000, firstLiker, 2)).thenReturn(List.of(like(secondLiker, 1_000)));
+        when(userSnapshotCache.getAll(List.of(secondLiker))).thenReturn(List.of());
+
+        CursorPage<LikeDto> lastPage = postService.getLikes(postId, page.nextCursor(), 1);
+
+        assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should encode a post cursor from its instant, whatever the JVM's zone")
+    void shouldEncodeCursorFromInstant() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            LocalDateTime createdAt = LocalDateTime.of(2026, 10, 18, 9, 0);
+            testPost.setCreatedAt(createdAt);
+            Post olderPost = new Post();
+            olderPost.setId(UUID.randomUUID());
+            olderPost.setUser(currentUser);
+            olderPost.setCreatedAt(createdAt.minusMinutes(1));
+            when(postRepository.findNewestByUserId(currentUserId, Limit.of(2)))
+                    .thenReturn(List.of(row(testPost), row(olderPost)));
+
+            CursorPage<PostSnapshot> page = postService.getAllByUserId(currentUserId, null, 1);
+
+            assertThat(KeysetCursor.decode(page.nextCursor()).position())
+                    .isEqualTo(Instant.parse("2026-10-18T12:00:00Z").toEpochMilli() * 1_000);
+
+            postService.getAllByUserId(currentUserId, page.nextCursor(), 1);
+
+            verify(postRepository).findNewestByUserIdBefore(currentUserId, createdAt, postId, Limit.of(2));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    @DisplayName("Should page a user's posts by cursor, newest first")
+    void shouldPageUserPostsByCursor() {
+        Post olderPost = new Post();
+        olderPost.setId(UUID.randomUUID());
+        olderPost.setUser(currentUser);
+        olderPost.setCreatedAt(now.minusMinutes(1));
+        when(postRepository.findNewestByUserId(currentUserId, Limit.of(2)))
+                .thenReturn(List.of(row(testPost), row(olderPost)));
+
+        CursorPage<PostSnapshot> page = postService.getAllByUserId(currentUserId, null, 1);
+
+        assertThat(page.content()).containsExactly(PostSnapshot.of(testPost));
+        verify(postSnapshotCache).putAllRows(List.of(row(testPost)));
+        KeysetCursor cursor = KeysetCursor.decode(page.nextCursor());
+        assertThat(cursor.id()).isEqualTo(postId);
+
+        when(postRepository.findNewestByUserIdBefore(currentUserId, now.truncatedTo(ChronoUnit.MICROS), postId,
+                Limit.of(2)))
+                .thenReturn(List.of(row(olderPost)));
+
+        CursorPage<PostSnapshot> lastPage = postService.getAllByUserId(currentUserId, page.nextCursor(), 1);
+
+        assertThat(lastPage.content()).containsExactly(PostSnapshot.of(olderPost));
+        assertThat(lastPage.nextCursor()).isNull();
+        verify(postRepository, never()).findAllByUserId(any(), any());
     }
 
     @Test
@@ -266,6 +531,11 @@ class PostServiceTest {
         assertThat(result.getImageUrl()).isEqualTo(createPostDto.getImageUrl());
         assertThat(result.getUser()).isEqualTo(currentUser);
         verify(postRepository, times(1)).save(newPost);
+        verify(cacheNamespaces).bump("post-filters");
+        verify(cacheNamespaces).bump("post-engagement");
+        verify(cacheNamespaces).bump("user-posts:" + currentUserId);
+        verify(eventPublisher).publishEvent(new PostSavedEvent(
+                new PostRow(PostSnapshot.of(newPost), UserSnapshot.of(currentUser))));
     }
 
     @Test
@@ -280,6 +550,8 @@ class PostServiceTest {
         assertThat(result).isNotNull();
         verify(postMapper, times(1)).updatePostFromUpdatePostDto(updatePostDto, testPost);
         verify(postRepository, times(1)).save(testPost);
+        verify(cacheNamespaces).bump("post-filters");
+        verify(cacheNamespaces, never()).bump("post-engagement");
     }
 
     @Test
@@ -294,6 +566,7 @@ class PostServiceTest {
                 .hasMessageContaining("You are not the owner of this post");
 
         verify(postRepository, never()).save(any(Post.class));
+        verifyNoInteractions(cacheNamespaces);
     }
 
     @Test
@@ -305,6 +578,8 @@ class PostServiceTest {
         postService.delete(postId);
 
         verify(postRepository, times(1)).delete(testPost);
+        verify(cacheNamespaces).bump("user-posts:" + currentUserId);
+        verify(eventPublisher).publishEvent(new PostDeletedEvent(postId));
     }
 
     @Test
@@ -324,52 +599,81 @@ class PostServiceTest {
     @Test
     @DisplayName("Should convert post to DTO")
     void shouldConvertPostToDto() {
-        when(postMapper.postToPostDto(testPost)).thenReturn(testPostDto);
+        PostSnapshot snapshot = PostSnapshot.of(testPost);
+        when(postMapper.postSnapshotToPostDto(snapshot)).thenReturn(testPostDto);
 
         PostDto result = postService.toDto(testPost);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(testPost.getId().toString());
         assertThat(result.getCaption()).isEqualTo(testPost.getCaption());
-        verify(postMapper, times(1)).postToPostDto(testPost);
+        verify(postMapper, times(1)).postSnapshotToPostDto(snapshot);
     }
 
     @Test
-    @DisplayName("Should calculate engagement rate correctly")
-    void shouldCalculateEngagementRateCorrectly() {
-        // This test indirectly tests the calculateEngagementRate method through the
-        // like method
-        testPost.setLikeCount(5);
-        currentUser.setFollowerCount(10);
-        testPost.setUser(currentUser);
-
+    @DisplayName("Should resolve the liked state of a page of posts at once")
+    void shouldResolveLikedStateOfPageAtOnce() {
+        Post otherPost = new Post();
+        otherPost.setId(UUID.randomUUID());
+        otherPost.setUser(currentUser);
+        PostSnapshot liked = PostSnapshot.of(testPost);
+        PostSnapshot notLiked = PostSnapshot.of(otherPost);
+        Page<PostSnapshot> page = new PageImpl<>(List.of(liked, notLiked), pageable, 2);
         when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
-        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
-        when(postRepository.existsLikeByUserIdAndPostId(currentUserId, postId)).thenReturn(false);
-        when(userService.getById(currentUserId)).thenReturn(currentUser);
+        when(likedPostCache.getLiked(currentUserId, List.of(liked.id(), notLiked.id())))
+                .thenReturn(Set.of(liked.id()));
+        when(postMapper.postSnapshotToPostDto(any(PostSnapshot.class), anyBoolean())).thenReturn(testPostDto);
 
-        postService.like(postId);
+        Page<PostDto> result = postService.toDtos(page);
 
-        // The new engagement rate should be (5+1)/10 = 0.6
-        assertThat(testPost.getEngagementRate()).isEqualTo(0.6f);
+        assertThat(result.getContent()).hasSize(2);
+        verify(likedPostCache, times(1)).getLiked(any(), any());
+        verify(postMapper).postSnapshotToPostDto(liked, true);
+        verify(postMapper).postSnapshotToPostDto(notLiked, false);
+        verify(postRepository, never()).existsLikeByUserIdAndPostId(any(), any());
     }
 
     @Test
-    @DisplayName("Should handle engagement rate when follower count is zero")
-    void shouldHandleEngagementRateWhenFollowerCountIsZero() {
-        // Set follower count to 0
-        testPost.setLikeCount(5);
-        currentUser.setFollowerCount(0);
-        testPost.setUser(currentUser);
-
+    @DisplayName("Should resolve the authors of a page of posts at once")
+    void shouldResolveAuthorsOfPageAtOnce() {
+        Post otherPost = new Post();
+        otherPost.setId(UUID.randomUUID());
+        otherPost.setUser(currentUser);
+        PostSnapshot first = PostSnapshot.of(testPost);
+        PostSnapshot second = PostSnapshot.of(otherPost);
+        UserSnapshot author = UserSnapshot.of(currentUser);
+        Page<PostSnapshot> page = new PageImpl<>(List.of(first, second), pageable, 2);
         when(jwtService.getCurrentUserId()).thenReturn(currentUserId);
-        when(postRepository.findById(postId)).thenReturn(Optional.of(testPost));
-        when(postRepository.existsLikeByUserIdAndPostId(currentUserId, postId)).thenReturn(false);
-        when(userService.getById(currentUserId)).thenReturn(currentUser);
+        when(likedPostCache.getLiked(any(), any())).thenReturn(Set.of());
+        when(userSnapshotCache.getAll(List.of(currentUserId))).thenReturn(List.of(author));
+        when(postMapper.postRowToPostDto(any(PostRow.class), anyBoolean())).thenReturn(testPostDto);
 
-        postService.like(postId);
+        Page<PostDto> result = postService.toDtos(page);
+
+        assertThat(result.getContent()).hasSize(2);
+        verify(userSnapshotCache, times(1)).getAll(any());
+        verify(postMapper).postRowToPostDto(new PostRow(first, author), false);
+        verify(postMapper).postRowToPostDto(new PostRow(second, author), false);
+        verify(userService, never()).getSnapshotById(any());
+    }
+
+    private static PostRow row(Post post) {
+        return new PostRow(PostSnapshot.of(post), UserSnapshot.of(post.getUser()));
+    }
+
+    private static PostLike like(UUID userId, long createdAtMicros) {
+        return new PostLike() {
+
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getCreatedAtMicros() {
+                return createdAtMicros;
+            }
 
-        // When follower count is 0, engagement rate should equal like count
-        assertThat(testPost.getEngagementRate()).isEqualTo(6.0f);
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package andrehsvictor.camly.post;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import andrehsvictor.camly.user.User;
+
+class PostSnapshotSizeTest {
+
+    private static final int FOLLOWERS = 100;
+
+    private final JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+
+    @Test
+    @DisplayName("Should serialize a post snapshot into a fraction of the bytes of the entity graph")
+    void shouldSerializeSnapshotSmallerThanEntity() {
+        Post post = post(FOLLOWERS, 0);
+
+        int entityBytes = serializer.serialize(post).length;
+        int snapshotBytes = serializer.serialize(PostSnapshot.of(post)).length;
+
+        System.out.printf("Cached post by an author with %d followers: entity=%d bytes, snapshot=%d bytes%n",
+                FOLLOWERS, entityBytes, snapshotBytes);
+
+        assertThat(snapshotBytes).isLessThan(entityBytes / 10);
+    }
+
+    @Test
+    @DisplayName("Should keep the snapshot size independent of the author's followers and the likes")
+    void shouldKeepSnapshotSizeIndependentOfFollowersAndLikes() {
+        int quiet = serializer.serialize(PostSnapshot.of(post(0, 0))).length;
+        int popular = serializer.serialize(PostSnapshot.of(post(FOLLOWERS, 1_000_000))).length;
+
+        assertThat(popular).isEqualTo(quiet);
+    }
+
+    private Post post(int followerCount, int likeCount) {
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .caption("A caption that is about as long as a typical one")
+                .imageUrl("https://cdn.example.com/images/" + UUID.randomUUID() + ".jpg")
+                .likeCount(likeCount)
+                .user(userWithFollowers("author", followerCount))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private User userWithFollowers(String username, int followerCount) {
+        User user = user(username);
+        for (int i = 0; i < followerCount; i++) {
+            user.getFollowers().add(user(username + "_follower" + i));
+        }
+        user.setFollowerCount(followerCount);
+        return user;
+    }
+
+    private User user(String username) {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .username(username)
+                .email(username + "@example.com")
+                .fullName("Full Name of " + username)
+                .password("$2a$10$abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUV")
+                .bio("Short bio")
+                .pictureUrl("https://cdn.example.com/avatars/" + username + ".jpg")
+                .build();
+    }
+
+}
@@ -0,0 +1,140 @@
+package andrehsvictor.camly.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import andrehsvictor.camly.account.dto.AccountDto;
+import andrehsvictor.camly.cache.CacheInvalidation;
+import andrehsvictor.camly.cache.IdPage;
+import andrehsvictor.camly.post.PostSnapshot;
+import andrehsvictor.camly.post.PostStats;
+import andrehsvictor.camly.redis.RedisSerializationProperties.Serializer;
+import andrehsvictor.camly.user.UserSnapshot;
+
+class RedisValueSerializersTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 5, 1, 12, 30, 15, 123_000_000);
+
+    @ParameterizedTest
+    @EnumSource(Serializer.class)
+    @DisplayName("Should round-trip post and user snapshots")
+    void shouldRoundTripSnapshots(Serializer type) {
+        RedisSerializer<Object> serializer = RedisValueSerializers.create(type);
+        PostSnapshot post = postSnapshot();
+        UserSnapshot user = new UserSnapshot(UUID.randomUUID(), "user", null, "User", "bio", 1, 2, 3, now, now);
+
+        assertThat(roundTrip(serializer, post)).isEqualTo(post);
+        assertThat(roundTrip(serializer, user)).isEqualTo(user);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Serializer.class)
+    @DisplayName("Should round-trip pages with their request and sort")
+    void shouldRoundTripPages(Serializer type) {
+        RedisSerializer<Object> serializer = RedisValueSerializers.create(type);
+        Page<PostSnapshot> page = new PageImpl<>(
+                List.of(postSnapshot(), postSnapshot()),
+                PageRequest.of(2, 2, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("caption"))),
+                42);
+
+        Object result = roundTrip(serializer, page);
+
+        assertThat(result).isInstanceOf(Page.class);
+        Page<?> resultPage = (Page<?>) result;
+        assertThat(resultPage.getContent()).isEqualTo(page.getContent());
+        assertThat(resultPage.getPageable()).isEqualTo(page.getPageable());
+        assertThat(resultPage.getTotalElements()).isEqualTo(42);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Serializer.class)
+    @DisplayName("Should round-trip ID pages")
+    void shouldRoundTripIdPages(Serializer type) {
+        RedisSerializer<Object> serializer = RedisValueSerializers.create(type);
+        IdPage idPage = new IdPage(new ArrayList<>(List.of(UUID.randomUUID(), UUID.randomUUID())), 42);
+
+        assertThat(roundTrip(serializer, idPage)).isEqualTo(idPage);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Serializer.class, names = { "JSON", "SMILE" })
+    @DisplayName("Should round-trip unpaged pages")
+    void shouldRoundTripUnpagedPages(Serializer type) {
+        RedisSerializer<Object> serializer = RedisValueSerializers.create(type);
+        Page<PostSnapshot> page = new PageImpl<>(List.of(postSnapshot()));
+
+        Page<?> result = (Page<?>) roundTrip(serializer, page);
+
+        assertThat(result.getContent()).isEqualTo(page.getContent());
+        assertThat(result.getPageable().isUnpaged()).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Serializer.class)
+    @DisplayName("Should round-trip the remaining cached and published value types")
+    void shouldRoundTripOtherValues(Serializer type) {
+        RedisSerializer<Object> serializer = RedisValueSerializers.create(type);
+        PostStats stats = new PostStats.Snapshot(3L, 10L, 3.3, 5L, 1L, 3.3, now);
+        AccountDto account = new AccountDto();
+        account.setId(UUID.randomUUID().toString());
+        account.setEmailVerified(true);
+        CacheInvalidation invalidation = new CacheInvalidation("node", "posts", "post_1", 1L);
+
+        assertThat(roundTrip(serializer, true)).isEqualTo(true);
+        assertThat(roundTrip(serializer, 0)).isEqualTo(0);
+        assertThat(((Number) roundTrip(serializer, 7L)).longValue()).isEqualTo(7L);
+        assertThat(roundTrip(serializer, stats)).isEqualTo(stats);
+        assertThat(roundTrip(serializer, account)).isEqualTo(account);
+        assertThat(roundTrip(serializer, invalidation)).isEqualTo(invalidation);
+        assertThat(roundTrip(serializer, NullValue.INSTANCE)).isInstanceOf(NullValue.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Serializer.class, names = { "JSON", "SMILE" })
+    @DisplayName("Should read values written with Java serialization")
+    void shouldFallBackToJdkOnRead(Serializer type) {
+        RedisSerializer<Object> serializer = RedisValueSerializers.create(type);
+        PostSnapshot post = postSnapshot();
+
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(post);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(post);
+    }
+
+    @Test
+    @DisplayName("Should encode a post snapshot more compactly than Java serialization")
+    void shouldEncodeMoreCompactlyThanJdk() {
+        PostSnapshot post = postSnapshot();
+
+        int jdk = RedisValueSerializers.create(Serializer.JDK).serialize(post).length;
+        int smile = RedisValueSerializers.create(Serializer.SMILE).serialize(post).length;
+
+        assertThat(smile).isLessThan(jdk);
+    }
+
+    private Object roundTrip(RedisSerializer<Object> serializer, Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private PostSnapshot postSnapshot() {
+        return new PostSnapshot(UUID.randomUUID(), "https://example.com/image.jpg", "Caption", 5,
+                UUID.randomUUID(), now, now);
+    }
+
+}
@@ -0,0 +1,263 @@
+package andrehsvictor.camly.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import andrehsvictor.camly.cache.IdPage;
+import andrehsvictor.camly.post.PostDeletedEvent;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.post.PostRow;
+import andrehsvictor.camly.post.PostSavedEvent;
+import andrehsvictor.camly.post.PostSnapshot;
+import andrehsvictor.camly.user.UserSnapshot;
+
+@ExtendWith(MockitoExtension.class)
+class PostSearchIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+    private static final String CHANNEL = "camly:post-search:changes";
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private PostSearchProperties properties;
+    private PostSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new PostSearchProperties();
+        properties.setRebuildBatchSize(2);
+        properties.setRebuildThreads(2);
+        index = new PostSearchIndex(properties, postRepository, stringRedisTemplate, listenerContainer);
+        index.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    @DisplayName("Should find posts by prefix, phrase and hashtag")
+    void shouldFindPostsByPrefixPhraseAndHashtag() {
+        PostRow beach = save("maria", "Sunset at the beach #summer", 3);
+        PostRow city = save("joao", "The beach of the city at sunset", 2);
+        PostRow coffee = save("ana", "Morning coffee", 1);
+        index.refresh();
+
+        assertThat(search("sun*")).containsExactlyInAnyOrder(id(beach), id(city));
+        assertThat(search("\"sunset at the beach\"")).containsExactly(id(beach));
+        assertThat(search("#summer")).containsExactly(id(beach));
+        assertThat(search("coffee | summer")).containsExactlyInAnyOrder(id(beach), id(coffee));
+        assertThat(search("beach -city")).containsExactly(id(beach));
+    }
+
+    @Test
+    @DisplayName("Should rank posts by the searched author above posts mentioning the name")
+    void shouldBoostAuthorMatches() {
+        PostRow mention = save("joao", "Dinner with maria", 2);
+        PostRow byAuthor = save("maria", "Dinner at home", 1);
+        index.refresh();
+
+        assertThat(search("maria dinner")).containsExactly(id(byAuthor), id(mention));
+    }
+
+    @Test
+    @DisplayName("Should apply updates and deletions")
+    void shouldApplyUpdatesAndDeletions() {
+        PostRow post = save("maria", "Snow in the mountains", 1);
+        PostRow other = save("joao", "Snow in the city", 2);
+        index.onPostSaved(new PostSavedEvent(new PostRow(new PostSnapshot(id(post), "https://example.com/image.jpg",
+                "Rain in the mountains", 0, post.author().id(), NOW, NOW), post.author())));
+        index.onPostDeleted(new PostDeletedEvent(id(other)));
+        index.refresh();
+
+        assertThat(search("snow")).isEmpty();
+        assertThat(search("rain")).containsExactly(id(post));
+        assertThat(search("mountains")).containsExactly(id(post));
+    }
+
+    @Test
+    @DisplayName("Should page results and count every match")
+    void shouldPageResults() {
+        for (int i = 0; i < 5; i++) {
+            save("author" + i, "Travel diary " + i, i);
+        }
+        index.refresh();
+
+        IdPage page = index.search("travel", PageRequest.of(1, 2));
+
+        assertThat(page.ids()).hasSize(2);
+        assertThat(page.totalElements()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should rebuild from the posts table and drop posts no longer there")
+    void shouldRebuildFromPostsTable() {
+        PostRow deleted = save("maria", "Garden party", 10);
+        List<PostRow> rows = List.of(row("joao", "Garden flowers", 3), row("ana", "Garden at dusk", 2),
+                row("pedro", "Museum garden", 1));
+        when(postRepository.findOldestRows(Limit.of(2))).thenReturn(rows.subList(0, 2));
+        when(postRepository.findOldestRowsAfter(eq(rows.get(1).post().createdAt()), eq(id(rows.get(1))), any()))
+                .thenReturn(rows.subList(2, 3));
+
+        assertThat(index.rebuild()).isTrue();
+
+        assertThat(search("garden")).containsExactlyInAnyOrderElementsOf(rows.stream().map(PostSearchIndexTest::id).toList())
+                .doesNotContain(id(deleted));
+        assertThat(index.isRebuilding()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not bring back a post deleted, nor an older caption saved, while a rebuild reads it")
+    void shouldReadAgainPostsChangedDuringRebuild() {
+        PostRow deleted = row("maria", "Garden party", 3);
+        PostRow edited = row("joao", "Garden flowers", 2);
+        PostRow saved = new PostRow(new PostSnapshot(id(edited), "https://example.com/image.jpg", "Garden at dusk", 0,
+                edited.author().id(), edited.post().createdAt(), NOW), edited.author());
+        when(postRepository.findOldestRows(Limit.of(2))).thenAnswer(invocation -> {
+            index.onPostDeleted(new PostDeletedEvent(id(deleted)));
+            index.onPostSaved(new PostSavedEvent(saved));
+            return List.of(deleted, edited);
+        });
+        when(postRepository.findRowsByIdIn(any())).thenReturn(List.of(saved));
+
+        assertThat(index.rebuild()).isTrue();
+
+        assertThat(search("garden")).containsExactly(id(edited));
+        assertThat(search("dusk")).containsExactly(id(edited));
+        assertThat(search("flowers")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should publish local changes and apply those of the other nodes")
+    void shouldShareChangesBetweenNodes() {
+        PostRow local = save("maria", "Beach volleyball", 1);
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+        assertThat(published.getValue()).endsWith("\n" + id(local));
+
+        PostRow remote = row("joao", "Beach football", 2);
+        when(postRepository.findRowsByIdIn(List.of(id(remote)))).thenReturn(List.of(remote));
+        receive("other-node\n" + id(remote));
+        receive(published.getValue());
+        index.refresh();
+        assertThat(search("beach")).containsExactlyInAnyOrder(id(local), id(remote));
+
+        receive("other-node\n" + id(local));
+        index.refresh();
+        assertThat(search("beach")).containsExactly(id(remote));
+    }
+
+    @Test
+    @DisplayName("Should be stale until rebuilt and again whenever the channel is subscribed")
+    void shouldTrackStaleness() {
+        assertThat(index.isStale()).isTrue();
+
+        assertThat(index.rebuild()).isTrue();
+        assertThat(index.isStale()).isFalse();
+
+        index.onChannelSubscribed(CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+        assertThat(index.isStale()).isTrue();
+
+        when(postRepository.findOldestRows(Limit.of(2))).thenThrow(new IllegalStateException("Database down"));
+        assertThat(index.rebuild()).isFalse();
+        assertThat(index.isStale()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should be ready once built, and stay so across restarts when persistent")
+    void shouldBeReadyOnceBuilt(@TempDir Path directory) throws IOException {
+        properties.setDirectory(directory.toString());
+        PostSearchIndex persistent = new PostSearchIndex(properties, postRepository, stringRedisTemplate,
+                listenerContainer);
+        persistent.open();
+        assertThat(persistent.isReady()).isFalse();
+
+        assertThat(persistent.rebuild()).isTrue();
+        assertThat(persistent.isReady()).isTrue();
+        persistent.close();
+
+        PostSearchIndex restarted = new PostSearchIndex(properties, postRepository, stringRedisTemplate,
+                listenerContainer);
+        restarted.open();
+        assertThat(restarted.isReady()).isTrue();
+        assertThat(restarted.isStale()).isTrue();
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    void shouldDoNothingWhenDisabled() throws IOException {
+        properties.setEnabled(false);
+        PostSearchIndex disabled = new PostSearchIndex(properties, postRepository, stringRedisTemplate, listenerContainer);
+        disabled.open();
+
+        disabled.onPostSaved(new PostSavedEvent(row("maria", "Ignored", 1)));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.isReady()).isFalse();
+        assertThat(disabled.rebuild()).isFalse();
+        assertThat(disabled.size()).isZero();
+        disabled.close();
+    }
+
+    private PostRow save(String username, String caption, int hoursAgo) {
+        PostRow row = row(username, caption, hoursAgo);
+        index.onPostSaved(new PostSavedEvent(row));
+        return row;
+    }
+
+    private void receive(String body) {
+        index.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8)),
+                null);
+    }
+
+    private List<UUID> search(String query) {
+        return index.search(query, PageRequest.of(0, 10)).ids();
+    }
+
+    private static PostRow row(String username, String caption, int hoursAgo) {
+        LocalDateTime createdAt = NOW.minusHours(hoursAgo);
+        UserSnapshot author = new UserSnapshot(UUID.randomUUID(), username, null, username, null, 0, 0, 1, NOW, NOW);
+        PostSnapshot post = new PostSnapshot(UUID.randomUUID(), "https://example.com/image.jpg", caption, 0,
+                author.id(), createdAt, createdAt);
+        return new PostRow(post, author);
+    }
+
+    private static UUID id(PostRow row) {
+        return row.post().id();
+    }
+
+}
@@ -0,0 +1,173 @@
+package andrehsvictor.camly.trending;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+import andrehsvictor.camly.account.dto.CreateAccountDto;
+import andrehsvictor.camly.post.dto.CreatePostDto;
+import andrehsvictor.camly.post.dto.PostDto;
+import andrehsvictor.camly.token.TokenService;
+import andrehsvictor.camly.token.dto.UsernamePasswordDto;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserService;
+
+public class TrendingPostsIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private TrendingProperties trendingProperties;
+
+    @Test
+    @DisplayName("Should rank posts by the likes they received in the window")
+    void shouldRankPostsByRecentLikes() {
+        String authorToken = createUser("author");
+        UUID quietPostId = createPost(authorToken, "Quiet post");
+        UUID popularPostId = createPost(authorToken, "Popular post");
+
+        like(quietPostId, createUser("liker"));
+        for (int i = 0; i < 3; i++) {
+            like(popularPostId, createUser("liker"));
+        }
+        clearWindows();
+
+        for (String window : List.of("1h", "24h", "7d")) {
+            List<String> ids = given()
+                    .header("Authorization", "Bearer " + authorToken)
+                    .queryParam("window", window)
+                    .queryParam("size", 100)
+                    .when()
+                    .get("/api/v1/posts/trending")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .extract()
+                    .jsonPath()
+                    .getList("content.id");
+
+            assertThat(ids).contains(popularPostId.toString(), quietPostId.toString());
+            assertThat(ids.indexOf(popularPostId.toString())).isLessThan(ids.indexOf(quietPostId.toString()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a post from the window once its likes are withdrawn")
+    void shouldDropPostOnceLikesWithdrawn() {
+        String authorToken = createUser("author");
+        UUID postId = createPost(authorToken, "Fleeting post");
+        String likerToken = createUser("liker");
+
+        like(postId, likerToken);
+        given()
+                .header("Authorization", "Bearer " + likerToken)
+                .when()
+                .delete("/api/v1/posts/" + postId + "/likes")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+        clearWindows();
+
+        List<String> ids = given()
+                .header("Authorization", "Bearer " + authorToken)
+                .queryParam("window", "1h")
+                .queryParam("size", 100)
+                .when()
+                .get("/api/v1/posts/trending")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList("content.id");
+
+        assertThat(ids).doesNotContain(postId.toString());
+    }
+
+    @Test
+    @DisplayName("Should reject an unsupported window")
+    void shouldRejectUnsupportedWindow() {
+        given()
+                .header("Authorization", "Bearer " + createUser("reader"))
+                .queryParam("window", "30d")
+                .when()
+                .get("/api/v1/posts/trending")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private void clearWindows() {
+        Set<String> windows = stringRedisTemplate.keys(trendingProperties.getKeyPrefix() + "window:*");
+        if (windows != null && !windows.isEmpty()) {
+            stringRedisTemplate.delete(windows);
+        }
+    }
+
+    private void like(UUID postId, String accessToken) {
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .post("/api/v1/posts/" + postId + "/likes")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+    }
+
+    private String createUser(String prefix) {
+        String username = prefix + UUID.randomUUID().toString().substring(0, 8);
+        String email = username + "@example.com";
+        String password = "Test@123456";
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(CreateAccountDto.builder()
+                        .fullName("Trending Test User")
+                        .username(username)
+                        .email(email)
+                        .password(password)
+                        .build())
+                .when()
+                .post("/api/v1/account")
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        User user = userService.getByEmail(email);
+        user.setEmailVerified(true);
+        userService.save(user);
+        return tokenService.request(UsernamePasswordDto.builder()
+                .username(email)
+                .password(password)
+                .build()).getAccessToken();
+    }
+
+    private UUID createPost(String accessToken, String caption) {
+        PostDto postDto = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .body(CreatePostDto.builder()
+                        .caption(caption)
+                        .imageUrl("https://example.com/" + UUID.randomUUID() + ".jpg")
+                        .build())
+                .when()
+                .post("/api/v1/posts")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .as(PostDto.class);
+        return UUID.fromString(postDto.getId());
+    }
+
+}
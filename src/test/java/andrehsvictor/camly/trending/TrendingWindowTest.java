@@ -0,0 +1,60 @@
+package andrehsvictor.camly.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import andrehsvictor.camly.exception.BadRequestException;
+
+class TrendingWindowTest {
+
+    @Test
+    @DisplayName("Should parse every supported window")
+    void shouldParseSupportedWindows() {
+        assertThat(TrendingWindow.of("1h")).isEqualTo(TrendingWindow.HOUR);
+        assertThat(TrendingWindow.of("24h")).isEqualTo(TrendingWindow.DAY);
+        assertThat(TrendingWindow.of("7d")).isEqualTo(TrendingWindow.WEEK);
+    }
+
+    @Test
+    @DisplayName("Should reject an unsupported window")
+    void shouldRejectUnsupportedWindow() {
+        assertThatThrownBy(() -> TrendingWindow.of("30d")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Should cover each window with its buckets")
+    void shouldCoverWindowWithBuckets() {
+        assertThat(TrendingWindow.HOUR.bucketSize().duration().multipliedBy(TrendingWindow.HOUR.bucketCount()))
+                .isEqualTo(Duration.ofHours(1));
+        assertThat(TrendingWindow.DAY.bucketSize().duration().multipliedBy(TrendingWindow.DAY.bucketCount()))
+                .isEqualTo(Duration.ofDays(1));
+        assertThat(TrendingWindow.WEEK.bucketSize().duration().multipliedBy(TrendingWindow.WEEK.bucketCount()))
+                .isEqualTo(Duration.ofDays(7));
+    }
+
+    @Test
+    @DisplayName("Should keep buckets as long as the longest window that reads them")
+    void shouldKeepBucketsForLongestWindow() {
+        assertThat(BucketSize.FIVE_MINUTES.retention()).isEqualTo(Duration.ofMinutes(65));
+        assertThat(BucketSize.HOUR.retention()).isEqualTo(Duration.ofHours(169));
+    }
+
+    @Test
+    @DisplayName("Should place instants of the same bucket under the same index")
+    void shouldIndexInstantsByBucket() {
+        Instant start = Instant.parse("2026-10-18T12:00:00Z");
+
+        assertThat(BucketSize.FIVE_MINUTES.index(start.plusSeconds(299)))
+                .isEqualTo(BucketSize.FIVE_MINUTES.index(start));
+        assertThat(BucketSize.FIVE_MINUTES.index(start.plusSeconds(300)))
+                .isEqualTo(BucketSize.FIVE_MINUTES.index(start) + 1);
+        assertThat(BucketSize.HOUR.index(start.plusSeconds(3599))).isEqualTo(BucketSize.HOUR.index(start));
+    }
+
+}
@@ -105,6 +105,53 @@ public class UserControllerIT extends AbstractIntegrationTest {
                 .body("$", not(hasKey("password")));
     }
 
+    @Test
+    @DisplayName("Should answer not modified until the profile changes")
+    void shouldAnswerNotModifiedUntilProfileChanges() {
+        String lastModified = given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/users/" + secondUser.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", notNullValue())
+                .extract()
+                .header("Last-Modified");
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-Modified-Since", lastModified)
+                .when()
+                .get("/api/v1/users/" + secondUser.getId())
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .put("/api/v1/users/" + secondUser.getId() + "/followers")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        String eTag = given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get("/api/v1/users/" + secondUser.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("followerCount", equalTo(1))
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/v1/users/" + secondUser.getId())
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+    }
+
     @Test
     @DisplayName("Should return not found for invalid user id")
     void shouldReturnNotFoundForInvalidUserId() {
@@ -157,6 +204,22 @@ public class UserControllerIT extends AbstractIntegrationTest {
                 .body("content.findAll { it.username == '" + uniqueUsername + "' }.size()", greaterThan(0));
     }
 
+    @Test
+    @DisplayName("Should find users by a misspelled username")
+    void shouldFindUsersByMisspelledUsername() {
+        String misspelled = secondUser.getUsername().replace("seconduser", "secondusr");
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("Authorization", "Bearer " + accessToken)
+                .queryParam("q", misspelled)
+                .when()
+                .get("/api/v1/users")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.findAll { it.username == '" + secondUser.getUsername() + "' }.size()", equalTo(1));
+    }
+
     @Test
     @DisplayName("Should follow a user successfully")
     void shouldFollowUserSuccessfully() {
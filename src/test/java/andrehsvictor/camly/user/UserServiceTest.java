@@ -3,6 +3,7 @@ package andrehsvictor.camly.user;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,11 +23,16 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import andrehsvictor.camly.cache.CacheNamespaces;
 import andrehsvictor.camly.exception.ForbiddenOperationException;
 import andrehsvictor.camly.exception.ResourceNotFoundException;
 import andrehsvictor.camly.jwt.JwtService;
@@ -43,6 +50,15 @@ class UserServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private CacheNamespaces cacheNamespaces;
+
+    @Mock
+    private UserExistenceFilter userExistenceFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -175,27 +191,64 @@ class UserServiceTest {
                 .hasMessageContaining("provider ID");
     }
 
+    @Test
+    @DisplayName("Should find user by email without throwing when absent")
+    void shouldFindUserByEmail() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+
+        assertThat(userService.findByEmail("test@example.com")).contains(testUser);
+        assertThat(userService.findByEmail("nonexistent@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find user by provider ID without throwing when absent")
+    void shouldFindUserByProviderId() {
+        when(userRepository.findByProviderId("google123")).thenReturn(Optional.of(testUser));
+        when(userRepository.findByProviderId("nonexistent123")).thenReturn(Optional.empty());
+
+        assertThat(userService.findByProviderId("google123")).contains(testUser);
+        assertThat(userService.findByProviderId("nonexistent123")).isEmpty();
+    }
+
     @Test
     @DisplayName("Should get all users with filters")
     void shouldGetAllUsersWithFilters() {
-        String query = "test";
-        String username = null;
+        String username = "testuser";
         Pageable pageable = PageRequest.of(0, 10);
         Page<User> expectedPage = new PageImpl<>(List.of(testUser));
 
-        when(userRepository.findAllWithFilters(query, username, pageable)).thenReturn(expectedPage);
+        when(userRepository.findAllWithFilters(username, pageable)).thenReturn(expectedPage);
+
+        Page<UserSnapshot> result = userService.getAllWithFilters(null, username, pageable);
+
+        assertThat(result.getContent()).containsExactly(UserSnapshot.of(testUser));
+        verify(userRepository).findAllWithFilters(username, pageable);
+    }
+
+    @Test
+    @DisplayName("Should search users by name, ranked whatever the requested sort")
+    void shouldSearchUsersByName() {
+        String query = "test";
+        Pageable pageable = PageRequest.of(1, 1, Sort.by("username"));
+        Slice<User> expectedSlice = new SliceImpl<>(List.of(testUser), PageRequest.of(1, 1), true);
+
+        when(userRepository.searchByName(query, null, PageRequest.of(1, 1))).thenReturn(expectedSlice);
 
-        Page<User> result = userService.getAllWithFilters(query, username, pageable);
+        Page<UserSnapshot> result = userService.getAllWithFilters(query, null, pageable);
 
-        assertThat(result).isEqualTo(expectedPage);
-        assertThat(result.getContent()).containsExactly(testUser);
-        verify(userRepository).findAllWithFilters(query, username, pageable);
+        assertThat(result.getContent()).containsExactly(UserSnapshot.of(testUser));
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        verify(userRepository, never()).findAllWithFilters(any(), any());
     }
 
     @Test
     @DisplayName("Should check if username exists")
     void shouldCheckIfUsernameExists() {
         String username = "testuser";
+        when(userExistenceFilter.existsByUsername(eq(username), any()))
+                .thenAnswer(invocation -> invocation.<Predicate<String>>getArgument(1).test(username));
         when(userRepository.existsByUsername(username)).thenReturn(true);
 
         boolean result = userService.existsByUsername(username);
@@ -208,6 +261,8 @@ class UserServiceTest {
     @DisplayName("Should check if email exists")
     void shouldCheckIfEmailExists() {
         String email = "test@example.com";
+        when(userExistenceFilter.existsByEmail(eq(email), any()))
+                .thenAnswer(invocation -> invocation.<Predicate<String>>getArgument(1).test(email));
         when(userRepository.existsByEmail(email)).thenReturn(true);
 
         boolean result = userService.existsByEmail(email);
@@ -216,6 +271,17 @@ class UserServiceTest {
         verify(userRepository).existsByEmail(email);
     }
 
+    @Test
+    @DisplayName("Should not query the database when the existence filter rules the username out")
+    void shouldSkipQueryWhenFilterRulesUsernameOut() {
+        when(userExistenceFilter.existsByUsername(eq("freeuser"), any())).thenReturn(false);
+
+        boolean result = userService.existsByUsername("freeuser");
+
+        assertThat(result).isFalse();
+        verify(userRepository, never()).existsByUsername(any());
+    }
+
     @Test
     @DisplayName("Should save user")
     void shouldSaveUser() {
@@ -225,6 +291,7 @@ class UserServiceTest {
 
         assertThat(result).isEqualTo(testUser);
         verify(userRepository).save(testUser);
+        verify(userExistenceFilter).add(testUser);
     }
 
     @Test
@@ -233,6 +300,8 @@ class UserServiceTest {
         userService.deleteById(userId);
 
         verify(userRepository).deleteById(userId);
+        verify(userExistenceFilter).onRemoval();
+        verify(cacheNamespaces).bump("user-filters");
     }
 
     @Test
@@ -250,6 +319,7 @@ class UserServiceTest {
         assertThat(secondUser.getFollowerCount()).isEqualTo(1);
         assertThat(testUser.getFollowingCount()).isEqualTo(1);
         assertThat(secondUser.getFollowers()).contains(testUser);
+        verify(eventPublisher).publishEvent(new FollowerCountChangedEvent(secondUserId));
     }
 
     @Test
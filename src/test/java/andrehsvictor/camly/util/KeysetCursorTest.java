@@ -0,0 +1,48 @@
+package andrehsvictor.camly.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import andrehsvictor.camly.exception.BadRequestException;
+
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("Should decode an encoded cursor to the same position and ID")
+    void shouldRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(1_760_780_400_123_456L, UUID.randomUUID());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("Should encode a cursor that is safe in a query string")
+    void shouldEncodeUrlSafeCursor() {
+        String encoded = new KeysetCursor(-1, UUID.randomUUID()).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor as a bad request")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("123")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("abc:" + UUID.randomUUID())))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
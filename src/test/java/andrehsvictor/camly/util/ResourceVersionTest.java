@@ -0,0 +1,48 @@
+package andrehsvictor.camly.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ResourceVersionTest {
+
+    private final LocalDateTime updatedAt = LocalDateTime.of(2025, 5, 1, 12, 0);
+
+    @Test
+    @DisplayName("Should derive the same strong ETag from the same state")
+    void shouldDeriveStableStrongETag() {
+        ResourceVersion first = ResourceVersion.of(updatedAt, "post", 1, true);
+        ResourceVersion second = ResourceVersion.of(updatedAt, "post", 1, true);
+
+        assertThat(first.eTag()).isEqualTo(second.eTag()).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+    }
+
+    @Test
+    @DisplayName("Should change the ETag when any source changes")
+    void shouldChangeETagWithAnySource() {
+        ResourceVersion liked = ResourceVersion.of(updatedAt, "post", 1, true);
+        ResourceVersion notLiked = ResourceVersion.of(updatedAt, "post", 1, false);
+
+        assertThat(liked.eTag()).isNotEqualTo(notLiked.eTag());
+    }
+
+    @Test
+    @DisplayName("Should leave Last-Modified unset when the update time is unknown")
+    void shouldLeaveLastModifiedUnsetWhenUnknown() {
+        assertThat(ResourceVersion.of(null, "post").lastModified()).isNegative();
+        assertThat(ResourceVersion.of(null, "post").ok("body").getHeaders().getLastModified()).isNegative();
+    }
+
+    @Test
+    @DisplayName("Should pick the latest of two update times")
+    void shouldPickLatestUpdateTime() {
+        LocalDateTime later = updatedAt.plusSeconds(1);
+
+        assertThat(ResourceVersion.latest(updatedAt, later)).isEqualTo(later);
+        assertThat(ResourceVersion.latest(later, null)).isEqualTo(later);
+    }
+
+}
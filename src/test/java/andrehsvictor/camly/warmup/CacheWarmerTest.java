@@ -0,0 +1,121 @@
+package andrehsvictor.camly.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.Pageable;
+
+import andrehsvictor.camly.cache.TieredCache;
+import andrehsvictor.camly.cache.TieredCacheManager;
+import andrehsvictor.camly.post.Post;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.post.PostRow;
+import andrehsvictor.camly.post.PostSnapshot;
+import andrehsvictor.camly.post.PostSnapshotCache;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserRepository;
+import andrehsvictor.camly.user.UserSnapshot;
+import andrehsvictor.camly.warmup.CacheWarmer.State;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PostSnapshotCache postSnapshotCache;
+
+    @Mock
+    private TieredCacheManager cacheManager;
+
+    @Mock
+    private TieredCache usersCache;
+
+    private CacheWarmupProperties properties;
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheWarmupProperties();
+        properties.setPostLimit(4);
+        properties.setUserLimit(2);
+        properties.setBatchSize(2);
+        cacheWarmer = new CacheWarmer(properties, postRepository, userRepository, postSnapshotCache, cacheManager);
+    }
+
+    @Test
+    @DisplayName("Should preload top posts and users page by page")
+    void shouldPreloadTopPostsAndUsers() {
+        User author = user();
+        when(postRepository.findMostEngagedBetween(any(LocalDateTime.class), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(List.of(post(author), post(author)));
+        when(userRepository.findAllByOrderByFollowerCountDesc(any(Pageable.class)))
+                .thenReturn(List.of(author, user()));
+        when(cacheManager.getCache("users")).thenReturn(usersCache);
+
+        cacheWarmer.warmUp();
+
+        verify(postSnapshotCache, times(2)).putAllRows(any());
+        verify(usersCache).putAll(anyMap());
+        assertThat(cacheWarmer.getProgress().state()).isEqualTo(State.COMPLETED);
+        assertThat(cacheWarmer.getProgress().postsWarmed()).isEqualTo(4);
+        assertThat(cacheWarmer.getProgress().usersWarmed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should report readiness only once the first warm-up has finished")
+    void shouldReportReadinessAfterFirstWarmUp() {
+        when(postRepository.findMostEngagedBetween(any(LocalDateTime.class), any(LocalDateTime.class),
+                any(Pageable.class))).thenThrow(new IllegalStateException("Database unavailable"));
+        when(userRepository.findAllByOrderByFollowerCountDesc(any(Pageable.class))).thenReturn(List.of());
+        when(cacheManager.getCache("users")).thenReturn(usersCache);
+        CacheWarmupHealthIndicator healthIndicator = new CacheWarmupHealthIndicator(cacheWarmer);
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        cacheWarmer.warmUp();
+
+        assertThat(cacheWarmer.getProgress().state()).isEqualTo(State.FAILED);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(healthIndicator.health().getDetails()).containsEntry("state", State.FAILED);
+    }
+
+    private PostRow post(User author) {
+        return new PostRow(PostSnapshot.of(Post.builder()
+                .id(UUID.randomUUID())
+                .caption("Warm post")
+                .imageUrl("https://example.com/warm.jpg")
+                .user(author)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build()), UserSnapshot.of(author));
+    }
+
+    private User user() {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .username("user" + UUID.randomUUID())
+                .fullName("Warm User")
+                .build();
+    }
+
+}
@@ -0,0 +1,72 @@
+package andrehsvictor.camly.warmup;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+
+import andrehsvictor.camly.AbstractIntegrationTest;
+import andrehsvictor.camly.cache.TieredCache;
+import andrehsvictor.camly.cache.TieredCacheManager;
+import andrehsvictor.camly.post.Post;
+import andrehsvictor.camly.post.PostRepository;
+import andrehsvictor.camly.user.Role;
+import andrehsvictor.camly.user.User;
+import andrehsvictor.camly.user.UserProvider;
+import andrehsvictor.camly.user.UserRepository;
+
+class CacheWarmupIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TieredCacheManager cacheManager;
+
+    @Test
+    @DisplayName("Should preload top posts and users and report ready")
+    void shouldPreloadRecentPostsAndReportReady() {
+        String username = "warmup" + System.currentTimeMillis();
+        User user = userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .fullName("Warm-up User")
+                .provider(UserProvider.LOCAL)
+                .role(Role.USER)
+                .followerCount(1_000_000)
+                .build());
+        Post post = postRepository.save(Post.builder()
+                .caption("Warm post")
+                .imageUrl("https://example.com/warm.jpg")
+                .user(user)
+                .engagementRate(1_000_000f)
+                .build());
+
+        cacheWarmer.warmUp();
+
+        UUID postId = post.getId();
+        assertThat(((TieredCache) cacheManager.getCache("posts")).getRedisCache().get("post_" + postId)).isNotNull();
+        assertThat(((TieredCache) cacheManager.getCache("users")).getRedisCache().get("userById_" + user.getId()))
+                .isNotNull();
+
+        given()
+                .when()
+                .get("/actuator/health/readiness")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("status", equalTo("UP"));
+    }
+
+}